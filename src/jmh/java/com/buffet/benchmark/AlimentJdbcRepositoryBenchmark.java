@@ -0,0 +1,81 @@
+package com.buffet.benchmark;
+
+import com.buffet.model.Aliment;
+import com.buffet.model.Categorie;
+import com.buffet.repository.jdbc.AlimentJdbcRepository;
+import com.buffet.repository.jdbc.CategorieJdbcRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lecture et mapping des lignes par AlimentJdbcRepository, sur une base H2
+ * en mémoire (mode PostgreSQL) initialisée avec schema.sql
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AlimentJdbcRepositoryBenchmark {
+
+    @Param({"100", "1000", "5000"})
+    public int nombreAliments;
+
+    private SingleConnectionDataSource dataSource;
+    private AlimentJdbcRepository alimentJdbcRepository;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        dataSource = new SingleConnectionDataSource(
+                "jdbc:h2:mem:bench" + nombreAliments + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE", "sa", "", true);
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(dataSource);
+
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        CategorieJdbcRepository categorieJdbcRepository = new CategorieJdbcRepository(jdbcTemplate);
+        alimentJdbcRepository = new AlimentJdbcRepository(jdbcTemplate);
+
+        CatalogueSynthetique catalogue = CatalogueSynthetique.generer(nombreAliments);
+        for (Categorie categorie : catalogue.getCategories()) {
+            categorie.setId(null);
+            categorieJdbcRepository.save(categorie);
+        }
+        for (Aliment aliment : catalogue.getAliments()) {
+            aliment.setId(null);
+            alimentJdbcRepository.save(aliment);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        dataSource.destroy();
+    }
+
+    @Benchmark
+    public List<Aliment> findAll() {
+        return alimentJdbcRepository.findAll();
+    }
+
+    @Benchmark
+    public List<Aliment> findByCategorieNom() {
+        return alimentJdbcRepository.findByCategorieNom("Légumes");
+    }
+}
@@ -0,0 +1,79 @@
+package com.buffet.benchmark;
+
+import com.buffet.catalogue.CatalogueCache;
+import com.buffet.dto.BuffetResponse;
+import com.buffet.dto.OptimisationRequest;
+import com.buffet.dto.OptimisationResponse;
+import com.buffet.model.Aliment;
+import com.buffet.service.BuffetService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cache.support.NoOpCacheManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Calcul d'un buffet sur l'ensemble d'un catalogue synthétique
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BuffetServiceBenchmark {
+
+    @Param({"5", "50", "500", "5000"})
+    public int nombreAliments;
+
+    @Param({"20", "500"})
+    public int nombreInvites;
+
+    private BuffetService buffetService;
+    private List<Long> alimentIds;
+    private OptimisationRequest demandeOptimisation;
+
+    @Setup
+    public void setup() {
+        CatalogueSynthetique catalogue = CatalogueSynthetique.generer(nombreAliments);
+        CatalogueCache catalogueCache = catalogue.catalogueCache();
+        catalogueCache.getSnapshot();
+
+        // Sans cache des préréglages : on mesure les calculs eux-mêmes
+        buffetService = new BuffetService(catalogueCache, new NoOpCacheManager(),
+                Duration.ofMillis(50), Duration.ofSeconds(1));
+        alimentIds = catalogue.getAliments().stream().map(Aliment::getId).toList();
+        demandeOptimisation = new OptimisationRequest(nombreInvites, 900.0, 1100.0);
+        demandeOptimisation.setAllergiesExclues(List.of("gluten"));
+    }
+
+    @Benchmark
+    public BuffetResponse calculerBuffet() {
+        return buffetService.calculerBuffet(nombreInvites, alimentIds);
+    }
+
+    @Benchmark
+    public List<Aliment> genererRecommandationsBuffet() {
+        return buffetService.genererRecommandationsBuffet(nombreInvites);
+    }
+
+    /**
+     * Borné par le budget de recherche (50 ms) : statistiques.complete indique si
+     * l'optimum a été prouvé avant
+     */
+    @Benchmark
+    public OptimisationResponse optimiserBuffet() {
+        return buffetService.optimiserBuffet(demandeOptimisation);
+    }
+}
@@ -0,0 +1,158 @@
+package com.buffet.benchmark;
+
+import com.buffet.catalogue.CatalogueCache;
+import com.buffet.model.Aliment;
+import com.buffet.model.Categorie;
+import com.buffet.repository.CategorieRepository;
+import com.buffet.repository.RepasRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Catalogue synthétique pour les benchmarks : les aliments de data.json sont
+ * dupliqués jusqu'à la taille voulue, et les repositories sont remplacés par
+ * des implémentations en mémoire (aucune base nécessaire).
+ */
+public final class CatalogueSynthetique {
+
+    private final List<Categorie> categories;
+    private final List<Aliment> aliments;
+
+    private CatalogueSynthetique(List<Categorie> categories, List<Aliment> aliments) {
+        this.categories = categories;
+        this.aliments = aliments;
+    }
+
+    /**
+     * Génère un catalogue de {@code nombreAliments} aliments à partir de data.json
+     */
+    public static CatalogueSynthetique generer(int nombreAliments) {
+        JsonNode data = lireDataJson();
+
+        Map<String, Categorie> categoriesParNom = new HashMap<>();
+        List<Categorie> categories = new ArrayList<>();
+        long categorieId = 1;
+        for (JsonNode noeud : data.get("categories")) {
+            Categorie categorie = new Categorie(noeud.get("nom").asText(), noeud.get("description").asText());
+            categorie.setId(categorieId++);
+            categoriesParNom.put(categorie.getNom(), categorie);
+            categories.add(categorie);
+        }
+
+        JsonNode modeles = data.get("aliments");
+        List<Aliment> aliments = new ArrayList<>(nombreAliments);
+        for (int i = 0; i < nombreAliments; i++) {
+            JsonNode modele = modeles.get(i % modeles.size());
+            int copie = i / modeles.size();
+            Aliment aliment = new Aliment(
+                    copie == 0 ? modele.get("nom").asText() : modele.get("nom").asText() + " #" + copie,
+                    modele.get("description").asText(),
+                    new BigDecimal(modele.get("calories_per_100g").asText()),
+                    modele.get("allergies").asText(),
+                    modele.get("image_url").asText());
+            aliment.setId((long) i + 1);
+            aliment.setCreatedAt(LocalDateTime.now());
+            Categorie categorie = categoriesParNom.get(modele.get("categorie_nom").asText());
+            categorie.addAliment(aliment);
+            aliments.add(aliment);
+        }
+
+        return new CatalogueSynthetique(categories, aliments);
+    }
+
+    private static JsonNode lireDataJson() {
+        try (InputStream inputStream = new ClassPathResource("data.json").getInputStream()) {
+            return new ObjectMapper().readTree(inputStream);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public List<Categorie> getCategories() {
+        return categories;
+    }
+
+    public List<Aliment> getAliments() {
+        return aliments;
+    }
+
+    /**
+     * Cache du catalogue alimenté par les repositories en mémoire
+     */
+    public CatalogueCache catalogueCache() {
+        return new CatalogueCache(categorieRepository(), transactionManagerSansBase());
+    }
+
+    public CategorieRepository categorieRepository() {
+        return stub(CategorieRepository.class, Map.of(
+                "findAll", args -> new ArrayList<>(categories),
+                "findAllWithAliments", args -> new ArrayList<>(categories),
+                "count", args -> (long) categories.size()));
+    }
+
+    /**
+     * Repository de repas vide : les plannings sont toujours générés
+     */
+    public RepasRepository repasRepository() {
+        return stub(RepasRepository.class, Map.of(
+                "findByDateRepasBetween", args -> new ArrayList<>(),
+                "findByDateRepas", args -> new ArrayList<>()));
+    }
+
+    /**
+     * Gestionnaire de transactions sans ressource, pour les services annotés
+     */
+    public static PlatformTransactionManager transactionManagerSansBase() {
+        return new AbstractPlatformTransactionManager() {
+            @Override
+            protected Object doGetTransaction() {
+                return new Object();
+            }
+
+            @Override
+            protected void doBegin(Object transaction, TransactionDefinition definition) {
+            }
+
+            @Override
+            protected void doCommit(DefaultTransactionStatus status) {
+            }
+
+            @Override
+            protected void doRollback(DefaultTransactionStatus status) {
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T stub(Class<T> type, Map<String, Function<Object[], Object>> methodes) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            Function<Object[], Object> implementation = methodes.get(method.getName());
+            if (implementation != null) {
+                return implementation.apply(args);
+            }
+            return switch (method.getName()) {
+                case "toString" -> type.getSimpleName() + " (synthétique)";
+                case "hashCode" -> System.identityHashCode(proxy);
+                case "equals" -> proxy == args[0];
+                default -> throw new UnsupportedOperationException(method.getName());
+            };
+        });
+    }
+}
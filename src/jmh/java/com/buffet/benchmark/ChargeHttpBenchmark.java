@@ -0,0 +1,91 @@
+package com.buffet.benchmark;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Test de charge HTTP contre une application déjà démarrée, pour comparer les
+ * threads de plateforme et les threads virtuels (BUFFET_THREADS_VIRTUELS=true).
+ * Chaque thread JMH est un client qui enchaîne les requêtes ; le rapport donne le
+ * débit, les percentiles de latence et le nombre de réponses 503 du limiteur de
+ * connexions. Nombre de clients : option -t (200 par défaut, la taille du pool de
+ * threads de Tomcat).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Threads(200)
+@Fork(1)
+public class ChargeHttpBenchmark {
+
+    @Param({"http://localhost:8080"})
+    public String url;
+
+    // Lecture JPA simple, et lecture de toutes les catégories avec leurs aliments
+    @Param({"/api/aliments/1", "/api/categories/avec-aliments"})
+    public String chemin;
+
+    private HttpClient client;
+    private HttpRequest requete;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException, InterruptedException {
+        client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        requete = HttpRequest.newBuilder(URI.create(url + chemin)).GET().build();
+        try {
+            client.send(requete, HttpResponse.BodyHandlers.discarding());
+        } catch (ConnectException e) {
+            throw new IllegalStateException("Application injoignable sur " + url + " : la démarrer avant le test", e);
+        }
+    }
+
+    /**
+     * Nombre de réponses par statut, rapporté avec le débit
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Reponses {
+        public long reussies;
+        public long refusees;
+        public long erreurs;
+    }
+
+    @Benchmark
+    public int requete(Reponses reponses) throws IOException, InterruptedException {
+        int statut = client.send(requete, HttpResponse.BodyHandlers.discarding()).statusCode();
+        if (statut < 300) {
+            reponses.reussies++;
+        } else if (statut == 503) {
+            reponses.refusees++;
+        } else {
+            reponses.erreurs++;
+        }
+        return statut;
+    }
+}
@@ -0,0 +1,114 @@
+package com.buffet.benchmark;
+
+import com.buffet.catalogue.CatalogueCache;
+import com.buffet.catalogue.IndexRecherche;
+import com.buffet.model.Aliment;
+import com.buffet.model.Categorie;
+import com.buffet.repository.jdbc.AlimentJdbcRepository;
+import com.buffet.service.ImportCatalogueService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Import complet d'un catalogue JSON synthétique sur H2 en mémoire (lecture en
+ * flux, lots JDBC) : le temps doit croître linéairement avec le nombre d'aliments
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ImportCatalogueBenchmark {
+
+    @Param({"10000", "100000"})
+    public int nombreAliments;
+
+    @Param({"1", "2"})
+    public int nombreEcrivains;
+
+    private JdbcTemplate jdbcTemplate;
+    private ImportCatalogueService importCatalogueService;
+    private byte[] json;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:import" + nombreAliments + "_" + nombreEcrivains
+                        + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1", "sa", "");
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+
+        CatalogueSynthetique catalogue = CatalogueSynthetique.generer(nombreAliments);
+        CatalogueCache catalogueCache = catalogue.catalogueCache();
+        ObjectMapper objectMapper = new ObjectMapper();
+        importCatalogueService = new ImportCatalogueService(new AlimentJdbcRepository(jdbcTemplate),
+                new DataSourceTransactionManager(dataSource), catalogueCache, new IndexRecherche(catalogueCache),
+                objectMapper, 1000, nombreEcrivains);
+        json = ecrire(catalogue, objectMapper);
+    }
+
+    @Setup(Level.Iteration)
+    public void viderAliments() {
+        jdbcTemplate.update("DELETE FROM aliments");
+    }
+
+    @Benchmark
+    public ImportCatalogueService.Bilan importer() throws IOException {
+        return importCatalogueService.importer(new ByteArrayInputStream(json), "benchmark");
+    }
+
+    /**
+     * Catalogue au format de data.json
+     */
+    private static byte[] ecrire(CatalogueSynthetique catalogue, ObjectMapper objectMapper) throws IOException {
+        ByteArrayOutputStream sortie = new ByteArrayOutputStream();
+        try (JsonGenerator generateur = objectMapper.createGenerator(sortie)) {
+            generateur.writeStartObject();
+            generateur.writeArrayFieldStart("categories");
+            for (Categorie categorie : catalogue.getCategories()) {
+                generateur.writeStartObject();
+                generateur.writeStringField("nom", categorie.getNom());
+                generateur.writeStringField("description", categorie.getDescription());
+                generateur.writeEndObject();
+            }
+            generateur.writeEndArray();
+            generateur.writeArrayFieldStart("aliments");
+            for (Aliment aliment : catalogue.getAliments()) {
+                generateur.writeStartObject();
+                generateur.writeStringField("nom", aliment.getNom());
+                generateur.writeStringField("description", aliment.getDescription());
+                generateur.writeNumberField("calories_per_100g", aliment.getCaloriesPer100g());
+                generateur.writeStringField("allergies", aliment.getAllergies());
+                generateur.writeStringField("image_url", aliment.getImageUrl());
+                generateur.writeStringField("categorie_nom", aliment.getCategorie().getNom());
+                generateur.writeEndObject();
+            }
+            generateur.writeEndArray();
+            generateur.writeEndObject();
+        }
+        return sortie.toByteArray();
+    }
+}
@@ -0,0 +1,54 @@
+package com.buffet.benchmark;
+
+import com.buffet.catalogue.IndexRecherche;
+import com.buffet.model.Aliment;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recherche par nom dans l'index de trigrammes, en distribution de latences
+ * (percentiles p50 / p99 dans le rapport JMH) : saisie partielle, nom complet
+ * accentué ou non, faute de frappe
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IndexRechercheBenchmark {
+
+    @Param({"1000", "100000"})
+    public int nombreAliments;
+
+    @Param({"po", "epinards", "Épinards", "courgete", "riz basmati"})
+    public String saisie;
+
+    @Param({"20"})
+    public int limite;
+
+    private IndexRecherche indexRecherche;
+
+    @Setup
+    public void setup() {
+        indexRecherche = new IndexRecherche(CatalogueSynthetique.generer(nombreAliments).catalogueCache());
+        indexRecherche.rechercher("construction", 1);
+    }
+
+    @Benchmark
+    public List<Aliment> rechercher() {
+        return indexRecherche.rechercher(saisie, limite);
+    }
+}
@@ -0,0 +1,59 @@
+package com.buffet.benchmark;
+
+import com.buffet.catalogue.CatalogueCache;
+import com.buffet.model.Repas;
+import com.buffet.repository.jdbc.RepasJdbcRepository;
+import com.buffet.service.PlanificationService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Génération et statistiques d'une planification hebdomadaire
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlanificationServiceBenchmark {
+
+    @Param({"50", "500", "5000"})
+    public int nombreAliments;
+
+    private PlanificationService planificationService;
+    private final LocalDate semaine = LocalDate.of(2024, 1, 10);
+
+    @Setup
+    public void setup() {
+        CatalogueSynthetique catalogue = CatalogueSynthetique.generer(nombreAliments);
+        CatalogueCache catalogueCache = catalogue.catalogueCache();
+        catalogueCache.getSnapshot();
+
+        planificationService = new PlanificationService(catalogue.repasRepository(), new RepasJdbcRepository(null), catalogueCache);
+    }
+
+    @Benchmark
+    public List<Repas> genererPlanificationHebdomadaire() {
+        return planificationService.genererPlanificationHebdomadaire(semaine);
+    }
+
+    @Benchmark
+    public Map<String, Object> getStatistiquesSemaine() {
+        return planificationService.getStatistiquesSemaine(semaine);
+    }
+}
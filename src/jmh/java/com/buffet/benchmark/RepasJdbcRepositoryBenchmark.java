@@ -0,0 +1,123 @@
+package com.buffet.benchmark;
+
+import com.buffet.catalogue.CatalogueCache;
+import com.buffet.model.Aliment;
+import com.buffet.model.Categorie;
+import com.buffet.model.Repas;
+import com.buffet.repository.jdbc.AlimentJdbcRepository;
+import com.buffet.repository.jdbc.CategorieJdbcRepository;
+import com.buffet.repository.jdbc.RepasJdbcRepository;
+import com.buffet.service.PlanificationService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sauvegarde d'une planification générée : insertion par lots
+ * (RepasJdbcRepository) contre une insertion ligne à ligne, sur H2 en mémoire
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RepasJdbcRepositoryBenchmark {
+
+    private static final BigDecimal QUANTITE = BigDecimal.valueOf(400);
+
+    @Param({"1", "4"})
+    public int nombreSemaines;
+
+    private SingleConnectionDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private RepasJdbcRepository repasJdbcRepository;
+    private List<Repas> planification;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        dataSource = new SingleConnectionDataSource(
+                "jdbc:h2:mem:repas" + nombreSemaines + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE", "sa", "", true);
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(dataSource);
+
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        CategorieJdbcRepository categorieJdbcRepository = new CategorieJdbcRepository(jdbcTemplate);
+        AlimentJdbcRepository alimentJdbcRepository = new AlimentJdbcRepository(jdbcTemplate);
+        repasJdbcRepository = new RepasJdbcRepository(jdbcTemplate);
+
+        CatalogueSynthetique catalogue = CatalogueSynthetique.generer(200);
+        for (Categorie categorie : catalogue.getCategories()) {
+            categorie.setId(null);
+            categorieJdbcRepository.save(categorie);
+        }
+        for (Aliment aliment : catalogue.getAliments()) {
+            aliment.setId(null);
+            alimentJdbcRepository.save(aliment);
+        }
+
+        CatalogueCache catalogueCache = catalogue.catalogueCache();
+        planification = new PlanificationService(catalogue.repasRepository(), repasJdbcRepository, catalogueCache)
+                .genererPlanification(LocalDate.of(2024, 1, 8), nombreSemaines);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        dataSource.destroy();
+    }
+
+    @Benchmark
+    public List<Repas> insertionParLots() {
+        planification.forEach(repas -> repas.setId(null));
+        return repasJdbcRepository.insertAll(planification, repas -> QUANTITE);
+    }
+
+    @Benchmark
+    public List<Repas> insertionLigneALigne() {
+        for (Repas repas : planification) {
+            KeyHolder keyHolder = new GeneratedKeyHolder();
+            jdbcTemplate.update(connection -> {
+                PreparedStatement ps = connection.prepareStatement(
+                        "INSERT INTO repas (nom, description, date_repas, type_repas, nombre_personnes, created_at) " +
+                        "VALUES (?, ?, ?, ?, ?, ?)", new String[]{"id"});
+                ps.setString(1, repas.getNom());
+                ps.setString(2, repas.getDescription());
+                ps.setDate(3, Date.valueOf(repas.getDateRepas()));
+                ps.setString(4, repas.getTypeRepas().name());
+                ps.setInt(5, repas.getNombrePersonnes());
+                ps.setTimestamp(6, Timestamp.valueOf(repas.getCreatedAt()));
+                return ps;
+            }, keyHolder);
+            repas.setId(keyHolder.getKey().longValue());
+
+            for (Aliment aliment : repas.getAliments()) {
+                jdbcTemplate.update("INSERT INTO repas_aliments (repas_id, aliment_id, quantite_grammes) VALUES (?, ?, ?)",
+                        repas.getId(), aliment.getId(), QUANTITE);
+            }
+        }
+        return planification;
+    }
+}
@@ -0,0 +1,63 @@
+package com.buffet.benchmark;
+
+import com.buffet.catalogue.CatalogueSnapshot;
+import com.buffet.catalogue.SnapshotBinaire;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Démarrage à chaud : relecture d'un snapshot binaire projeté en mémoire, contre
+ * la construction du snapshot à partir d'entités déjà chargées (sans compter la base)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SnapshotBinaireBenchmark {
+
+    @Param({"1000", "100000"})
+    public int nombreAliments;
+
+    private CatalogueSynthetique catalogue;
+    private Path fichier;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        catalogue = CatalogueSynthetique.generer(nombreAliments);
+        fichier = Files.createTempFile("catalogue", ".snapshot");
+        SnapshotBinaire.ecrire(construireDepuisEntites(), fichier);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(fichier);
+    }
+
+    @Benchmark
+    public CatalogueSnapshot lireFichier() throws IOException {
+        return SnapshotBinaire.lire(fichier, 1);
+    }
+
+    @Benchmark
+    public CatalogueSnapshot construireDepuisEntites() {
+        return CatalogueSnapshot.construire(1, catalogue.getCategories(), catalogue.getAliments());
+    }
+}
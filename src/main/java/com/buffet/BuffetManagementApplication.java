@@ -1,88 +1,36 @@
 package com.buffet;
 
-import com.buffet.model.Categorie;
-import com.buffet.model.Aliment;
-import com.buffet.service.CategorieService;
-import com.buffet.service.AlimentService;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.core.type.TypeReference;
+import com.buffet.service.SynchronisationCatalogueService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
-import org.springframework.core.io.ClassPathResource;
-
-import java.io.InputStream;
-import java.math.BigDecimal;
-import java.util.List;
-import java.util.Map;
+import org.springframework.core.io.Resource;
 
 @SpringBootApplication
 public class BuffetManagementApplication {
 
+    private static final Logger log = LoggerFactory.getLogger(BuffetManagementApplication.class);
+
     public static void main(String[] args) {
         SpringApplication.run(BuffetManagementApplication.class, args);
     }
 
     @Bean
-    public CommandLineRunner dataLoader(CategorieService categorieService, AlimentService alimentService) {
+    public CommandLineRunner dataLoader(SynchronisationCatalogueService synchronisationCatalogueService,
+                                        @Value("${buffet.catalogue.source:classpath:data.json}") Resource catalogue) {
         return args -> {
-            System.out.println("=== Import des données initiales ===");
-            
+            log.info("=== Synchronisation du catalogue {} ===", catalogue.getDescription());
+
+            // Rien n'est écrit si le fichier n'a pas changé depuis la dernière synchronisation
             try {
-                // Charger le fichier JSON
-                ObjectMapper mapper = new ObjectMapper();
-                ClassPathResource resource = new ClassPathResource("data.json");
-                InputStream inputStream = resource.getInputStream();
-                
-                Map<String, Object> data = mapper.readValue(inputStream, new TypeReference<Map<String, Object>>() {});
-                
-                // Importer les catégories
-                List<Map<String, Object>> categoriesData = (List<Map<String, Object>>) data.get("categories");
-                for (Map<String, Object> catData : categoriesData) {
-                    Categorie categorie = new Categorie();
-                    categorie.setNom((String) catData.get("nom"));
-                    categorie.setDescription((String) catData.get("description"));
-                    categorieService.save(categorie);
-                    System.out.println("Catégorie importée: " + categorie.getNom());
-                }
-                
-                // Importer les aliments
-                List<Map<String, Object>> alimentsData = (List<Map<String, Object>>) data.get("aliments");
-                for (Map<String, Object> aliData : alimentsData) {
-                    Aliment aliment = new Aliment();
-                    aliment.setNom((String) aliData.get("nom"));
-                    aliment.setDescription((String) aliData.get("description"));
-                    aliment.setAllergies((String) aliData.get("allergies"));
-                    aliment.setImageUrl((String) aliData.get("image_url"));
-                    
-                    // Convertir les calories en BigDecimal
-                    Object caloriesObj = aliData.get("calories_per_100g");
-                    if (caloriesObj != null) {
-                        BigDecimal calories = new BigDecimal(caloriesObj.toString());
-                        aliment.setCaloriesPer100g(calories);
-                    }
-                    
-                    // Trouver la catégorie correspondante
-                    String categorieNom = (String) aliData.get("categorie_nom");
-                    Categorie categorie = categorieService.findByNom(categorieNom);
-                    if (categorie != null) {
-                        aliment.setCategorie(categorie);
-                        alimentService.save(aliment);
-                        System.out.println("Aliment importé: " + aliment.getNom() + " (Catégorie: " + categorie.getNom() + ")");
-                    } else {
-                        System.err.println("Catégorie non trouvée pour l'aliment: " + aliment.getNom());
-                    }
-                }
-                
-                System.out.println("=== Import terminé avec succès ===");
-                System.out.println("Nombre de catégories importées: " + categoriesData.size());
-                System.out.println("Nombre d'aliments importés: " + alimentsData.size());
-                
+                synchronisationCatalogueService.synchroniser(catalogue);
             } catch (Exception e) {
-                System.err.println("Erreur lors de l'import des données: " + e.getMessage());
-                e.printStackTrace();
+                log.error("Erreur lors de la synchronisation du catalogue", e);
             }
         };
     }
-} 
\ No newline at end of file
+}
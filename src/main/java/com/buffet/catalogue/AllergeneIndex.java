@@ -0,0 +1,56 @@
+package com.buffet.catalogue;
+
+import com.buffet.model.Aliment;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Masques d'allergènes du catalogue, un {@code long} par aliment.
+ *
+ * Les recherches d'inclusion ou d'exclusion se résument à un ET binaire sur
+ * un tableau, dans l'ordre de {@link CatalogueSnapshot#getAliments()}.
+ */
+public final class AllergeneIndex {
+
+    private final List<Aliment> aliments;
+    private final long[] masques;
+
+    AllergeneIndex(List<Aliment> aliments) {
+        this.aliments = aliments;
+        this.masques = new long[aliments.size()];
+        for (int i = 0; i < masques.length; i++) {
+            masques[i] = aliments.get(i).getAllergenesMasque();
+        }
+    }
+
+    /**
+     * Aliments contenant au moins un des allergènes du masque
+     */
+    public List<Aliment> avecUnDes(long masque) {
+        List<Aliment> resultat = new ArrayList<>();
+        for (int i = 0; i < masques.length; i++) {
+            if ((masques[i] & masque) != 0) {
+                resultat.add(aliments.get(i));
+            }
+        }
+        return resultat;
+    }
+
+    /**
+     * Aliments ne contenant aucun des allergènes du masque, au plus {@code limite}
+     */
+    public List<Aliment> sansAucunDes(long masque, int limite) {
+        List<Aliment> resultat = new ArrayList<>(Math.min(limite, masques.length));
+        for (int i = 0; i < masques.length && resultat.size() < limite; i++) {
+            if ((masques[i] & masque) == 0) {
+                resultat.add(aliments.get(i));
+            }
+        }
+        return resultat;
+    }
+
+    public long getMasque(int index) {
+        return masques[index];
+    }
+}
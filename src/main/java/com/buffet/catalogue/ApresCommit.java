@@ -0,0 +1,25 @@
+package com.buffet.catalogue;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Exécute une action une fois la transaction courante validée, ou tout de suite hors transaction
+ */
+final class ApresCommit {
+
+    private ApresCommit() {}
+
+    static void executer(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.buffet.catalogue;
+
+import com.buffet.config.RoutageLectureDataSource;
+import com.buffet.model.Aliment;
+import com.buffet.model.Categorie;
+import com.buffet.repository.CategorieRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.LongFunction;
+
+/**
+ * Détient le snapshot courant du catalogue et le reconstruit après chaque écriture.
+ *
+ * Les écritures incrémentent la version une fois leur transaction validée ; le
+ * snapshot est reconstruit au premier accès suivant puis publié de façon atomique.
+ * Tant que la version ne change pas, les lectures ne touchent pas la base.
+ */
+@Component
+public class CatalogueCache {
+
+    private final CategorieRepository categorieRepository;
+    private final TransactionTemplate lectureTemplate;
+
+    private final AtomicLong version = new AtomicLong(1);
+    // Distingue dans les ETag les versions de deux démarrages (ou de deux instances)
+    private final String instance = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+    private volatile long derniereEcriture; // ms epoch du dernier commit d'écriture
+    private volatile CatalogueSnapshot snapshot;
+    private final List<Consumer<CatalogueSnapshot>> ecouteurs = new CopyOnWriteArrayList<>();
+    private final List<Runnable> ecouteursEcritures = new CopyOnWriteArrayList<>();
+
+    public CatalogueCache(CategorieRepository categorieRepository, PlatformTransactionManager transactionManager) {
+        this.categorieRepository = categorieRepository;
+        this.lectureTemplate = new TransactionTemplate(transactionManager);
+        this.lectureTemplate.setReadOnly(true);
+    }
+
+    /**
+     * Retourne le snapshot courant, reconstruit s'il est périmé
+     */
+    public CatalogueSnapshot getSnapshot() {
+        CatalogueSnapshot courant = snapshot;
+        if (courant != null && courant.getVersion() == version.get()) {
+            return courant;
+        }
+        return reconstruire();
+    }
+
+    /**
+     * Retourne le snapshot s'il est à jour, sans déclencher de reconstruction
+     */
+    public Optional<CatalogueSnapshot> getSnapshotSiAJour() {
+        CatalogueSnapshot courant = snapshot;
+        return courant != null && courant.getVersion() == version.get() ? Optional.of(courant) : Optional.empty();
+    }
+
+    /**
+     * Dernier snapshot publié, même périmé, sans déclencher de reconstruction
+     */
+    public Optional<CatalogueSnapshot> getDernierSnapshot() {
+        return Optional.ofNullable(snapshot);
+    }
+
+    /**
+     * Version courante du catalogue
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * Signale une écriture sur le catalogue ; la version avance après le commit
+     */
+    public void invalider() {
+        ApresCommit.executer(() -> {
+            ecouteursEcritures.forEach(Runnable::run);
+            derniereEcriture = System.currentTimeMillis();
+            version.incrementAndGet();
+        });
+    }
+
+    /**
+     * Validateurs HTTP du catalogue, qui changent à chaque écriture. L'ETag vient de
+     * la version (aucune lecture en base tant qu'elle n'a pas changé), Last-Modified
+     * de la création la plus récente ou, si elle est postérieure, de la dernière
+     * écriture : modifications et suppressions ne changent pas created_at.
+     * À appeler hors transaction : un 304 ne doit pas emprunter de connexion.
+     */
+    public Validateurs getValidateurs() {
+        // Version lue avant le contenu : au pire un ETag plus ancien que les données
+        long courante = version.get();
+        return new Validateurs("\"" + instance + "-" + courante + "\"",
+                Math.max(epochMilli(getSnapshot().getDerniereCreation()), derniereEcriture));
+    }
+
+    /**
+     * Validateurs d'un seul aliment, tirés de l'instance qui sera renvoyée. L'ETag vient
+     * de son contenu et ne change pas avec les écritures sur les autres aliments ; la date
+     * de modification d'une ligne n'étant pas conservée, Last-Modified reste celui du catalogue.
+     */
+    public Validateurs getValidateurs(Aliment aliment) {
+        return new Validateurs("\"" + Long.toHexString(empreinte(aliment)) + "\"",
+                Math.max(epochMilli(aliment.getCreatedAt()), derniereEcriture));
+    }
+
+    private static long epochMilli(LocalDateTime date) {
+        return date != null ? date.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : 0L;
+    }
+
+    /**
+     * FNV-1a 64 bits des champs sérialisés d'un aliment
+     */
+    private static long empreinte(Aliment aliment) {
+        String contenu = aliment.getId() + "\u001F" + aliment.getNom() + "\u001F" + aliment.getDescription()
+                + "\u001F" + aliment.getCaloriesPer100g() + "\u001F" + aliment.getAllergies()
+                + "\u001F" + aliment.getImageUrl() + "\u001F" + aliment.getCreatedAt();
+        long empreinte = 0xcbf29ce484222325L;
+        for (byte octet : contenu.getBytes(StandardCharsets.UTF_8)) {
+            empreinte ^= octet & 0xff;
+            empreinte *= 0x100000001b3L;
+        }
+        return empreinte;
+    }
+
+    /**
+     * ETag fort et date de dernière modification (ms epoch) du catalogue
+     */
+    public record Validateurs(String etag, long derniereModification) {}
+
+    /**
+     * Reconstruit le snapshot depuis la base sous une nouvelle version : son contenu
+     * peut différer du précédent (snapshot relu d'un fichier, écriture d'une autre instance)
+     */
+    public CatalogueSnapshot rafraichir() {
+        version.incrementAndGet();
+        return reconstruire();
+    }
+
+    /**
+     * Publie un snapshot chargé hors base (au démarrage) si aucun n'a encore été
+     * construit. Il est servi comme à jour jusqu'à la prochaine écriture ou au
+     * prochain {@link #rafraichir()}.
+     *
+     * @param chargement charge le snapshot avec la nouvelle version qu'on lui donne
+     * @return le snapshot publié, ou vide si un snapshot existait déjà
+     */
+    public synchronized Optional<CatalogueSnapshot> publierSiAbsent(LongFunction<CatalogueSnapshot> chargement) {
+        if (snapshot != null) {
+            return Optional.empty();
+        }
+        CatalogueSnapshot charge = chargement.apply(version.incrementAndGet());
+        snapshot = charge;
+        return Optional.of(charge);
+    }
+
+    /**
+     * Appelle l'écouteur après chaque reconstruction depuis la base, dans le thread qui l'a faite
+     */
+    public void ecouterReconstructions(Consumer<CatalogueSnapshot> ecouteur) {
+        ecouteurs.add(ecouteur);
+    }
+
+    /**
+     * Appelle l'écouteur après chaque écriture validée, avant que la version n'avance
+     */
+    public void ecouterEcritures(Runnable ecouteur) {
+        ecouteursEcritures.add(ecouteur);
+    }
+
+    private synchronized CatalogueSnapshot reconstruire() {
+        long cible = version.get();
+        CatalogueSnapshot courant = snapshot;
+        if (courant != null && courant.getVersion() == cible) {
+            return courant;
+        }
+
+        // Sur la primaire : un réplica en retard figerait l'état d'avant l'écriture sous la nouvelle version
+        CatalogueSnapshot nouveau = RoutageLectureDataSource.surPrimaire(() -> lectureTemplate.execute(status -> {
+            // Une seule jointure : tout aliment a une catégorie (categorie_id NOT NULL)
+            List<Categorie> categories = categorieRepository.findAllWithAliments();
+            List<Aliment> aliments = categories.stream().flatMap(c -> c.getAliments().stream()).toList();
+            return CatalogueSnapshot.construire(cible, categories, aliments);
+        }));
+        snapshot = nouveau;
+        ecouteurs.forEach(ecouteur -> ecouteur.accept(nouveau));
+        return nouveau;
+    }
+}
@@ -0,0 +1,232 @@
+package com.buffet.catalogue;
+
+import com.buffet.model.Aliment;
+import com.buffet.model.Categorie;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Vue immuable et versionnée du catalogue (aliments + catégories).
+ *
+ * Les entités contenues sont des copies détachées de la session JPA : elles ne
+ * déclenchent aucun chargement paresseux et ne doivent pas être modifiées.
+ */
+public final class CatalogueSnapshot {
+
+    public static final String AUCUNE_ALLERGIE = "Aucune allergie connue";
+
+    private final long version;
+    private final LocalDateTime dateConstruction;
+    private final List<Categorie> categories;
+    private final List<Aliment> aliments;
+    private final Map<Long, Aliment> alimentsParId;
+    private final Map<String, List<Aliment>> alimentsParCategorie;
+    private final List<Aliment> alimentsSansAllergie;
+    private final NutrimentStore nutriments;
+    private final AllergeneIndex allergenes;
+    private final LocalDateTime derniereCreation;
+
+    private CatalogueSnapshot(long version, List<Categorie> categories, List<Aliment> aliments) {
+        this.version = version;
+        this.dateConstruction = LocalDateTime.now();
+        this.categories = Collections.unmodifiableList(categories);
+        this.aliments = Collections.unmodifiableList(aliments);
+
+        Map<Long, Aliment> parId = new HashMap<>();
+        Map<String, List<Aliment>> parCategorie = new HashMap<>();
+        List<Aliment> sansAllergie = new ArrayList<>();
+        LocalDateTime creation = null;
+        for (Categorie categorie : categories) {
+            creation = plusRecente(creation, categorie.getCreatedAt());
+        }
+        for (Aliment aliment : aliments) {
+            creation = plusRecente(creation, aliment.getCreatedAt());
+            parId.put(aliment.getId(), aliment);
+            if (aliment.getCategorie() != null) {
+                parCategorie.computeIfAbsent(aliment.getCategorie().getNom(), k -> new ArrayList<>()).add(aliment);
+            }
+            if (aliment.getAllergies() == null || aliment.getAllergies().equals(AUCUNE_ALLERGIE)) {
+                sansAllergie.add(aliment);
+            }
+        }
+        parCategorie.replaceAll((nom, liste) -> Collections.unmodifiableList(liste));
+
+        this.alimentsParId = Collections.unmodifiableMap(parId);
+        this.alimentsParCategorie = Collections.unmodifiableMap(parCategorie);
+        this.alimentsSansAllergie = Collections.unmodifiableList(sansAllergie);
+        this.nutriments = NutrimentStore.construire(this.aliments);
+        this.allergenes = new AllergeneIndex(this.aliments);
+        this.derniereCreation = creation;
+    }
+
+    private static LocalDateTime plusRecente(LocalDateTime a, LocalDateTime b) {
+        return a == null || (b != null && b.isAfter(a)) ? b : a;
+    }
+
+    /**
+     * Construit un snapshot à partir d'entités chargées (catégories déjà initialisées)
+     */
+    public static CatalogueSnapshot construire(long version, Collection<Categorie> categoriesSource,
+                                               Collection<Aliment> alimentsSource) {
+        Map<Long, Categorie> copiesCategories = new HashMap<>();
+        List<Categorie> categories = new ArrayList<>();
+        for (Categorie source : categoriesSource) {
+            Categorie copie = new Categorie();
+            copie.setId(source.getId());
+            copie.setNom(source.getNom());
+            copie.setDescription(source.getDescription());
+            copie.setCreatedAt(source.getCreatedAt());
+            copie.setAliments(new ArrayList<>());
+            copiesCategories.put(copie.getId(), copie);
+            categories.add(copie);
+        }
+
+        List<Aliment> aliments = new ArrayList<>();
+        for (Aliment source : alimentsSource) {
+            Aliment copie = new Aliment();
+            copie.setId(source.getId());
+            copie.setNom(source.getNom());
+            copie.setDescription(source.getDescription());
+            copie.setCaloriesPer100g(source.getCaloriesPer100g());
+            copie.setAllergies(source.getAllergies());
+            copie.setImageUrl(source.getImageUrl());
+            copie.setCreatedAt(source.getCreatedAt());
+            if (source.getCategorie() != null) {
+                Categorie categorie = copiesCategories.get(source.getCategorie().getId());
+                copie.setCategorie(categorie);
+                if (categorie != null) {
+                    categorie.getAliments().add(copie);
+                }
+            }
+            aliments.add(copie);
+        }
+        aliments.sort(Comparator.comparing(Aliment::getId));
+        categories.sort(Comparator.comparing(Categorie::getId));
+        return assembler(version, categories, aliments);
+    }
+
+    /**
+     * Construit un snapshot à partir de copies déjà détachées et triées par ID,
+     * chaque catégorie portant la liste (modifiable) de ses aliments
+     */
+    static CatalogueSnapshot assembler(long version, List<Categorie> categories, List<Aliment> aliments) {
+        for (Categorie categorie : categories) {
+            categorie.setAliments(Collections.unmodifiableList(categorie.getAliments()));
+        }
+        return new CatalogueSnapshot(version, categories, aliments);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public LocalDateTime getDateConstruction() {
+        return dateConstruction;
+    }
+
+    /**
+     * Date de création la plus récente des catégories et aliments (null si vide)
+     */
+    public LocalDateTime getDerniereCreation() {
+        return derniereCreation;
+    }
+
+    public List<Categorie> getCategories() {
+        return categories;
+    }
+
+    public List<Aliment> getAliments() {
+        return aliments;
+    }
+
+    /**
+     * Trouve un aliment par ID
+     */
+    public Optional<Aliment> findAlimentById(Long id) {
+        return Optional.ofNullable(alimentsParId.get(id));
+    }
+
+    /**
+     * Trouve plusieurs aliments par leurs IDs (ordre de la demande, sans doublon)
+     */
+    public List<Aliment> findAlimentsByIds(Collection<Long> ids) {
+        List<Aliment> resultat = new ArrayList<>(ids.size());
+        for (Long id : new LinkedHashSet<>(ids)) {
+            Aliment aliment = alimentsParId.get(id);
+            if (aliment != null) {
+                resultat.add(aliment);
+            }
+        }
+        return resultat;
+    }
+
+    /**
+     * Positions dans {@link #getAliments()} (et dans les colonnes de {@link #getNutriments()})
+     * des IDs demandés, dans l'ordre de la demande et sans doublon
+     */
+    public int[] resoudreIndices(Collection<Long> ids) {
+        int[] indices = new int[ids.size()];
+        int count = 0;
+        for (Long id : new LinkedHashSet<>(ids)) {
+            int index = id == null ? -1 : nutriments.indexOf(id);
+            if (index >= 0) {
+                indices[count++] = index;
+            }
+        }
+        return count == indices.length ? indices : Arrays.copyOf(indices, count);
+    }
+
+    /**
+     * Trouve les aliments d'une catégorie par nom
+     */
+    public List<Aliment> findAlimentsByCategorieNom(String categorieNom) {
+        return alimentsParCategorie.getOrDefault(categorieNom, List.of());
+    }
+
+    /**
+     * Les {@code k} aliments les plus (ou les moins) caloriques, sans trier tout le catalogue
+     */
+    public List<Aliment> premiersParCalories(int k, boolean plusCaloriques) {
+        int[] positions = nutriments.topK(k, plusCaloriques);
+        List<Aliment> resultat = new ArrayList<>(positions.length);
+        for (int position : positions) {
+            resultat.add(aliments.get(position));
+        }
+        return resultat;
+    }
+
+    /**
+     * Aliments sans allergie connue
+     */
+    public List<Aliment> getAlimentsSansAllergie() {
+        return alimentsSansAllergie;
+    }
+
+    /**
+     * Colonnes nutritionnelles, alignées sur l'ordre de {@link #getAliments()}
+     */
+    public NutrimentStore getNutriments() {
+        return nutriments;
+    }
+
+    /**
+     * Masques d'allergènes, alignés sur l'ordre de {@link #getAliments()}
+     */
+    public AllergeneIndex getAllergenes() {
+        return allergenes;
+    }
+
+    public int size() {
+        return aliments.size();
+    }
+}
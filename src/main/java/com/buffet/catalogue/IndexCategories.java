@@ -0,0 +1,102 @@
+package com.buffet.catalogue;
+
+import com.buffet.model.Aliment;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Aliments du catalogue rangés par ordinal de catégorie (voir {@link NutrimentStore}).
+ *
+ * Construit une fois pour un snapshot, il permet de sélectionner les premiers
+ * aliments d'une ou plusieurs catégories sans reparcourir le catalogue ni
+ * comparer de noms.
+ */
+public final class IndexCategories {
+
+    private final CatalogueSnapshot catalogue;
+    private final int[][] positionsParOrdinal;
+
+    private IndexCategories(CatalogueSnapshot catalogue, int[][] positionsParOrdinal) {
+        this.catalogue = catalogue;
+        this.positionsParOrdinal = positionsParOrdinal;
+    }
+
+    /**
+     * Répartit les aliments du snapshot par catégorie, en un seul passage
+     */
+    public static IndexCategories construire(CatalogueSnapshot catalogue) {
+        NutrimentStore nutriments = catalogue.getNutriments();
+        int[] tailles = new int[nutriments.nombreCategories()];
+        for (int i = 0; i < nutriments.size(); i++) {
+            int ordinal = nutriments.getCategorieOrdinal(i);
+            if (ordinal >= 0) {
+                tailles[ordinal]++;
+            }
+        }
+
+        int[][] positions = new int[tailles.length][];
+        for (int ordinal = 0; ordinal < tailles.length; ordinal++) {
+            positions[ordinal] = new int[tailles[ordinal]];
+        }
+        int[] remplissage = new int[tailles.length];
+        for (int i = 0; i < nutriments.size(); i++) {
+            int ordinal = nutriments.getCategorieOrdinal(i);
+            if (ordinal >= 0) {
+                positions[ordinal][remplissage[ordinal]++] = i;
+            }
+        }
+
+        return new IndexCategories(catalogue, positions);
+    }
+
+    /**
+     * Les {@code n} premiers aliments (ordre du catalogue) appartenant à l'une des catégories
+     */
+    public List<Aliment> premiers(int n, String... categoriesNoms) {
+        int[] positions = positions(categoriesNoms);
+        List<Aliment> resultat = new ArrayList<>(Math.min(n, positions.length));
+        for (int i = 0; i < positions.length && i < n; i++) {
+            resultat.add(catalogue.getAliments().get(positions[i]));
+        }
+        return resultat;
+    }
+
+    /**
+     * Positions croissantes (dans {@link CatalogueSnapshot#getAliments()}) des
+     * aliments appartenant à l'une des catégories
+     */
+    public int[] positions(String... categoriesNoms) {
+        NutrimentStore nutriments = catalogue.getNutriments();
+        int[][] sources = Arrays.stream(categoriesNoms)
+                .mapToInt(nutriments::ordinalCategorie)
+                .filter(ordinal -> ordinal >= 0)
+                .distinct()
+                .mapToObj(ordinal -> positionsParOrdinal[ordinal])
+                .toArray(int[][]::new);
+        if (sources.length == 1) {
+            return sources[0].clone();
+        }
+
+        // Fusion des listes de positions, chacune croissante
+        int total = Arrays.stream(sources).mapToInt(source -> source.length).sum();
+        int[] resultat = new int[total];
+        int[] curseurs = new int[sources.length];
+        for (int i = 0; i < total; i++) {
+            int meilleure = -1;
+            for (int s = 0; s < sources.length; s++) {
+                if (curseurs[s] < sources[s].length
+                        && (meilleure < 0 || sources[s][curseurs[s]] < sources[meilleure][curseurs[meilleure]])) {
+                    meilleure = s;
+                }
+            }
+            resultat[i] = sources[meilleure][curseurs[meilleure]++];
+        }
+        return resultat;
+    }
+
+    public CatalogueSnapshot getCatalogue() {
+        return catalogue;
+    }
+}
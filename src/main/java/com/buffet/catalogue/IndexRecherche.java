@@ -0,0 +1,443 @@
+package com.buffet.catalogue;
+
+import com.buffet.model.Aliment;
+import com.buffet.model.Allergene;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Index de trigrammes sur le nom des aliments, pour la recherche au fil de la saisie.
+ *
+ * Les noms sont mis en minuscules et débarrassés de leurs accents ("Légumes" et
+ * "legumes" se confondent), puis chaque mot, complété par des espaces comme dans
+ * pg_trgm, est découpé en trigrammes. Une recherche ne parcourt que les listes des
+ * trigrammes de la saisie, sauf une saisie de moins de trois caractères, comparée à
+ * tous les noms comme le faisait findByNomContainingIgnoreCase. L'index est construit au premier usage à partir du
+ * snapshot, puis tenu à jour aliment par aliment après chaque écriture validée.
+ */
+@Component
+public class IndexRecherche {
+
+    /** Similarité minimale (trigrammes communs / trigrammes distincts) d'une correspondance approchée */
+    static final double SEUIL_SIMILARITE = 0.3;
+
+    // Rangs des correspondances, de la meilleure à la moins bonne
+    private static final int EGAL = 0;
+    private static final int DEBUT = 1;
+    private static final int DEBUT_DE_MOT = 2;
+    private static final int CONTIENT = 3;
+    private static final int APPROCHE = 4;
+
+    private static final int ALPHABET = 37; // espace, a-z, 0-9
+    private static final Pattern SEPARATEURS = Pattern.compile("[^a-z0-9]+");
+
+    /** Compteurs par position réutilisés d'une recherche à l'autre, remis à zéro après usage */
+    private static final ThreadLocal<Tampons> TAMPONS = ThreadLocal.withInitial(Tampons::new);
+
+    private final CatalogueCache catalogueCache;
+    private final ReentrantReadWriteLock verrou = new ReentrantReadWriteLock();
+
+    // Protégés par le verrou
+    private volatile boolean construit;
+    private final ListeEntiers[] listesParTrigramme = new ListeEntiers[ALPHABET * ALPHABET * ALPHABET];
+    private final List<Entree> entrees = new ArrayList<>();
+    private final Map<Long, Integer> positionParId = new HashMap<>();
+    private final Deque<Integer> positionsLibres = new ArrayDeque<>();
+    // Longueur du nom et nombre de trigrammes par position, en colonnes : le calcul
+    // des clés ne touche aux entrées que pour les positions qui peuvent être retenues
+    private int[] longueurs = new int[0];
+    private int[] nombresTrigrammes = new int[0];
+
+    private record Entree(Aliment aliment, String nom, int[] trigrammes) {}
+
+    public IndexRecherche(CatalogueCache catalogueCache) {
+        this.catalogueCache = catalogueCache;
+    }
+
+    /**
+     * Aliments dont le nom correspond à la saisie, les meilleurs d'abord : nom égal,
+     * nom commençant par la saisie, mot commençant par la saisie, nom contenant la
+     * saisie, puis noms proches (fautes de frappe). À rang égal, les plus similaires
+     * puis les plus courts passent devant.
+     */
+    public List<Aliment> rechercher(String saisie, int limite) {
+        String requete = normaliser(saisie);
+        if (requete.isEmpty() || limite <= 0) {
+            return List.of();
+        }
+        int[] trigrammesRequete = trigrammes(requete);
+        assurerConstruit();
+
+        verrou.readLock().lock();
+        try {
+            if (requete.length() < 3) {
+                return parcourir(requete, trigrammesRequete, limite);
+            }
+            Tampons tampons = TAMPONS.get().dimensionner(entrees.size());
+            int[] communs = tampons.communs;
+            int nombreTouchees = 0;
+            for (int trigramme : trigrammesRequete) {
+                ListeEntiers positions = listesParTrigramme[trigramme];
+                if (positions == null) {
+                    continue;
+                }
+                for (int i = 0; i < positions.taille; i++) {
+                    int position = positions.valeurs[i];
+                    if (communs[position]++ == 0) {
+                        tampons.touchees[nombreTouchees++] = position;
+                    }
+                }
+            }
+
+            // Un nom contenant la saisie a tous ses trigrammes, sauf au plus les
+            // deux du début et celui de la fin : les autres positions ne peuvent
+            // être retenues que par similarité, sans comparer les chaînes
+            int nombreRequete = trigrammesRequete.length;
+            int minimumContient = nombreRequete - 3;
+            long[] tas = new long[Math.min(limite, nombreTouchees)];
+            int taille = 0;
+            for (int i = 0; i < nombreTouchees; i++) {
+                int position = tampons.touchees[i];
+                int nombreCommuns = communs[position];
+                communs[position] = 0;
+                double similarite = nombreCommuns
+                        / (double) (nombreRequete + nombresTrigrammes[position] - nombreCommuns);
+
+                int rangMinimum;
+                if (nombreCommuns < minimumContient) {
+                    if (similarite < SEUIL_SIMILARITE) {
+                        continue;
+                    }
+                    rangMinimum = APPROCHE;
+                } else {
+                    boolean egalPossible = nombreCommuns == nombreRequete && nombresTrigrammes[position] == nombreRequete;
+                    rangMinimum = egalPossible ? EGAL : DEBUT;
+                }
+                // Tas plein : inutile de comparer les chaînes si même le meilleur rang possible n'y entre pas
+                if (taille == tas.length && cle(rangMinimum, similarite, longueurs[position], position) >= tas[0]) {
+                    continue;
+                }
+                int rang = rangMinimum == APPROCHE ? APPROCHE : rang(entrees.get(position).nom(), requete);
+                if (rang == APPROCHE && similarite < SEUIL_SIMILARITE) {
+                    continue;
+                }
+
+                taille = retenir(tas, taille, cle(rang, similarite, longueurs[position], position));
+            }
+            return resultat(tas, taille);
+        } finally {
+            verrou.readLock().unlock();
+        }
+    }
+
+    /**
+     * Saisie de moins de trois caractères : elle peut figurer au milieu d'un mot sans
+     * partager aucun de ses trigrammes ("um" dans "legumes"), tous les noms sont comparés
+     */
+    private List<Aliment> parcourir(String requete, int[] trigrammesRequete, int limite) {
+        long[] tas = new long[Math.min(limite, entrees.size())];
+        int taille = 0;
+        for (int position = 0; position < entrees.size(); position++) {
+            Entree entree = entrees.get(position);
+            if (entree == null) {
+                continue;
+            }
+            int nombreCommuns = 0;
+            for (int trigramme : entree.trigrammes()) {
+                for (int trigrammeRequete : trigrammesRequete) {
+                    if (trigramme == trigrammeRequete) {
+                        nombreCommuns++;
+                    }
+                }
+            }
+            double similarite = nombreCommuns
+                    / (double) (trigrammesRequete.length + entree.trigrammes().length - nombreCommuns);
+            int rang = rang(entree.nom(), requete);
+            if (rang == APPROCHE && similarite < SEUIL_SIMILARITE) {
+                continue;
+            }
+            taille = retenir(tas, taille, cle(rang, similarite, longueurs[position], position));
+        }
+        return resultat(tas, taille);
+    }
+
+    /**
+     * Garde dans le tas (de taille fixe, plus grande clé en tête) les plus petites clés
+     */
+    private static int retenir(long[] tas, int taille, long cle) {
+        if (taille < tas.length) {
+            tas[taille] = cle;
+            remonter(tas, taille);
+            return taille + 1;
+        }
+        if (cle < tas[0]) {
+            tas[0] = cle;
+            descendre(tas, taille);
+        }
+        return taille;
+    }
+
+    private List<Aliment> resultat(long[] tas, int taille) {
+        Arrays.sort(tas, 0, taille);
+        List<Aliment> resultat = new ArrayList<>(taille);
+        for (int i = 0; i < taille; i++) {
+            resultat.add(entrees.get((int) tas[i]).aliment());
+        }
+        return resultat;
+    }
+
+    /**
+     * Ajoute ou remplace un aliment, une fois la transaction courante validée
+     */
+    public void indexer(Aliment aliment) {
+        ApresCommit.executer(() -> modifier(() -> {
+            retirerPosition(aliment.getId());
+            ajouter(aliment);
+        }));
+    }
+
+    /**
+     * Retire un aliment, une fois la transaction courante validée
+     */
+    public void retirer(Long id) {
+        ApresCommit.executer(() -> modifier(() -> retirerPosition(id)));
+    }
+
+    /**
+     * Abandonne l'index après une écriture touchant plusieurs aliments ; il sera
+     * reconstruit depuis le snapshot à la prochaine recherche
+     */
+    public void reinitialiser() {
+        ApresCommit.executer(() -> {
+            verrou.writeLock().lock();
+            try {
+                construit = false;
+                vider();
+            } finally {
+                verrou.writeLock().unlock();
+            }
+        });
+    }
+
+    private void assurerConstruit() {
+        if (construit) {
+            return;
+        }
+        verrou.writeLock().lock();
+        try {
+            if (!construit) {
+                vider();
+                for (Aliment aliment : catalogueCache.getSnapshot().getAliments()) {
+                    ajouter(aliment);
+                }
+                construit = true;
+            }
+        } finally {
+            verrou.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Les modifications antérieures à la construction sont déjà dans le snapshot
+     */
+    private void modifier(Runnable modification) {
+        verrou.writeLock().lock();
+        try {
+            if (construit) {
+                modification.run();
+            }
+        } finally {
+            verrou.writeLock().unlock();
+        }
+    }
+
+    private void ajouter(Aliment aliment) {
+        String nom = normaliser(aliment.getNom() != null ? aliment.getNom() : "");
+        int[] trigrammes = trigrammes(nom);
+        Integer libre = positionsLibres.poll();
+        int position = libre != null ? libre : entrees.size();
+        Entree entree = new Entree(aliment, nom, trigrammes);
+        if (libre != null) {
+            entrees.set(position, entree);
+        } else {
+            entrees.add(entree);
+        }
+        positionParId.put(aliment.getId(), position);
+        if (position == longueurs.length) {
+            longueurs = Arrays.copyOf(longueurs, Math.max(16, position * 2));
+            nombresTrigrammes = Arrays.copyOf(nombresTrigrammes, longueurs.length);
+        }
+        longueurs[position] = nom.length();
+        nombresTrigrammes[position] = trigrammes.length;
+
+        for (int trigramme : trigrammes) {
+            ListeEntiers positions = listesParTrigramme[trigramme];
+            if (positions == null) {
+                positions = new ListeEntiers();
+                listesParTrigramme[trigramme] = positions;
+            }
+            positions.ajouter(position);
+        }
+    }
+
+    private void retirerPosition(Long id) {
+        Integer position = positionParId.remove(id);
+        if (position == null) {
+            return;
+        }
+        for (int trigramme : entrees.get(position).trigrammes()) {
+            listesParTrigramme[trigramme].retirer(position);
+        }
+        entrees.set(position, null);
+        positionsLibres.push(position);
+    }
+
+    private void vider() {
+        Arrays.fill(listesParTrigramme, null);
+        entrees.clear();
+        positionParId.clear();
+        positionsLibres.clear();
+    }
+
+    private static int rang(String nom, String requete) {
+        if (nom.equals(requete)) {
+            return EGAL;
+        }
+        if (nom.startsWith(requete)) {
+            return DEBUT;
+        }
+        if (!nom.contains(requete)) {
+            return APPROCHE;
+        }
+        return nom.contains(" " + requete) ? DEBUT_DE_MOT : CONTIENT;
+    }
+
+    /**
+     * Clé de tri croissante : rang, similarité décroissante, longueur du nom, position
+     */
+    private static long cle(int rang, double similarite, int longueur, int position) {
+        long dissemblance = Math.round((1 - similarite) * 0xFFFF);
+        return ((long) rang << 60) | (dissemblance << 44) | ((long) Math.min(longueur, 0xFFF) << 32) | position;
+    }
+
+    private static void remonter(long[] tas, int position) {
+        while (position > 0) {
+            int parent = (position - 1) / 2;
+            if (tas[parent] >= tas[position]) {
+                return;
+            }
+            echanger(tas, parent, position);
+            position = parent;
+        }
+    }
+
+    private static void descendre(long[] tas, int taille) {
+        int position = 0;
+        while (true) {
+            int plusGrand = position;
+            int gauche = 2 * position + 1;
+            int droite = gauche + 1;
+            if (gauche < taille && tas[gauche] > tas[plusGrand]) {
+                plusGrand = gauche;
+            }
+            if (droite < taille && tas[droite] > tas[plusGrand]) {
+                plusGrand = droite;
+            }
+            if (plusGrand == position) {
+                return;
+            }
+            echanger(tas, position, plusGrand);
+            position = plusGrand;
+        }
+    }
+
+    private static void echanger(long[] tas, int i, int j) {
+        long temp = tas[i];
+        tas[i] = tas[j];
+        tas[j] = temp;
+    }
+
+    /**
+     * Minuscules sans accents, mots séparés par une seule espace
+     */
+    static String normaliser(String texte) {
+        return SEPARATEURS.matcher(Allergene.normaliser(texte)).replaceAll(" ").trim();
+    }
+
+    /**
+     * Trigrammes distincts des mots d'un texte normalisé, chaque mot précédé de deux
+     * espaces et suivi d'une (les débuts de mots sont ainsi retrouvés dès une lettre)
+     */
+    static int[] trigrammes(String texteNormalise) {
+        ListeEntiers codes = new ListeEntiers();
+        for (String mot : texteNormalise.split(" ")) {
+            if (mot.isEmpty()) {
+                continue;
+            }
+            String complete = "  " + mot + " ";
+            for (int i = 0; i + 3 <= complete.length(); i++) {
+                codes.ajouter((code(complete.charAt(i)) * ALPHABET + code(complete.charAt(i + 1))) * ALPHABET
+                        + code(complete.charAt(i + 2)));
+            }
+        }
+        return Arrays.stream(codes.valeurs, 0, codes.taille).distinct().toArray();
+    }
+
+    private static int code(char c) {
+        if (c >= 'a' && c <= 'z') {
+            return 1 + c - 'a';
+        }
+        if (c >= '0' && c <= '9') {
+            return 27 + c - '0';
+        }
+        return 0;
+    }
+
+    private static final class Tampons {
+
+        private int[] communs = new int[0];
+        private int[] touchees = new int[0];
+
+        Tampons dimensionner(int nombrePositions) {
+            if (communs.length < nombrePositions) {
+                communs = new int[nombrePositions];
+                touchees = new int[nombrePositions];
+            }
+            return this;
+        }
+    }
+
+    /**
+     * Liste d'entiers sans ordre, sans boxing
+     */
+    private static final class ListeEntiers {
+
+        private int[] valeurs = new int[4];
+        private int taille;
+
+        void ajouter(int valeur) {
+            if (taille == valeurs.length) {
+                valeurs = Arrays.copyOf(valeurs, taille * 2);
+            }
+            valeurs[taille++] = valeur;
+        }
+
+        void retirer(int valeur) {
+            for (int i = 0; i < taille; i++) {
+                if (valeurs[i] == valeur) {
+                    valeurs[i] = valeurs[--taille];
+                    return;
+                }
+            }
+        }
+    }
+}
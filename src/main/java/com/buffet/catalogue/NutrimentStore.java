@@ -0,0 +1,224 @@
+package com.buffet.catalogue;
+
+import com.buffet.model.Aliment;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Stockage en colonnes des données nutritionnelles du catalogue.
+ *
+ * Les aliments sont rangés par ID croissant ; les calories pour 100g sont
+ * conservées en centièmes (virgule fixe, comme la colonne DECIMAL(8,2)) et la
+ * catégorie sous forme d'ordinal. Les calculs se font sur des types primitifs,
+ * sans BigDecimal ni boxing.
+ */
+public final class NutrimentStore {
+
+    /** Marqueur des aliments sans valeur calorique */
+    public static final int CALORIES_ABSENTES = Integer.MIN_VALUE;
+
+    private final long[] ids;
+    private final int[] caloriesCentiemes;
+    private final int[] categorieOrdinaux;
+    private final String[] nomsCategories;
+
+    private NutrimentStore(long[] ids, int[] caloriesCentiemes, int[] categorieOrdinaux, String[] nomsCategories) {
+        this.ids = ids;
+        this.caloriesCentiemes = caloriesCentiemes;
+        this.categorieOrdinaux = categorieOrdinaux;
+        this.nomsCategories = nomsCategories;
+    }
+
+    /**
+     * Construit le stockage à partir d'aliments triés par ID croissant
+     */
+    public static NutrimentStore construire(List<Aliment> alimentsTriesParId) {
+        int taille = alimentsTriesParId.size();
+        long[] ids = new long[taille];
+        int[] calories = new int[taille];
+        int[] ordinaux = new int[taille];
+        Map<String, Integer> ordinalParCategorie = new HashMap<>();
+
+        for (int i = 0; i < taille; i++) {
+            Aliment aliment = alimentsTriesParId.get(i);
+            ids[i] = aliment.getId();
+            calories[i] = versCentiemes(aliment.getCaloriesPer100g());
+            String categorie = aliment.getCategorie() != null ? aliment.getCategorie().getNom() : null;
+            ordinaux[i] = categorie == null ? -1
+                    : ordinalParCategorie.computeIfAbsent(categorie, k -> ordinalParCategorie.size());
+        }
+
+        String[] noms = new String[ordinalParCategorie.size()];
+        ordinalParCategorie.forEach((nom, ordinal) -> noms[ordinal] = nom);
+        return new NutrimentStore(ids, calories, ordinaux, noms);
+    }
+
+    private static int versCentiemes(BigDecimal calories) {
+        if (calories == null) {
+            return CALORIES_ABSENTES;
+        }
+        return calories.setScale(2, RoundingMode.HALF_UP).unscaledValue().intValueExact();
+    }
+
+    /**
+     * Position d'un aliment dans les colonnes, ou -1 s'il est absent
+     */
+    public int indexOf(long id) {
+        int index = Arrays.binarySearch(ids, id);
+        return index >= 0 ? index : -1;
+    }
+
+    /**
+     * Calories apportées par une quantité (en kg) de l'aliment à la position donnée
+     */
+    public double calories(int index, double quantiteKg) {
+        int centiemes = caloriesCentiemes[index];
+        if (centiemes == CALORIES_ABSENTES) {
+            return 0;
+        }
+        // calories_per_100g * kg * 10, avec calories_per_100g = centiemes / 100
+        return centiemes * quantiteKg / 10.0;
+    }
+
+    /**
+     * Somme des calories des {@code count} premières positions de {@code indices}
+     */
+    public double caloriesTotales(int[] indices, int count, double quantiteKg) {
+        long centiemesTotaux = 0;
+        for (int i = 0; i < count; i++) {
+            int centiemes = caloriesCentiemes[indices[i]];
+            if (centiemes != CALORIES_ABSENTES) {
+                centiemesTotaux += centiemes;
+            }
+        }
+        return centiemesTotaux * quantiteKg / 10.0;
+    }
+
+    /**
+     * Positions des {@code k} aliments les plus (ou les moins) caloriques, du premier
+     * au dernier rang, en un seul passage avec un tas borné à {@code k} éléments
+     * (O(n log k)). Même ordre que l'index (calories_per_100g, id) : à calories égales,
+     * l'ID croissant départage, inversé pour les plus caloriques. Les aliments sans
+     * calories sont ignorés.
+     */
+    public int[] topK(int k, boolean plusCaloriques) {
+        if (k <= 0) {
+            return new int[0];
+        }
+        // Tas dont la racine est le moins bon des aliments retenus
+        int[] tas = new int[Math.min(k, ids.length)];
+        int taille = 0;
+        for (int i = 0; i < ids.length; i++) {
+            if (caloriesCentiemes[i] == CALORIES_ABSENTES) {
+                continue;
+            }
+            if (taille < tas.length) {
+                tas[taille] = i;
+                remonter(tas, taille++, plusCaloriques);
+            } else if (taille > 0 && avant(i, tas[0], plusCaloriques)) {
+                tas[0] = i;
+                descendre(tas, taille, plusCaloriques);
+            }
+        }
+
+        // Le moins bon sort en premier : le résultat se remplit par la fin
+        int[] resultat = new int[taille];
+        for (int rang = taille - 1; rang >= 0; rang--) {
+            resultat[rang] = tas[0];
+            tas[0] = tas[--taille];
+            descendre(tas, taille, plusCaloriques);
+        }
+        return resultat;
+    }
+
+    /**
+     * Vrai si l'aliment en position {@code a} est classé avant celui en position {@code b}
+     */
+    private boolean avant(int a, int b, boolean plusCaloriques) {
+        int comparaison = caloriesCentiemes[a] != caloriesCentiemes[b]
+                ? Integer.compare(caloriesCentiemes[a], caloriesCentiemes[b])
+                : Integer.compare(a, b); // positions rangées par ID croissant
+        return plusCaloriques ? comparaison > 0 : comparaison < 0;
+    }
+
+    private void remonter(int[] tas, int position, boolean plusCaloriques) {
+        while (position > 0) {
+            int parent = (position - 1) / 2;
+            if (!avant(tas[parent], tas[position], plusCaloriques)) {
+                return;
+            }
+            echanger(tas, parent, position);
+            position = parent;
+        }
+    }
+
+    private void descendre(int[] tas, int taille, boolean plusCaloriques) {
+        int position = 0;
+        while (true) {
+            int moinsBon = position;
+            int gauche = 2 * position + 1;
+            int droite = gauche + 1;
+            if (gauche < taille && avant(tas[moinsBon], tas[gauche], plusCaloriques)) {
+                moinsBon = gauche;
+            }
+            if (droite < taille && avant(tas[moinsBon], tas[droite], plusCaloriques)) {
+                moinsBon = droite;
+            }
+            if (moinsBon == position) {
+                return;
+            }
+            echanger(tas, position, moinsBon);
+            position = moinsBon;
+        }
+    }
+
+    private static void echanger(int[] tas, int i, int j) {
+        int temp = tas[i];
+        tas[i] = tas[j];
+        tas[j] = temp;
+    }
+
+    public long getId(int index) {
+        return ids[index];
+    }
+
+    public int getCaloriesCentiemes(int index) {
+        return caloriesCentiemes[index];
+    }
+
+    public int getCategorieOrdinal(int index) {
+        return categorieOrdinaux[index];
+    }
+
+    /**
+     * Nom de la catégorie correspondant à un ordinal
+     */
+    public String getNomCategorie(int ordinal) {
+        return ordinal < 0 ? null : nomsCategories[ordinal];
+    }
+
+    /**
+     * Ordinal d'une catégorie par nom, ou -1 si elle n'a aucun aliment
+     */
+    public int ordinalCategorie(String nom) {
+        for (int i = 0; i < nomsCategories.length; i++) {
+            if (nomsCategories[i].equals(nom)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public int nombreCategories() {
+        return nomsCategories.length;
+    }
+
+    public int size() {
+        return ids.length;
+    }
+}
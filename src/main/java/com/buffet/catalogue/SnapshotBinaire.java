@@ -0,0 +1,223 @@
+package com.buffet.catalogue;
+
+import com.buffet.model.Aliment;
+import com.buffet.model.Categorie;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Format binaire du snapshot du catalogue, relu par projection mémoire au démarrage.
+ *
+ * Après l'en-tête viennent la table des chaînes (chaque chaîne distincte une seule
+ * fois : offsets puis octets UTF-8), les catégories puis les aliments, en
+ * enregistrements de largeur fixe qui désignent leurs chaînes par indice et leur
+ * catégorie par ordinal. Les calories sont en centièmes, les dates en microsecondes
+ * UTC. Un CRC32 du contenu écarte un fichier tronqué ou d'un autre format.
+ */
+public final class SnapshotBinaire {
+
+    private static final int MAGIC = 0x42554643; // "BUFC"
+    private static final int FORMAT = 1;
+
+    // magic, format, crc, nombre de chaînes, octets des chaînes, nombre de catégories, nombre d'aliments
+    private static final int TAILLE_EN_TETE = 7 * Integer.BYTES;
+    // id, nom, description, createdAt
+    private static final int TAILLE_CATEGORIE = Long.BYTES + 2 * Integer.BYTES + Long.BYTES;
+    // id, nom, description, calories, allergies, imageUrl, catégorie, createdAt
+    private static final int TAILLE_ALIMENT = Long.BYTES + 6 * Integer.BYTES + Long.BYTES;
+
+    private static final int SANS_CHAINE = -1;
+    private static final int SANS_CALORIES = Integer.MIN_VALUE;
+    private static final long SANS_DATE = Long.MIN_VALUE;
+
+    private SnapshotBinaire() {
+    }
+
+    /**
+     * Écrit le snapshot dans un fichier temporaire puis le renomme : un lecteur ne
+     * voit jamais de fichier à moitié écrit
+     */
+    public static void ecrire(CatalogueSnapshot snapshot, Path fichier) throws IOException {
+        Map<String, Integer> chaines = new LinkedHashMap<>();
+        Map<Long, Integer> ordinaux = new HashMap<>();
+        List<Categorie> categories = snapshot.getCategories();
+        for (int i = 0; i < categories.size(); i++) {
+            ordinaux.put(categories.get(i).getId(), i);
+            indice(chaines, categories.get(i).getNom());
+            indice(chaines, categories.get(i).getDescription());
+        }
+        for (Aliment aliment : snapshot.getAliments()) {
+            indice(chaines, aliment.getNom());
+            indice(chaines, aliment.getDescription());
+            indice(chaines, aliment.getAllergies());
+            indice(chaines, aliment.getImageUrl());
+        }
+
+        List<byte[]> octetsChaines = new ArrayList<>(chaines.size());
+        int tailleChaines = 0;
+        for (String chaine : chaines.keySet()) {
+            byte[] octets = chaine.getBytes(StandardCharsets.UTF_8);
+            octetsChaines.add(octets);
+            tailleChaines += octets.length;
+        }
+
+        int taille = TAILLE_EN_TETE + (chaines.size() + 1) * Integer.BYTES + tailleChaines
+                + categories.size() * TAILLE_CATEGORIE + snapshot.size() * TAILLE_ALIMENT;
+        ByteBuffer tampon = ByteBuffer.allocate(taille);
+        tampon.position(TAILLE_EN_TETE);
+
+        int offset = 0;
+        for (byte[] octets : octetsChaines) {
+            tampon.putInt(offset);
+            offset += octets.length;
+        }
+        tampon.putInt(offset);
+        octetsChaines.forEach(tampon::put);
+
+        for (Categorie categorie : categories) {
+            tampon.putLong(categorie.getId());
+            tampon.putInt(indice(chaines, categorie.getNom()));
+            tampon.putInt(indice(chaines, categorie.getDescription()));
+            tampon.putLong(micros(categorie.getCreatedAt()));
+        }
+        for (Aliment aliment : snapshot.getAliments()) {
+            tampon.putLong(aliment.getId());
+            tampon.putInt(indice(chaines, aliment.getNom()));
+            tampon.putInt(indice(chaines, aliment.getDescription()));
+            tampon.putInt(aliment.getCaloriesPer100g() != null
+                    ? aliment.getCaloriesPer100g().movePointRight(2).intValue() : SANS_CALORIES);
+            tampon.putInt(indice(chaines, aliment.getAllergies()));
+            tampon.putInt(indice(chaines, aliment.getImageUrl()));
+            Integer ordinal = aliment.getCategorie() != null ? ordinaux.get(aliment.getCategorie().getId()) : null;
+            tampon.putInt(ordinal != null ? ordinal : -1);
+            tampon.putLong(micros(aliment.getCreatedAt()));
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(tampon.array(), TAILLE_EN_TETE, taille - TAILLE_EN_TETE);
+        tampon.position(0);
+        tampon.putInt(MAGIC).putInt(FORMAT).putInt((int) crc.getValue())
+                .putInt(chaines.size()).putInt(tailleChaines)
+                .putInt(categories.size()).putInt(snapshot.size());
+
+        Path temporaire = fichier.resolveSibling(fichier.getFileName() + ".tmp");
+        Files.write(temporaire, tampon.array());
+        Files.move(temporaire, fichier, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Relit un snapshot écrit par {@link #ecrire} et lui attribue la version donnée
+     *
+     * @throws IOException fichier illisible, tronqué ou d'un autre format
+     */
+    public static CatalogueSnapshot lire(Path fichier, long version) throws IOException {
+        try (FileChannel canal = FileChannel.open(fichier, StandardOpenOption.READ)) {
+            if (canal.size() < TAILLE_EN_TETE || canal.size() > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot de taille invalide : " + fichier);
+            }
+            MappedByteBuffer tampon = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+            if (tampon.getInt() != MAGIC || tampon.getInt() != FORMAT) {
+                throw new IOException("Format de snapshot inconnu : " + fichier);
+            }
+            int crcAttendu = tampon.getInt();
+            int nombreChaines = tampon.getInt();
+            int tailleChaines = tampon.getInt();
+            int nombreCategories = tampon.getInt();
+            int nombreAliments = tampon.getInt();
+            long tailleAttendue = TAILLE_EN_TETE + (nombreChaines + 1L) * Integer.BYTES + tailleChaines
+                    + (long) nombreCategories * TAILLE_CATEGORIE + (long) nombreAliments * TAILLE_ALIMENT;
+            if (tailleAttendue != canal.size()) {
+                throw new IOException("Snapshot tronqué : " + fichier);
+            }
+            CRC32 crc = new CRC32();
+            crc.update(tampon.slice());
+            if ((int) crc.getValue() != crcAttendu) {
+                throw new IOException("Snapshot corrompu : " + fichier);
+            }
+
+            int[] offsets = new int[nombreChaines + 1];
+            for (int i = 0; i <= nombreChaines; i++) {
+                offsets[i] = tampon.getInt();
+            }
+            byte[] octets = new byte[tailleChaines];
+            tampon.get(octets);
+            String[] chaines = new String[nombreChaines];
+            for (int i = 0; i < nombreChaines; i++) {
+                chaines[i] = new String(octets, offsets[i], offsets[i + 1] - offsets[i], StandardCharsets.UTF_8);
+            }
+
+            List<Categorie> categories = new ArrayList<>(nombreCategories);
+            for (int i = 0; i < nombreCategories; i++) {
+                Categorie categorie = new Categorie();
+                categorie.setId(tampon.getLong());
+                categorie.setNom(chaine(chaines, tampon.getInt()));
+                categorie.setDescription(chaine(chaines, tampon.getInt()));
+                categorie.setCreatedAt(date(tampon.getLong()));
+                categorie.setAliments(new ArrayList<>());
+                categories.add(categorie);
+            }
+
+            List<Aliment> aliments = new ArrayList<>(nombreAliments);
+            for (int i = 0; i < nombreAliments; i++) {
+                Aliment aliment = new Aliment();
+                aliment.setId(tampon.getLong());
+                aliment.setNom(chaine(chaines, tampon.getInt()));
+                aliment.setDescription(chaine(chaines, tampon.getInt()));
+                int centiemes = tampon.getInt();
+                aliment.setCaloriesPer100g(centiemes != SANS_CALORIES ? BigDecimal.valueOf(centiemes, 2) : null);
+                aliment.setAllergies(chaine(chaines, tampon.getInt()));
+                aliment.setImageUrl(chaine(chaines, tampon.getInt()));
+                int ordinal = tampon.getInt();
+                if (ordinal >= 0) {
+                    Categorie categorie = categories.get(ordinal);
+                    aliment.setCategorie(categorie);
+                    categorie.getAliments().add(aliment);
+                }
+                aliment.setCreatedAt(date(tampon.getLong()));
+                aliments.add(aliment);
+            }
+
+            return CatalogueSnapshot.assembler(version, categories, aliments);
+        }
+    }
+
+    private static int indice(Map<String, Integer> chaines, String chaine) {
+        return chaine == null ? SANS_CHAINE : chaines.computeIfAbsent(chaine, c -> chaines.size());
+    }
+
+    private static String chaine(String[] chaines, int indice) {
+        return indice == SANS_CHAINE ? null : chaines[indice];
+    }
+
+    private static long micros(LocalDateTime date) {
+        if (date == null) {
+            return SANS_DATE;
+        }
+        return date.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + date.getNano() / 1_000;
+    }
+
+    private static LocalDateTime date(long micros) {
+        if (micros == SANS_DATE) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000),
+                Math.floorMod(micros, 1_000_000) * 1_000, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,149 @@
+package com.buffet.catalogue;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Démarrage à chaud du catalogue à partir d'un fichier {@link SnapshotBinaire}.
+ *
+ * À la création du contexte, avant que le serveur web n'accepte des requêtes, le
+ * dernier snapshot écrit est relu et publié dans le {@link CatalogueCache} : les
+ * listes d'aliments et les calculs de buffet sont servis sans attendre la base.
+ * Une fois l'application prête, le snapshot est rafraîchi depuis la base en
+ * arrière-plan. Chaque reconstruction depuis la base réécrit le fichier, hors du
+ * thread qui l'a faite. Un chemin vide désactive le fichier ; sans chemin, le fichier
+ * est propre à la base ({@link #fichierParDefaut(String)}).
+ */
+@Component
+public class SnapshotDisque {
+
+    private static final Logger log = LoggerFactory.getLogger(SnapshotDisque.class);
+
+    private final CatalogueCache catalogueCache;
+    private final IndexRecherche indexRecherche;
+    private final Path fichier;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(tache -> {
+        Thread thread = new Thread(tache, "snapshot-disque");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Dernier snapshot en attente d'écriture : les reconstructions rapprochées n'en écrivent qu'un
+    private final AtomicReference<CatalogueSnapshot> aEcrire = new AtomicReference<>();
+    private volatile boolean provisoire;
+
+    public SnapshotDisque(CatalogueCache catalogueCache, IndexRecherche indexRecherche,
+                          @Value("${buffet.catalogue.snapshot-fichier:#{null}}") String fichier,
+                          @Value("${spring.datasource.url:}") String datasource) {
+        this.catalogueCache = catalogueCache;
+        this.indexRecherche = indexRecherche;
+        if (fichier == null) {
+            this.fichier = fichierParDefaut(datasource);
+        } else {
+            this.fichier = fichier.isBlank() ? null : Path.of(fichier);
+        }
+    }
+
+    /**
+     * Fichier du répertoire temporaire nommé d'après l'URL de la base : deux instances
+     * d'une même machine ne relisent le snapshot l'une de l'autre que si elles
+     * partagent la base
+     */
+    static Path fichierParDefaut(String datasource) {
+        return Path.of(System.getProperty("java.io.tmpdir"),
+                "buffet-catalogue-" + Integer.toHexString(datasource.hashCode()) + ".snapshot");
+    }
+
+    @PostConstruct
+    void charger() {
+        if (fichier == null) {
+            return;
+        }
+        catalogueCache.ecouterReconstructions(this::planifierEcriture);
+        if (!Files.isRegularFile(fichier)) {
+            return;
+        }
+
+        long debut = System.nanoTime();
+        try {
+            Optional<CatalogueSnapshot> charge = catalogueCache.publierSiAbsent(version -> {
+                try {
+                    return SnapshotBinaire.lire(fichier, version);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            charge.ifPresent(snapshot -> log.info("Snapshot {} chargé en {} ms ({} aliments), en attendant la base",
+                    fichier, (System.nanoTime() - debut) / 1_000_000, snapshot.size()));
+            provisoire = charge.isPresent();
+        } catch (UncheckedIOException e) {
+            log.warn("Snapshot {} ignoré : {}", fichier, e.getCause().getMessage());
+        }
+    }
+
+    /**
+     * Remplace le snapshot relu par celui de la base ; sans fichier au démarrage,
+     * construit le premier snapshot (qui sera écrit pour le prochain démarrage)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    void rafraichir() {
+        if (fichier == null) {
+            return;
+        }
+        executor.execute(() -> {
+            try {
+                if (provisoire) {
+                    catalogueCache.rafraichir();
+                    provisoire = false;
+                    // L'index de recherche a pu être construit sur le snapshot relu
+                    indexRecherche.reinitialiser();
+                } else {
+                    catalogueCache.getSnapshot();
+                }
+            } catch (RuntimeException e) {
+                log.warn("Construction du snapshot depuis la base impossible", e);
+            }
+        });
+    }
+
+    @PreDestroy
+    void arreter() {
+        executor.shutdown();
+    }
+
+    private void planifierEcriture(CatalogueSnapshot snapshot) {
+        if (aEcrire.getAndSet(snapshot) == null) {
+            executor.execute(this::ecrire);
+        }
+    }
+
+    private void ecrire() {
+        CatalogueSnapshot snapshot = aEcrire.getAndSet(null);
+        if (snapshot == null) {
+            return;
+        }
+        try {
+            Path dossier = fichier.toAbsolutePath().getParent();
+            if (dossier != null) {
+                Files.createDirectories(dossier);
+            }
+            SnapshotBinaire.ecrire(snapshot, fichier);
+        } catch (IOException e) {
+            log.warn("Écriture du snapshot {} impossible : {}", fichier, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.buffet.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Active le CacheManager Caffeine de Spring Boot (spring.cache.*), utilisé par
+ * BuffetService pour les préréglages de buffet. Les statistiques de chaque cache
+ * (cache.gets, cache.evictions...) sont publiées par Actuator.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+}
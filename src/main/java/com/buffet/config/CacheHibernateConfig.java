@@ -0,0 +1,52 @@
+package com.buffet.config;
+
+import com.buffet.catalogue.CatalogueCache;
+import com.buffet.model.Aliment;
+import com.buffet.model.Categorie;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+
+/**
+ * Cache de second niveau d'Hibernate pour Categorie, Aliment et Categorie.aliments,
+ * et cache de requêtes pour findByNom et findByCategorieNom (régions et tailles
+ * dans hibernate-cache.conf).
+ *
+ * L'import et la synchronisation du catalogue écrivent en JDBC, sans qu'Hibernate
+ * le sache : après chaque écriture du catalogue, ces régions sont vidées dans
+ * cette instance. Les écritures sont rares, on ne distingue pas JPA et JDBC.
+ */
+@Configuration
+public class CacheHibernateConfig {
+
+    public CacheHibernateConfig(CatalogueCache catalogueCache, EntityManagerFactory entityManagerFactory) {
+        Cache cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        catalogueCache.ecouterEcritures(() -> {
+            cache.evictEntityData(Aliment.class);
+            cache.evictEntityData(Categorie.class);
+            cache.evictCollectionData(Categorie.class.getName() + ".aliments");
+            cache.evictDefaultQueryRegion();
+        });
+    }
+
+    /**
+     * Gestionnaire JCache créé ici plutôt que par hibernate.javax.cache.uri : Hibernate
+     * ne résout une URI « classpath: » qu'avec le gestionnaire d'URL de Tomcat, absent
+     * sous MockMvc ou Netty. Caffeine lit lui-même la ressource.
+     */
+    @Bean
+    static HibernatePropertiesCustomizer gestionnaireCacheHibernate() {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("classpath:hibernate-cache.conf"), CacheHibernateConfig.class.getClassLoader());
+        return proprietes -> proprietes.put(ConfigSettings.CACHE_MANAGER, cacheManager);
+    }
+}
@@ -0,0 +1,81 @@
+package com.buffet.config;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Requêtes SQL exécutées par le thread courant pendant une requête HTTP, regroupées
+ * par forme : texte SQL aux littéraux et listes IN remplacés par ?. Une même forme
+ * répétée de nombreuses fois signale un N+1 (association paresseuse lue en boucle).
+ *
+ * Alimenté par la DataSource instrumentée de {@link CompteurSqlConfig} ; seules les
+ * requêtes du thread de la requête HTTP sont comptées.
+ */
+final class CompteurSql {
+
+    private static final Pattern CHAINES = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NOMBRES = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern LISTES = Pattern.compile("\\?(?:\\s*,\\s*\\?)+");
+
+    private static final ThreadLocal<Releve> COURANT = new ThreadLocal<>();
+
+    private CompteurSql() {}
+
+    /**
+     * Relevé d'une requête HTTP : nombre total d'exécutions et répétitions par forme
+     */
+    static final class Releve {
+        private final Map<String, Integer> formes = new HashMap<>();
+        private int total;
+
+        int getTotal() {
+            return total;
+        }
+
+        /**
+         * Forme la plus répétée et son nombre d'exécutions, ou null si aucune requête
+         */
+        Map.Entry<String, Integer> getPlusRepetee() {
+            return formes.entrySet().stream().max(Map.Entry.comparingByValue()).orElse(null);
+        }
+    }
+
+    static Releve demarrer() {
+        Releve releve = new Releve();
+        COURANT.set(releve);
+        return releve;
+    }
+
+    static Releve arreter() {
+        Releve releve = COURANT.get();
+        COURANT.remove();
+        return releve;
+    }
+
+    /**
+     * Écouteur de la DataSource : chaque requête SQL de l'exécution compte une fois.
+     * Un lot de PreparedStatement (une requête, plusieurs jeux de paramètres) compte
+     * donc pour un, un lot de Statement pour autant de requêtes qu'il contient.
+     */
+    static void apresExecution(ExecutionInfo execution, List<QueryInfo> requetes) {
+        Releve releve = COURANT.get();
+        if (releve == null) {
+            return;
+        }
+        for (QueryInfo requete : requetes) {
+            releve.total++;
+            releve.formes.merge(forme(requete.getQuery()), 1, Integer::sum);
+        }
+    }
+
+    static String forme(String sql) {
+        String forme = CHAINES.matcher(sql).replaceAll("?");
+        forme = NOMBRES.matcher(forme).replaceAll("?");
+        return LISTES.matcher(forme).replaceAll("?").trim();
+    }
+}
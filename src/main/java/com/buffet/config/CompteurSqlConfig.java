@@ -0,0 +1,36 @@
+package com.buffet.config;
+
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/**
+ * Instrumente la DataSource pour {@link CompteurSql}, hors profil prod.
+ */
+@Component
+@Profile("!prod")
+public class CompteurSqlConfig implements BeanPostProcessor, Ordered {
+
+    /**
+     * Enveloppe la plus externe, pour compter aussi les requêtes envoyées aux réplicas
+     */
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof DataSource dataSource)) {
+            return bean;
+        }
+        return ProxyDataSourceBuilder.create(dataSource)
+                .name(beanName)
+                .afterQuery(CompteurSql::apresExecution)
+                .build();
+    }
+}
@@ -0,0 +1,204 @@
+package com.buffet.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compte les requêtes SQL de chaque requête HTTP, hors profil prod, chargements
+ * paresseux de la sérialisation JSON compris. Le nombre est journalisé (niveau
+ * DEBUG) ; quand une même forme de requête est exécutée au moins
+ * buffet.sql.seuil-n-plus-un fois, la requête est journalisée en WARN.
+ *
+ * Le nombre est aussi renvoyé dans l'en-tête {@value #EN_TETE_REQUETES} (et
+ * {@value #EN_TETE_REPETITIONS}). La réponse n'est pas retenue : l'en-tête est posé
+ * juste avant qu'elle ne parte, au premier vidage (les convertisseurs JSON vident
+ * après écriture) ou quand le corps déborde du tampon du conteneur, avec le nombre
+ * atteint à cet instant. Les réponses en flux (NDJSON, SSE) n'ont jamais d'en-tête.
+ */
+@Component
+@Profile("!prod")
+public class CompteurSqlFilter extends OncePerRequestFilter {
+
+    static final String EN_TETE_REQUETES = "X-Requetes-Sql";
+    static final String EN_TETE_REPETITIONS = "X-Requetes-Sql-Repetees";
+
+    private static final Logger log = LoggerFactory.getLogger(CompteurSqlFilter.class);
+
+    private static final List<MediaType> TYPES_EN_FLUX =
+            List.of(MediaType.TEXT_EVENT_STREAM, MediaType.APPLICATION_NDJSON);
+
+    private final int seuilNPlusUn;
+
+    public CompteurSqlFilter(@Value("${buffet.sql.seuil-n-plus-un:5}") int seuilNPlusUn) {
+        this.seuilNPlusUn = seuilNPlusUn;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        CompteurSql.Releve releve = CompteurSql.demarrer();
+        ReponseComptee reponse = new ReponseComptee(response, releve);
+        try {
+            chain.doFilter(request, reponse);
+        } finally {
+            CompteurSql.arreter();
+        }
+        if (request.isAsyncStarted()) {
+            return;
+        }
+
+        Map.Entry<String, Integer> repetee = releve.getPlusRepetee();
+        log.debug("{} {} : {} requêtes SQL", request.getMethod(), request.getRequestURI(), releve.getTotal());
+        if (repetee != null && repetee.getValue() >= seuilNPlusUn) {
+            log.warn("N+1 probable sur {} {} : {} requêtes dont {} fois {}", request.getMethod(),
+                    request.getRequestURI(), releve.getTotal(), repetee.getValue(), repetee.getKey());
+        }
+        // Réponse encore en tampon : le nombre final remplace celui d'un éventuel vidage
+        reponse.ecrireEnTetes();
+    }
+
+    private static boolean enFlux(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        MediaType type = MediaType.parseMediaType(contentType);
+        return TYPES_EN_FLUX.stream().anyMatch(enFlux -> enFlux.includes(type));
+    }
+
+    /**
+     * Réponse qui pose les en-têtes du relevé avant chaque opération susceptible de
+     * l'envoyer : vidage, fermeture, erreur, redirection, ou écriture qui déborderait
+     * du tampon du conteneur
+     */
+    private final class ReponseComptee extends HttpServletResponseWrapper {
+
+        private final CompteurSql.Releve releve;
+        private ServletOutputStream sortie;
+        private long octetsEcrits;
+
+        ReponseComptee(HttpServletResponse response, CompteurSql.Releve releve) {
+            super(response);
+            this.releve = releve;
+        }
+
+        void ecrireEnTetes() {
+            if (isCommitted() || enFlux(getContentType())) {
+                return;
+            }
+            setIntHeader(EN_TETE_REQUETES, releve.getTotal());
+            Map.Entry<String, Integer> repetee = releve.getPlusRepetee();
+            if (repetee != null && repetee.getValue() >= seuilNPlusUn) {
+                setIntHeader(EN_TETE_REPETITIONS, repetee.getValue());
+            }
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (sortie == null) {
+                sortie = new SortieComptee(super.getOutputStream());
+            }
+            return sortie;
+        }
+
+        /**
+         * Les écritures en caractères ne sont pas suivies : l'en-tête porte le nombre
+         * atteint quand le corps commence
+         */
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            ecrireEnTetes();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            ecrireEnTetes();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            ecrireEnTetes();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            ecrireEnTetes();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            ecrireEnTetes();
+            super.sendRedirect(location);
+        }
+
+        private final class SortieComptee extends ServletOutputStream {
+
+            private final ServletOutputStream cible;
+
+            SortieComptee(ServletOutputStream cible) {
+                this.cible = cible;
+            }
+
+            private void avantEcriture(int longueur) {
+                octetsEcrits += longueur;
+                if (octetsEcrits > getBufferSize()) {
+                    ecrireEnTetes();
+                }
+            }
+
+            @Override
+            public void write(int b) throws IOException {
+                avantEcriture(1);
+                cible.write(b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                avantEcriture(len);
+                cible.write(b, off, len);
+            }
+
+            @Override
+            public void flush() throws IOException {
+                ecrireEnTetes();
+                cible.flush();
+            }
+
+            @Override
+            public void close() throws IOException {
+                ecrireEnTetes();
+                cible.close();
+            }
+
+            @Override
+            public boolean isReady() {
+                return cible.isReady();
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+                cible.setWriteListener(writeListener);
+            }
+        }
+    }
+}
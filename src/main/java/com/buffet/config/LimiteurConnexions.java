@@ -0,0 +1,128 @@
+package com.buffet.config;
+
+import com.buffet.exception.ConnexionsSatureesException;
+import org.springframework.jdbc.datasource.ConnectionProxy;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Source de données qui borne les demandes de connexion simultanées.
+ *
+ * Avec les threads virtuels, le nombre de requêtes en cours n'est plus borné par
+ * le pool de threads de Tomcat : des milliers de requêtes peuvent attendre une
+ * connexion du pool et échouer ensemble au bout de son connectionTimeout. Le
+ * limiteur laisse passer autant de demandes que le pool a de connexions, fait
+ * patienter les suivantes dans l'ordre d'arrivée (au plus fileMax, pendant au
+ * plus attente) et refuse tout de suite le surplus. La connexion rend son permis
+ * à sa fermeture.
+ */
+public class LimiteurConnexions extends DelegatingDataSource {
+
+    private final Semaphore permis;
+    private final int fileMax;
+    private final long attente;
+    private final AtomicInteger enAttente = new AtomicInteger();
+
+    public LimiteurConnexions(DataSource cible, int connexions, int fileMax, Duration attente) {
+        super(cible);
+        this.permis = new Semaphore(connexions, true);
+        this.fileMax = fileMax;
+        this.attente = attente.toNanos();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        acquerir();
+        try {
+            return libererALaFermeture(super.getConnection());
+        } catch (SQLException | RuntimeException e) {
+            permis.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        acquerir();
+        try {
+            return libererALaFermeture(super.getConnection(username, password));
+        } catch (SQLException | RuntimeException e) {
+            permis.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Nombre de demandes qui attendent un permis
+     */
+    public int getEnAttente() {
+        return enAttente.get();
+    }
+
+    private void acquerir() throws SQLException {
+        if (enAttente.incrementAndGet() > fileMax + permis.availablePermits()) {
+            enAttente.decrementAndGet();
+            throw new ConnexionsSatureesException("File d'attente des connexions pleine (" + fileMax + ")");
+        }
+        try {
+            if (!permis.tryAcquire(attente, TimeUnit.NANOSECONDS)) {
+                throw new ConnexionsSatureesException("Aucune connexion libre après "
+                        + TimeUnit.NANOSECONDS.toMillis(attente) + " ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Attente d'une connexion interrompue", e);
+        } finally {
+            enAttente.decrementAndGet();
+        }
+    }
+
+    private Connection libererALaFermeture(Connection connexion) {
+        AtomicBoolean fermee = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(ConnectionProxy.class.getClassLoader(),
+                new Class<?>[]{ConnectionProxy.class}, (proxy, methode, arguments) -> {
+                    switch (methode.getName()) {
+                        case "close" -> {
+                            if (fermee.compareAndSet(false, true)) {
+                                try {
+                                    connexion.close();
+                                } finally {
+                                    permis.release();
+                                }
+                            }
+                            return null;
+                        }
+                        case "getTargetConnection" -> {
+                            return connexion;
+                        }
+                        case "equals" -> {
+                            return proxy == arguments[0];
+                        }
+                        case "hashCode" -> {
+                            return System.identityHashCode(proxy);
+                        }
+                        case "toString" -> {
+                            return "Connexion limitée [" + connexion + "]";
+                        }
+                        default -> {
+                            try {
+                                return methode.invoke(connexion, arguments);
+                            } catch (InvocationTargetException e) {
+                                throw e.getTargetException();
+                            }
+                        }
+                    }
+                });
+    }
+}
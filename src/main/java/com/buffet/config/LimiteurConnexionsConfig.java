@@ -0,0 +1,74 @@
+package com.buffet.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+
+/**
+ * Place le {@link LimiteurConnexions} devant le pool HikariCP, dimensionné sur
+ * sa taille maximale. Actif par défaut avec les threads virtuels
+ * (buffet.connexions.limiteur).
+ */
+@Component
+@ConditionalOnProperty(name = "buffet.connexions.limiteur", havingValue = "true")
+public class LimiteurConnexionsConfig implements BeanPostProcessor, Ordered {
+
+    private static final Logger log = LoggerFactory.getLogger(LimiteurConnexionsConfig.class);
+
+    private final Duration attente;
+    private final int fileMax;
+
+    public LimiteurConnexionsConfig(@Value("${buffet.connexions.attente:2s}") Duration attente,
+                                    @Value("${buffet.connexions.file-max:0}") int fileMax) {
+        this.attente = attente;
+        this.fileMax = fileMax;
+    }
+
+    /**
+     * Au plus près du pool : avec le routage des lectures, seule la primaire est bornée
+     */
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        HikariDataSource hikari = hikari(bean);
+        if (hikari == null) {
+            return bean;
+        }
+        // Applique les valeurs par défaut de HikariCP (10 connexions) sans attendre le démarrage du pool
+        hikari.validate();
+        int connexions = hikari.getMaximumPoolSize();
+        // Sans réglage, 4 demandes en attente par connexion du pool
+        int file = fileMax > 0 ? fileMax : 4 * connexions;
+        // Inutile d'attendre plus longtemps que le pool lui-même
+        Duration attenteEffective = attente.compareTo(Duration.ofMillis(hikari.getConnectionTimeout())) < 0
+                ? attente : Duration.ofMillis(hikari.getConnectionTimeout());
+        log.info("Limiteur de connexions : {} connexions, {} demandes en attente au plus pendant {} ms",
+                connexions, file, attenteEffective.toMillis());
+        return new LimiteurConnexions((DataSource) bean, connexions, file, attenteEffective);
+    }
+
+    /**
+     * Pool HikariCP du bean, éventuellement déjà enveloppé (compteur SQL), sinon null
+     */
+    private static HikariDataSource hikari(Object bean) {
+        try {
+            return bean instanceof DataSource dataSource && dataSource.isWrapperFor(HikariDataSource.class)
+                    ? dataSource.unwrap(HikariDataSource.class) : null;
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.buffet.config;
+
+import com.buffet.repository.jdbc.AlimentJdbcRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Remet en cohérence les masques d'allergènes des aliments déjà en base, au
+ * démarrage et avant que le serveur n'accepte de requête : sur une base antérieure
+ * au masque, le filtre par allergène rendrait sinon des aliments qui le contiennent.
+ */
+@Configuration
+public class MasquesAllergenesConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(MasquesAllergenesConfig.class);
+
+    public MasquesAllergenesConfig(AlimentJdbcRepository alimentJdbcRepository) {
+        int corriges = alimentJdbcRepository.recalculerMasquesAllergenes();
+        if (corriges > 0) {
+            log.info("Masques d'allergènes recalculés pour {} aliment(s)", corriges);
+        }
+    }
+}
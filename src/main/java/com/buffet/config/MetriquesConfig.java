@@ -0,0 +1,55 @@
+package com.buffet.config;
+
+import com.buffet.catalogue.CatalogueCache;
+import com.buffet.catalogue.CatalogueSnapshot;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Métriques du catalogue, publiées sur /actuator/prometheus avec celles des
+ * services (@Timed, buffet.service) et des repositories ({@link MetriquesRepositories}).
+ */
+@Configuration
+public class MetriquesConfig {
+
+    /**
+     * Chronomètre les méthodes annotées @Timed (buffet.service, étiqueté par classe et
+     * méthode). Spring Boot ne le déclare qu'avec micrometer.observations.annotations.enabled.
+     */
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry registre) {
+        return new TimedAspect(registre);
+    }
+
+    /**
+     * Taille et version du dernier snapshot du catalogue. Lues sans reconstruire le
+     * snapshot : une collecte ne déclenche jamais de requête SQL.
+     */
+    @Bean
+    public MeterBinder metriquesCatalogue(CatalogueCache catalogueCache) {
+        return registre -> {
+            jauge(registre, "buffet.catalogue.aliments", "Aliments du catalogue", catalogueCache,
+                    snapshot -> snapshot.getAliments().size());
+            jauge(registre, "buffet.catalogue.categories", "Catégories du catalogue", catalogueCache,
+                    snapshot -> snapshot.getCategories().size());
+            Gauge.builder("buffet.catalogue.version", catalogueCache, CatalogueCache::getVersion)
+                    .description("Version du catalogue, avancée à chaque écriture")
+                    .register(registre);
+        };
+    }
+
+    private static void jauge(MeterRegistry registre, String nom, String description,
+                              CatalogueCache catalogueCache, ToDoubleFunction<CatalogueSnapshot> valeur) {
+        Gauge.builder(nom, catalogueCache, cache -> cache.getDernierSnapshot()
+                        .map(valeur::applyAsDouble)
+                        .orElse(Double.NaN))
+                .description(description)
+                .register(registre);
+    }
+}
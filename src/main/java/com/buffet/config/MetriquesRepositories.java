@@ -0,0 +1,137 @@
+package com.buffet.config;
+
+import com.buffet.dto.PageAliments;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mesure chaque appel de repository, Spring Data comme JDBC : le timer
+ * buffet.repository compte les requêtes et leur durée, la distribution
+ * buffet.repository.lignes le nombre de lignes renvoyées par les lectures.
+ * Tous deux sont étiquetés par repository et par méthode.
+ *
+ * Remplace la métrique spring.data.repository.invocations de Spring Boot, qui
+ * ignore les repositories JDBC (désactivée dans application.yml).
+ */
+@Aspect
+@Component
+public class MetriquesRepositories {
+
+    private final MeterRegistry registre;
+    // Mesures résolues une fois par repository et par méthode, hors chemin critique
+    private final Map<Cle, Mesures> mesures = new ConcurrentHashMap<>();
+
+    public MetriquesRepositories(MeterRegistry registre) {
+        this.registre = registre;
+    }
+
+    @Around("execution(public * com.buffet.repository..*Repository+.*(..))")
+    public Object mesurer(ProceedingJoinPoint appel) throws Throwable {
+        Method methode = ((MethodSignature) appel.getSignature()).getMethod();
+        Cle cle = new Cle(appel.getTarget().getClass(), methode);
+        Mesures mesure = mesures.computeIfAbsent(cle, this::creerMesures);
+
+        long debut = System.nanoTime();
+        Object resultat;
+        try {
+            resultat = appel.proceed();
+        } catch (Throwable erreur) {
+            mesure.echec(erreur, System.nanoTime() - debut);
+            throw erreur;
+        }
+        mesure.duree.record(System.nanoTime() - debut, TimeUnit.NANOSECONDS);
+        if (mesure.lignes != null) {
+            mesure.lignes.record(lignes(resultat));
+        }
+        return resultat;
+    }
+
+    private Mesures creerMesures(Cle cle) {
+        String repository = nomRepository(cle.cible());
+        String methode = cle.methode().getName();
+        Timer duree = Timer.builder("buffet.repository")
+                .description("Appels de repository")
+                .tags("repository", repository, "method", methode, "exception", "none")
+                .register(registre);
+        DistributionSummary lignes = !estLecture(cle.methode().getReturnType()) ? null
+                : DistributionSummary.builder("buffet.repository.lignes")
+                        .description("Lignes renvoyées par les lectures de repository")
+                        .baseUnit("rows")
+                        .tags("repository", repository, "method", methode)
+                        .register(registre);
+        return new Mesures(registre, repository, methode, duree, lignes);
+    }
+
+    /**
+     * Interface déclarée pour un repository Spring Data (la cible est un proxy),
+     * classe pour un repository JDBC
+     */
+    private static String nomRepository(Class<?> cible) {
+        for (Class<?> type : ClassUtils.getAllInterfacesForClassAsSet(cible)) {
+            if (type.getName().startsWith("com.buffet.repository")) {
+                return type.getSimpleName();
+            }
+        }
+        return ClassUtils.getUserClass(cible).getSimpleName();
+    }
+
+    /**
+     * Vrai pour une méthode qui renvoie des lignes : pas d'écriture, de comptage ni
+     * de parcours par callback
+     */
+    private static boolean estLecture(Class<?> type) {
+        return Collection.class.isAssignableFrom(type) || Optional.class.isAssignableFrom(type)
+                || Slice.class.isAssignableFrom(type) || Map.class.isAssignableFrom(type)
+                || PageAliments.class.isAssignableFrom(type);
+    }
+
+    /**
+     * Nombre de lignes d'un résultat de lecture
+     */
+    private static int lignes(Object resultat) {
+        if (resultat instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        if (resultat instanceof Optional<?> optionnel) {
+            return optionnel.isPresent() ? 1 : 0;
+        }
+        if (resultat instanceof Slice<?> page) {
+            return page.getNumberOfElements();
+        }
+        if (resultat instanceof Map<?, ?> table) {
+            return table.size();
+        }
+        if (resultat instanceof PageAliments page) {
+            return page.getAliments().size();
+        }
+        return 0;
+    }
+
+    private record Cle(Class<?> cible, Method methode) {}
+
+    private record Mesures(MeterRegistry registre, String repository, String methode,
+                           Timer duree, DistributionSummary lignes) {
+
+        void echec(Throwable erreur, long nanos) {
+            Timer.builder("buffet.repository")
+                    .tags("repository", repository, "method", methode, "exception", erreur.getClass().getSimpleName())
+                    .register(registre)
+                    .record(nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+}
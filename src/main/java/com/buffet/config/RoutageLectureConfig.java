@@ -0,0 +1,151 @@
+package com.buffet.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Route les transactions en lecture seule vers les réplicas de buffet.lecture.replicas
+ * ({@link RoutageLectureDataSource}). Inactif sans réplica configuré.
+ *
+ * Placé après le {@link LimiteurConnexions} (qui ne borne que la primaire) et
+ * avant le compteur SQL (qui voit ainsi les requêtes des réplicas).
+ */
+@Component
+@ConditionalOnProperty(name = "buffet.lecture.replicas[0].url")
+public class RoutageLectureConfig implements BeanPostProcessor, Ordered, DisposableBean, HibernatePropertiesCustomizer {
+
+    private static final Logger log = LoggerFactory.getLogger(RoutageLectureConfig.class);
+
+    /**
+     * Réplica déclaré dans buffet.lecture.replicas ; identifiants de la primaire par défaut
+     */
+    record ReplicaProprietes(String url, String username, String password) {}
+
+    private final List<ReplicaProprietes> proprietes;
+    private final RoutageLectureDataSource.Selection selection;
+    private final Duration retardMax;
+    private final String requeteRetard;
+    private final Duration verification;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    private final List<HikariDataSource> pools = new ArrayList<>();
+    private HikariDataSource primaire;
+    private RoutageLectureDataSource routage;
+
+    public RoutageLectureConfig(Environment environment,
+                                @Value("${buffet.lecture.selection:tour-de-role}") RoutageLectureDataSource.Selection selection,
+                                @Value("${buffet.lecture.retard-max:5s}") Duration retardMax,
+                                @Value("${buffet.lecture.requete-retard}") String requeteRetard,
+                                @Value("${buffet.lecture.verification:2s}") Duration verification,
+                                ObjectProvider<MeterRegistry> meterRegistry) {
+        this.proprietes = Binder.get(environment)
+                .bind("buffet.lecture.replicas", Bindable.listOf(ReplicaProprietes.class))
+                .orElse(List.of());
+        this.selection = selection;
+        this.retardMax = retardMax;
+        this.requeteRetard = requeteRetard;
+        this.verification = verification;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public int getOrder() {
+        return 0;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        HikariDataSource hikari = hikari(bean);
+        if (hikari == null || routage != null) {
+            return bean;
+        }
+        hikari.validate();
+        primaire = hikari;
+
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (int i = 0; i < proprietes.size(); i++) {
+            replicas.put("replica-" + i, creerPool(i, proprietes.get(i)));
+        }
+        routage = new RoutageLectureDataSource((DataSource) bean, replicas, selection, retardMax,
+                requeteRetard, verification);
+        log.info("Lectures seules routées vers {} réplica(s), sélection {}, retard max {} s",
+                replicas.size(), selection, retardMax.toSeconds());
+        return new LazyConnectionDataSourceProxy(routage);
+    }
+
+    /**
+     * Hibernate garde par défaut la connexion jusqu'à la fin de la requête HTTP
+     * (open-in-view) : une écriture qui suit une lecture partirait sur le réplica.
+     * On la rend à chaque fin de transaction pour que chacune soit routée.
+     */
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        hibernateProperties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+
+    private HikariDataSource creerPool(int index, ReplicaProprietes replica) {
+        HikariDataSource pool = new HikariDataSource();
+        pool.setPoolName("buffet-replica-" + index);
+        pool.setJdbcUrl(replica.url());
+        pool.setUsername(replica.username() != null ? replica.username() : primaire.getUsername());
+        pool.setPassword(replica.password() != null ? replica.password() : primaire.getPassword());
+        pool.setMaximumPoolSize(primaire.getMaximumPoolSize());
+        pool.setConnectionTimeout(primaire.getConnectionTimeout());
+        pool.setReadOnly(true);
+        // Réplica injoignable au démarrage : écarté par la vérification, sans bloquer l'application
+        pool.setInitializationFailTimeout(-1);
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry != null) {
+            pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+        }
+        pools.add(pool);
+        return pool;
+    }
+
+    @Override
+    public void destroy() {
+        if (routage != null) {
+            routage.close();
+        }
+        pools.forEach(HikariDataSource::close);
+        // Le proxy publié n'a pas de méthode close : Spring ne fermerait pas la primaire
+        if (primaire != null) {
+            primaire.close();
+        }
+    }
+
+    private static HikariDataSource hikari(Object bean) {
+        try {
+            return bean instanceof DataSource dataSource && dataSource.isWrapperFor(HikariDataSource.class)
+                    ? dataSource.unwrap(HikariDataSource.class) : null;
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.buffet.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Envoie les transactions en lecture seule (@Transactional(readOnly = true)) vers
+ * un réplica, les autres vers la base primaire.
+ *
+ * Le choix se fait à l'obtention de la connexion physique : cette DataSource doit
+ * être placée derrière un LazyConnectionDataSourceProxy, sans quoi la connexion
+ * est prise avant que la transaction ne soit marquée en lecture seule. Un réplica
+ * n'est éligible que si sa dernière vérification a réussi avec un retard de
+ * réplication inférieur au seuil ; sans réplica éligible, tout va à la primaire.
+ */
+public class RoutageLectureDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    /**
+     * Choix du réplica parmi les éligibles
+     */
+    public enum Selection {
+        TOUR_DE_ROLE,
+        LATENCE
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(RoutageLectureDataSource.class);
+
+    private static final String PRIMAIRE = "primaire";
+    private static final ThreadLocal<Boolean> PRIMAIRE_FORCEE = new ThreadLocal<>();
+
+    private final List<Replica> replicas;
+    private final Selection selection;
+    private final double retardMaxSecondes;
+    private final String requeteRetard;
+    private final AtomicInteger tour = new AtomicInteger();
+    private final ScheduledExecutorService verificateur;
+
+    public RoutageLectureDataSource(DataSource primaire, Map<String, DataSource> replicas, Selection selection,
+                                    Duration retardMax, String requeteRetard, Duration verification) {
+        this.replicas = replicas.entrySet().stream()
+                .map(entree -> new Replica(entree.getKey(), entree.getValue()))
+                .toList();
+        this.selection = selection;
+        this.retardMaxSecondes = retardMax.toMillis() / 1000.0;
+        this.requeteRetard = requeteRetard;
+
+        Map<Object, Object> cibles = new HashMap<>(replicas);
+        cibles.put(PRIMAIRE, primaire);
+        setTargetDataSources(cibles);
+        setDefaultTargetDataSource(primaire);
+        afterPropertiesSet();
+
+        this.verificateur = Executors.newSingleThreadScheduledExecutor(tache -> {
+            Thread thread = new Thread(tache, "routage-lecture");
+            thread.setDaemon(true);
+            return thread;
+        });
+        verificateur.scheduleWithFixedDelay(this::verifier, 0, verification.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Exécute l'action sur la base primaire même dans une transaction en lecture
+     * seule : pour les lectures qui doivent voir la dernière écriture validée.
+     */
+    public static <T> T surPrimaire(Supplier<T> action) {
+        Boolean precedent = PRIMAIRE_FORCEE.get();
+        PRIMAIRE_FORCEE.set(Boolean.TRUE);
+        try {
+            return action.get();
+        } finally {
+            if (precedent == null) {
+                PRIMAIRE_FORCEE.remove();
+            } else {
+                PRIMAIRE_FORCEE.set(precedent);
+            }
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || PRIMAIRE_FORCEE.get() != null) {
+            return PRIMAIRE;
+        }
+        Replica replica = selection == Selection.LATENCE ? plusRapide() : suivant();
+        return replica != null ? replica.cle : PRIMAIRE;
+    }
+
+    private Replica suivant() {
+        int n = replicas.size();
+        int depart = Math.floorMod(tour.getAndIncrement(), n);
+        for (int i = 0; i < n; i++) {
+            Replica replica = replicas.get((depart + i) % n);
+            if (replica.eligible) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    private Replica plusRapide() {
+        Replica meilleur = null;
+        for (Replica replica : replicas) {
+            if (replica.eligible && (meilleur == null || replica.latenceNanos < meilleur.latenceNanos)) {
+                meilleur = replica;
+            }
+        }
+        return meilleur;
+    }
+
+    /**
+     * Mesure le retard de réplication et la latence de chaque réplica
+     */
+    private void verifier() {
+        for (Replica replica : replicas) {
+            boolean eligible;
+            try (Connection connexion = replica.dataSource.getConnection();
+                 Statement statement = connexion.createStatement()) {
+                long debut = System.nanoTime();
+                double retard;
+                try (ResultSet resultat = statement.executeQuery(requeteRetard)) {
+                    resultat.next();
+                    // NULL : instance qui n'est pas en réplication, donc sans retard
+                    retard = resultat.getDouble(1);
+                }
+                long duree = System.nanoTime() - debut;
+                // Moyenne glissante, pour ne pas basculer sur un seul aller-retour lent
+                replica.latenceNanos = replica.latenceNanos == 0 ? duree : (7 * replica.latenceNanos + duree) / 8;
+                replica.retardSecondes = retard;
+                eligible = retard <= retardMaxSecondes;
+                if (!eligible && replica.eligible) {
+                    log.warn("Réplica {} écarté : {} s de retard (seuil {} s)", replica.cle, retard, retardMaxSecondes);
+                }
+            } catch (SQLException | RuntimeException e) {
+                eligible = false;
+                if (replica.eligible) {
+                    log.warn("Réplica {} écarté : {}", replica.cle, e.getMessage());
+                }
+            }
+            if (eligible && !replica.eligible) {
+                log.info("Réplica {} utilisé pour les lectures ({} s de retard, {} µs)", replica.cle,
+                        replica.retardSecondes, replica.latenceNanos / 1000);
+            }
+            replica.eligible = eligible;
+        }
+    }
+
+    @Override
+    public void close() {
+        verificateur.shutdownNow();
+    }
+
+    private static final class Replica {
+        final String cle;
+        final DataSource dataSource;
+        volatile boolean eligible; // faux jusqu'à la première vérification réussie
+        volatile long latenceNanos;
+        volatile double retardSecondes;
+
+        Replica(String cle, DataSource dataSource) {
+            this.cle = cle;
+            this.dataSource = dataSource;
+        }
+    }
+}
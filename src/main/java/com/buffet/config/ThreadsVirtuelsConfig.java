@@ -0,0 +1,35 @@
+package com.buffet.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+
+/**
+ * Mode d'exécution des requêtes.
+ *
+ * Avec spring.threads.virtual.enabled sur Java 21, Spring Boot sert les requêtes
+ * Tomcat, les tâches @Async et les réponses en flux (StreamingResponseBody, dont
+ * la planification NDJSON) sur des threads virtuels. Le calcul des jours de
+ * planification reste sur son pool dédié, borné au nombre de cœurs. Sur une JVM
+ * plus ancienne la propriété est sans effet : on le signale au démarrage.
+ */
+@Configuration
+public class ThreadsVirtuelsConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(ThreadsVirtuelsConfig.class);
+
+    @EventListener(ApplicationReadyEvent.class)
+    void signalerMode(ApplicationReadyEvent evenement) {
+        Environment environnement = evenement.getApplicationContext().getEnvironment();
+        if (Threading.VIRTUAL.isActive(environnement)) {
+            log.info("Requêtes servies par des threads virtuels");
+        } else if (environnement.getProperty("spring.threads.virtual.enabled", Boolean.class, false)) {
+            log.warn("spring.threads.virtual.enabled ignoré : Java {} (21 requis, profil Maven java21)",
+                    Runtime.version().feature());
+        }
+    }
+}
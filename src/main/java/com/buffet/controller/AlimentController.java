@@ -1,7 +1,15 @@
 package com.buffet.controller;
 
+import com.buffet.catalogue.CatalogueCache;
+import com.buffet.catalogue.CatalogueSnapshot;
+import com.buffet.dto.PageAliments;
+import com.buffet.dto.PaginationRequest;
 import com.buffet.model.Aliment;
+import com.buffet.repository.jdbc.FiltreAliment;
+import com.buffet.repository.jdbc.TriAliment;
 import com.buffet.service.AlimentService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -9,10 +17,15 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
 
@@ -21,10 +34,19 @@ import java.util.Optional;
 @Tag(name = "Aliments", description = "API de gestion des aliments")
 public class AlimentController {
     
+    /**
+     * En-tête portant le curseur de la page suivante ; absent sur la dernière page
+     */
+    static final String EN_TETE_PAGE_SUIVANTE = "X-Page-Suivante";
+    
+    private static final int K_MAX = 1000;
+    
     private final AlimentService alimentService;
+    private final ObjectWriter writer;
     
-    public AlimentController(AlimentService alimentService) {
+    public AlimentController(AlimentService alimentService, ObjectMapper objectMapper) {
         this.alimentService = alimentService;
+        this.writer = objectMapper.writer();
     }
     
     @GetMapping
@@ -32,25 +54,54 @@ public class AlimentController {
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Liste des aliments récupérée avec succès",
                     content = @Content(mediaType = "application/json", 
-                    schema = @Schema(implementation = Aliment.class)))
+                    schema = @Schema(implementation = Aliment.class))),
+        @ApiResponse(responseCode = "304", description = "Catalogue inchangé depuis If-None-Match / If-Modified-Since")
     })
-    public ResponseEntity<List<Aliment>> getAllAliments() {
+    public ResponseEntity<List<Aliment>> getAllAliments(WebRequest requete) {
+        if (inchange(requete, alimentService.getValidateurs())) {
+            return null;
+        }
         List<Aliment> aliments = alimentService.findAllWithCategorie();
         return ResponseEntity.ok(aliments);
     }
     
+    @GetMapping(value = "/export", produces = NdjsonWriter.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Exporter le catalogue des aliments", 
+               description = "Émet les aliments par ID croissant, un objet JSON par ligne (NDJSON), sans charger " +
+                             "tout le catalogue en mémoire. Pour reprendre un export interrompu, passer le dernier ID reçu dans apresId.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Export NDJSON des aliments")
+    })
+    public ResponseEntity<StreamingResponseBody> exporterAliments(
+            @Parameter(description = "Reprise : seuls les aliments d'ID supérieur sont émis") 
+            @RequestParam(defaultValue = "0") long apresId) {
+        StreamingResponseBody corps = sortie -> {
+            NdjsonWriter ndjson = new NdjsonWriter(writer, sortie);
+            alimentService.exporter(apresId, ndjson::ecrire);
+        };
+        return ResponseEntity.ok()
+                .contentType(NdjsonWriter.APPLICATION_NDJSON)
+                .body(corps);
+    }
+    
     @GetMapping("/{id}")
     @Operation(summary = "Récupérer un aliment par ID", description = "Retourne un aliment spécifique par son ID")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Aliment trouvé",
                     content = @Content(mediaType = "application/json", 
                     schema = @Schema(implementation = Aliment.class))),
-        @ApiResponse(responseCode = "404", description = "Aliment non trouvé")
+        @ApiResponse(responseCode = "404", description = "Aliment non trouvé"),
+        @ApiResponse(responseCode = "304", description = "Aliment inchangé depuis If-None-Match / If-Modified-Since")
     })
     public ResponseEntity<Aliment> getAlimentById(
             @Parameter(description = "ID de l'aliment à récupérer") 
-            @PathVariable Long id) {
-        Optional<Aliment> aliment = alimentService.findByIdWithCategorie(id);
+            @PathVariable Long id,
+            WebRequest requete) {
+        // ETag et corps tirés du même aliment du snapshot
+        Optional<Aliment> aliment = alimentService.findByIdDansCatalogue(id);
+        if (aliment.isPresent() && inchange(requete, alimentService.getValidateurs(aliment.get()))) {
+            return null;
+        }
         return aliment.map(ResponseEntity::ok)
                      .orElse(ResponseEntity.notFound().build());
     }
@@ -115,24 +166,37 @@ public class AlimentController {
                     content = @Content(mediaType = "application/json", 
                     schema = @Schema(implementation = Aliment.class)))
     })
-    public ResponseEntity<List<Aliment>> getAlimentsByCategorie(
+    public ResponseEntity<List<?>> getAlimentsByCategorie(
             @Parameter(description = "Nom de la catégorie") 
-            @PathVariable String categorieNom) {
+            @PathVariable String categorieNom,
+            @Valid @ParameterObject PaginationRequest pagination) {
+        if (pagination.estDemandee()) {
+            return page(FiltreAliment.categorieNom(categorieNom), TriAliment.NOM, pagination);
+        }
         List<Aliment> aliments = alimentService.findByCategorieNom(categorieNom);
         return ResponseEntity.ok(aliments);
     }
     
     @GetMapping("/recherche")
-    @Operation(summary = "Rechercher des aliments par nom", description = "Recherche des aliments dont le nom contient le terme spécifié")
+    @Operation(summary = "Rechercher des aliments par nom",
+            description = "Recherche des aliments par nom, sans tenir compte des accents ni de la casse : "
+                    + "noms égaux, puis commençant par le terme, contenant le terme, et enfin noms proches. "
+                    + "Avec des paramètres de pagination, les mêmes résultats dans le même ordre, page par page")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Résultats de la recherche",
                     content = @Content(mediaType = "application/json", 
                     schema = @Schema(implementation = Aliment.class)))
     })
-    public ResponseEntity<List<Aliment>> searchAliments(
+    public ResponseEntity<List<?>> searchAliments(
             @Parameter(description = "Terme de recherche") 
-            @RequestParam String nom) {
-        List<Aliment> aliments = alimentService.findByNomContaining(nom);
+            @RequestParam String nom,
+            @Parameter(description = "Nombre maximum de résultats (1 à " + K_MAX + ")") 
+            @RequestParam(defaultValue = "50") int limite,
+            @Valid @ParameterObject PaginationRequest pagination) {
+        if (pagination.estDemandee()) {
+            return page(alimentService.rechercherPage(nom, pagination));
+        }
+        List<Aliment> aliments = alimentService.rechercher(nom, verifierNombre("limite", limite));
         return ResponseEntity.ok(aliments);
     }
     
@@ -143,11 +207,16 @@ public class AlimentController {
                     content = @Content(mediaType = "application/json", 
                     schema = @Schema(implementation = Aliment.class)))
     })
-    public ResponseEntity<List<Aliment>> getAlimentsByCalories(
+    public ResponseEntity<List<?>> getAlimentsByCalories(
             @Parameter(description = "Calories minimum") 
             @RequestParam Double minCalories,
             @Parameter(description = "Calories maximum") 
-            @RequestParam Double maxCalories) {
+            @RequestParam Double maxCalories,
+            @Valid @ParameterObject PaginationRequest pagination) {
+        if (pagination.estDemandee()) {
+            FiltreAliment filtre = FiltreAliment.calories(BigDecimal.valueOf(minCalories), BigDecimal.valueOf(maxCalories));
+            return page(filtre, TriAliment.CALORIES_CROISSANTES, pagination);
+        }
         List<Aliment> aliments = alimentService.findByCaloriesBetween(minCalories, maxCalories);
         return ResponseEntity.ok(aliments);
     }
@@ -159,9 +228,13 @@ public class AlimentController {
                     content = @Content(mediaType = "application/json", 
                     schema = @Schema(implementation = Aliment.class)))
     })
-    public ResponseEntity<List<Aliment>> getAlimentsByAllergies(
+    public ResponseEntity<List<?>> getAlimentsByAllergies(
             @Parameter(description = "Allergie à rechercher") 
-            @RequestParam String allergie) {
+            @RequestParam String allergie,
+            @Valid @ParameterObject PaginationRequest pagination) {
+        if (pagination.estDemandee()) {
+            return page(FiltreAliment.allergie(allergie), TriAliment.NOM, pagination);
+        }
         List<Aliment> aliments = alimentService.findByAllergiesContaining(allergie);
         return ResponseEntity.ok(aliments);
     }
@@ -173,32 +246,85 @@ public class AlimentController {
                     content = @Content(mediaType = "application/json", 
                     schema = @Schema(implementation = Aliment.class)))
     })
-    public ResponseEntity<List<Aliment>> getAlimentsSansAllergie() {
+    public ResponseEntity<List<?>> getAlimentsSansAllergie(
+            @Valid @ParameterObject PaginationRequest pagination) {
+        if (pagination.estDemandee()) {
+            return page(FiltreAliment.sansAllergie(CatalogueSnapshot.AUCUNE_ALLERGIE), TriAliment.NOM, pagination);
+        }
         List<Aliment> aliments = alimentService.findSansAllergie();
         return ResponseEntity.ok(aliments);
     }
     
     @GetMapping("/top-caloriques")
-    @Operation(summary = "Récupérer les aliments les plus caloriques", description = "Retourne les aliments avec le plus de calories")
+    @Operation(summary = "Récupérer les aliments les plus caloriques", description = "Retourne les aliments avec le plus de calories ; avec k, seulement les k premiers")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Liste des aliments récupérée avec succès",
                     content = @Content(mediaType = "application/json", 
                     schema = @Schema(implementation = Aliment.class)))
     })
-    public ResponseEntity<List<Aliment>> getTopCaloriques() {
+    public ResponseEntity<List<?>> getTopCaloriques(
+            @Parameter(description = "Nombre d'aliments à renvoyer (1 à " + K_MAX + ")") 
+            @RequestParam(required = false) Integer k,
+            @Valid @ParameterObject PaginationRequest pagination) {
+        if (k != null) {
+            return ResponseEntity.ok(alimentService.findTopCaloriques(verifierNombre("k", k)));
+        }
+        if (pagination.estDemandee()) {
+            return page(FiltreAliment.aucun(), TriAliment.CALORIES_DECROISSANTES, pagination);
+        }
         List<Aliment> aliments = alimentService.findTopCaloriques();
         return ResponseEntity.ok(aliments);
     }
     
     @GetMapping("/moins-caloriques")
-    @Operation(summary = "Récupérer les aliments les moins caloriques", description = "Retourne les aliments avec le moins de calories")
+    @Operation(summary = "Récupérer les aliments les moins caloriques", description = "Retourne les aliments avec le moins de calories ; avec k, seulement les k premiers")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Liste des aliments récupérée avec succès",
                     content = @Content(mediaType = "application/json", 
                     schema = @Schema(implementation = Aliment.class)))
     })
-    public ResponseEntity<List<Aliment>> getMoinsCaloriques() {
+    public ResponseEntity<List<?>> getMoinsCaloriques(
+            @Parameter(description = "Nombre d'aliments à renvoyer (1 à " + K_MAX + ")") 
+            @RequestParam(required = false) Integer k,
+            @Valid @ParameterObject PaginationRequest pagination) {
+        if (k != null) {
+            return ResponseEntity.ok(alimentService.findMoinsCaloriques(verifierNombre("k", k)));
+        }
+        if (pagination.estDemandee()) {
+            return page(FiltreAliment.aucun(), TriAliment.CALORIES_CROISSANTES, pagination);
+        }
         List<Aliment> aliments = alimentService.findMoinsCaloriques();
         return ResponseEntity.ok(aliments);
     }
+    
+    private static int verifierNombre(String parametre, int valeur) {
+        if (valeur < 1 || valeur > K_MAX) {
+            throw new IllegalArgumentException(parametre + " doit être compris entre 1 et " + K_MAX);
+        }
+        return valeur;
+    }
+    
+    /**
+     * Vrai si le client a déjà la version décrite par les validateurs : la réponse 304 est
+     * alors complète (ETag et Last-Modified posés), sans lecture en base ni sérialisation
+     */
+    private static boolean inchange(WebRequest requete, CatalogueCache.Validateurs validateurs) {
+        return requete.checkNotModified(validateurs.etag(), validateurs.derniereModification());
+    }
+    
+    /**
+     * Page d'aliments réduits aux champs demandés ; le curseur de la page suivante
+     * est renvoyé dans l'en-tête {@value #EN_TETE_PAGE_SUIVANTE}
+     */
+    private ResponseEntity<List<?>> page(FiltreAliment filtre, TriAliment tri, PaginationRequest pagination) {
+        return page(alimentService.findPage(filtre, tri, pagination));
+    }
+    
+    private static ResponseEntity<List<?>> page(PageAliments page) {
+        ResponseEntity.BodyBuilder reponse = ResponseEntity.ok();
+        if (page.getSuivant() != null) {
+            reponse.header(EN_TETE_PAGE_SUIVANTE, page.getSuivant());
+        }
+        return reponse.body(page.getAliments());
+    }
 } 
\ No newline at end of file
@@ -1,7 +1,10 @@
 package com.buffet.controller;
 
+import com.buffet.dto.BuffetLotRequest;
 import com.buffet.dto.BuffetRequest;
 import com.buffet.dto.BuffetResponse;
+import com.buffet.dto.OptimisationRequest;
+import com.buffet.dto.OptimisationResponse;
 import com.buffet.model.Aliment;
 import com.buffet.service.BuffetService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -11,6 +14,7 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -43,6 +47,56 @@ public class BuffetController {
         return ResponseEntity.ok(response);
     }
     
+    @PostMapping("/calculer/lot")
+    @Operation(summary = "Calculer plusieurs buffets en une requête", 
+               description = "Calcule un même menu pour plusieurs nombres d'invités (aliments + invites), " +
+                             "ou une liste de demandes complètes (demandes)")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Buffets calculés avec succès, dans l'ordre de la demande",
+                    content = @Content(mediaType = "application/json", 
+                    schema = @Schema(implementation = BuffetResponse.class))),
+        @ApiResponse(responseCode = "400", description = "Données invalides")
+    })
+    public ResponseEntity<List<BuffetResponse>> calculerBuffets(
+            @Parameter(description = "Scénarios à calculer") 
+            @Valid @RequestBody BuffetLotRequest request) {
+        boolean parMenu = request.getAliments() != null || request.getInvites() != null;
+        boolean parDemandes = request.getDemandes() != null;
+        if (parMenu == parDemandes) {
+            throw new IllegalArgumentException("Fournir soit aliments et invites, soit demandes");
+        }
+        
+        List<BuffetResponse> responses;
+        if (parDemandes) {
+            responses = buffetService.calculerBuffets(request.getDemandes());
+        } else {
+            if (request.getAliments() == null || request.getAliments().isEmpty()
+                    || request.getInvites() == null || request.getInvites().isEmpty()) {
+                throw new IllegalArgumentException("Les listes aliments et invites sont obligatoires");
+            }
+            responses = buffetService.calculerBuffets(request.getAliments(), request.getInvites());
+        }
+        return ResponseEntity.ok(responses);
+    }
+    
+    @PostMapping("/optimiser")
+    @Operation(summary = "Optimiser un buffet sur tout le catalogue", 
+               description = "Choisit les aliments qui tiennent dans la fenêtre de calories par invité, couvrent le plus " +
+                             "de catégories (requises comprises, au plus maxParCategorie chacune) sans les allergies exclues, " +
+                             "au plus près du centre de la fenêtre. La recherche s'arrête au budget de temps avec la meilleure " +
+                             "solution trouvée ; statistiques.complete indique qu'elle est optimale.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Recherche terminée ; buffet null si aucune combinaison trouvée",
+                    content = @Content(mediaType = "application/json", 
+                    schema = @Schema(implementation = OptimisationResponse.class))),
+        @ApiResponse(responseCode = "400", description = "Données invalides")
+    })
+    public ResponseEntity<OptimisationResponse> optimiserBuffet(
+            @Parameter(description = "Contraintes du buffet") 
+            @Valid @RequestBody OptimisationRequest request) {
+        return ResponseEntity.ok(buffetService.optimiserBuffet(request));
+    }
+    
     @GetMapping("/recommandations/{nombreInvites}")
     @Operation(summary = "Obtenir des recommandations de buffet", description = "Génère des recommandations d'aliments pour un buffet")
     @ApiResponses(value = {
@@ -90,7 +144,8 @@ public class BuffetController {
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Buffet sans allergie calculé avec succès",
                     content = @Content(mediaType = "application/json", 
-                    schema = @Schema(implementation = BuffetResponse.class)))
+                    schema = @Schema(implementation = BuffetResponse.class))),
+        @ApiResponse(responseCode = "400", description = "Allergie inconnue du dictionnaire d'allergènes")
     })
     public ResponseEntity<BuffetResponse> calculerBuffetSansAllergie(
             @Parameter(description = "Nombre d'invités") 
@@ -1,7 +1,10 @@
 package com.buffet.controller;
 
+import com.buffet.catalogue.CatalogueCache;
 import com.buffet.model.Categorie;
 import com.buffet.service.CategorieService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -12,6 +15,8 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 import java.util.Optional;
@@ -22,9 +27,11 @@ import java.util.Optional;
 public class CategorieController {
     
     private final CategorieService categorieService;
+    private final ObjectWriter writer;
     
-    public CategorieController(CategorieService categorieService) {
+    public CategorieController(CategorieService categorieService, ObjectMapper objectMapper) {
         this.categorieService = categorieService;
+        this.writer = objectMapper.writer();
     }
     
     @GetMapping
@@ -32,13 +39,37 @@ public class CategorieController {
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Liste des catégories récupérée avec succès",
                     content = @Content(mediaType = "application/json", 
-                    schema = @Schema(implementation = Categorie.class)))
+                    schema = @Schema(implementation = Categorie.class))),
+        @ApiResponse(responseCode = "304", description = "Catalogue inchangé depuis If-None-Match / If-Modified-Since")
     })
-    public ResponseEntity<List<Categorie>> getAllCategories() {
+    public ResponseEntity<List<Categorie>> getAllCategories(WebRequest requete) {
+        CatalogueCache.Validateurs validateurs = categorieService.getValidateurs();
+        if (requete.checkNotModified(validateurs.etag(), validateurs.derniereModification())) {
+            return null; // 304, sans lecture en base ni sérialisation
+        }
         List<Categorie> categories = categorieService.findAll();
         return ResponseEntity.ok(categories);
     }
     
+    @GetMapping(value = "/export", produces = NdjsonWriter.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Exporter les catégories avec leurs aliments", 
+               description = "Émet les catégories par ID croissant, chacune avec ses aliments, un objet JSON par ligne (NDJSON). " +
+                             "Pour reprendre un export interrompu, passer le dernier ID de catégorie reçu dans apresId.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Export NDJSON des catégories")
+    })
+    public ResponseEntity<StreamingResponseBody> exporterCategories(
+            @Parameter(description = "Reprise : seules les catégories d'ID supérieur sont émises") 
+            @RequestParam(defaultValue = "0") long apresId) {
+        StreamingResponseBody corps = sortie -> {
+            NdjsonWriter ndjson = new NdjsonWriter(writer, sortie);
+            categorieService.exporterAvecAliments(apresId, ndjson::ecrire);
+        };
+        return ResponseEntity.ok()
+                .contentType(NdjsonWriter.APPLICATION_NDJSON)
+                .body(corps);
+    }
+    
     @GetMapping("/{id}")
     @Operation(summary = "Récupérer une catégorie par ID", description = "Retourne une catégorie spécifique par son ID")
     @ApiResponses(value = {
@@ -0,0 +1,49 @@
+package com.buffet.controller;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Écriture NDJSON (un objet JSON par ligne) directement dans le flux de réponse
+ */
+final class NdjsonWriter {
+
+    static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+    static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType(APPLICATION_NDJSON_VALUE);
+
+    private final ObjectWriter writer;
+    private final OutputStream sortie;
+
+    NdjsonWriter(ObjectWriter writer, OutputStream sortie) {
+        this.writer = writer;
+        this.sortie = sortie;
+    }
+
+    /**
+     * Écrit une ligne ; le flux de la réponse l'envoie dès que son tampon est plein
+     */
+    void ecrire(Object valeur) {
+        try {
+            sortie.write(writer.writeValueAsBytes(valeur));
+            sortie.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Écrit une ligne et l'envoie immédiatement au client
+     */
+    void ecrireEtEnvoyer(Object valeur) {
+        ecrire(valeur);
+        try {
+            sortie.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -1 +1,79 @@
- 
\ No newline at end of file
+package com.buffet.controller;
+
+import com.buffet.dto.PlanificationRequest;
+import com.buffet.service.MoteurPlanification;
+import com.buffet.service.PlanificationService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/planification")
+@Tag(name = "Planification", description = "API de planification des repas sur plusieurs semaines et plusieurs sites")
+public class PlanificationController {
+
+    private final MoteurPlanification moteurPlanification;
+    private final PlanificationService planificationService;
+    private final ObjectWriter writer;
+
+    public PlanificationController(MoteurPlanification moteurPlanification,
+                                   PlanificationService planificationService,
+                                   ObjectMapper objectMapper) {
+        this.moteurPlanification = moteurPlanification;
+        this.planificationService = planificationService;
+        this.writer = objectMapper.writer();
+    }
+
+    @PostMapping(value = "/generer", produces = NdjsonWriter.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Générer une planification multi-sites",
+               description = "Génère les repas de chaque jour de la période pour chaque site. " +
+                             "Les jours sont émis au fil de l'eau, un objet JSON par ligne, dans l'ordre " +
+                             "chronologique puis l'ordre des sites. Une même graine donne la même planification.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Planification générée (NDJSON)"),
+        @ApiResponse(responseCode = "400", description = "Données invalides")
+    })
+    public ResponseEntity<StreamingResponseBody> genererPlanification(
+            @Parameter(description = "Période, graine et sites à planifier")
+            @Valid @RequestBody PlanificationRequest request) {
+        // Préparée avant l'envoi de la réponse pour que les erreurs restent des 400
+        MoteurPlanification.Planification planification = moteurPlanification.preparer(request);
+
+        StreamingResponseBody corps = sortie -> {
+            NdjsonWriter ndjson = new NdjsonWriter(writer, sortie);
+            planification.generer(ndjson::ecrireEtEnvoyer);
+        };
+        return ResponseEntity.ok()
+                .contentType(NdjsonWriter.APPLICATION_NDJSON)
+                .body(corps);
+    }
+
+    @PostMapping("/hebdomadaire")
+    @Operation(summary = "Générer et enregistrer une planification",
+               description = "Génère la planification automatique des semaines demandées à partir du lundi " +
+                             "de la date fournie, puis l'enregistre par lots (repas et repas_aliments)")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Planification enregistrée"),
+        @ApiResponse(responseCode = "400", description = "Données invalides")
+    })
+    public ResponseEntity<List<Map<String, Object>>> sauvegarderPlanification(
+            @Parameter(description = "Date de la première semaine (yyyy-MM-dd)")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @Parameter(description = "Nombre de semaines à planifier (104 au plus)")
+            @RequestParam(defaultValue = "1") int semaines) {
+        return ResponseEntity.ok(planificationService.genererEtSauvegarderPlanification(date, semaines));
+    }
+}
@@ -0,0 +1,75 @@
+package com.buffet.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+
+/**
+ * Demande de calcul groupé : soit un menu ({@code aliments}) évalué pour
+ * plusieurs nombres d'invités ({@code invites}), soit une liste de demandes
+ * complètes ({@code demandes}), de 1 à {@link #SCENARIOS_MAX} scénarios.
+ */
+public class BuffetLotRequest {
+
+    /**
+     * Scénarios par lot : borne le travail qu'un lot parallélisé confie au pool ForkJoin commun
+     */
+    public static final int SCENARIOS_MAX = 1000;
+
+    private List<Long> aliments;
+
+    @Size(min = 1, max = SCENARIOS_MAX, message = "Un lot compte de 1 à " + SCENARIOS_MAX + " nombres d'invités")
+    private List<@NotNull @Min(value = 1, message = "Le nombre d'invités doit être au moins 1") Integer> invites;
+
+    @Valid
+    @Size(min = 1, max = SCENARIOS_MAX, message = "Un lot compte de 1 à " + SCENARIOS_MAX + " demandes")
+    private List<BuffetRequest> demandes;
+
+    // Constructeurs
+    public BuffetLotRequest() {}
+
+    public BuffetLotRequest(List<Long> aliments, List<Integer> invites) {
+        this.aliments = aliments;
+        this.invites = invites;
+    }
+
+    public BuffetLotRequest(List<BuffetRequest> demandes) {
+        this.demandes = demandes;
+    }
+
+    // Getters et Setters
+    public List<Long> getAliments() {
+        return aliments;
+    }
+
+    public void setAliments(List<Long> aliments) {
+        this.aliments = aliments;
+    }
+
+    public List<Integer> getInvites() {
+        return invites;
+    }
+
+    public void setInvites(List<Integer> invites) {
+        this.invites = invites;
+    }
+
+    public List<BuffetRequest> getDemandes() {
+        return demandes;
+    }
+
+    public void setDemandes(List<BuffetRequest> demandes) {
+        this.demandes = demandes;
+    }
+
+    @Override
+    public String toString() {
+        return "BuffetLotRequest{" +
+                "aliments=" + aliments +
+                ", invites=" + invites +
+                ", demandes=" + demandes +
+                '}';
+    }
+}
@@ -0,0 +1,125 @@
+package com.buffet.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import java.util.List;
+
+/**
+ * Contraintes d'un buffet optimisé sur tout le catalogue : fenêtre de calories par
+ * invité, nombre d'aliments, équilibre entre catégories et allergies à exclure.
+ */
+public class OptimisationRequest {
+
+    @NotNull(message = "Le nombre d'invités est obligatoire")
+    @Min(value = 1, message = "Le nombre d'invités doit être au moins 1")
+    private Integer invites;
+
+    @NotNull(message = "Les calories minimales par invité sont obligatoires")
+    @Positive(message = "Les calories minimales par invité doivent être positives")
+    private Double caloriesMin;
+
+    @NotNull(message = "Les calories maximales par invité sont obligatoires")
+    @Positive(message = "Les calories maximales par invité doivent être positives")
+    private Double caloriesMax;
+
+    @Min(value = 1, message = "Le buffet doit compter au moins 1 aliment")
+    private int nombreMin = 4;
+
+    @Max(value = 20, message = "Le buffet ne peut pas compter plus de 20 aliments")
+    private int nombreMax = 8;
+
+    @Min(value = 1, message = "Au moins 1 aliment par catégorie")
+    private int maxParCategorie = 2;
+
+    private List<String> categoriesRequises = List.of();
+
+    private List<String> allergiesExclues = List.of();
+
+    // Durée de recherche ; sans valeur, buffet.optimiseur.budget
+    @Positive(message = "Le budget de recherche doit être positif")
+    private Integer budgetMs;
+
+    // Constructeurs
+    public OptimisationRequest() {}
+
+    public OptimisationRequest(Integer invites, Double caloriesMin, Double caloriesMax) {
+        this.invites = invites;
+        this.caloriesMin = caloriesMin;
+        this.caloriesMax = caloriesMax;
+    }
+
+    // Getters et Setters
+    public Integer getInvites() {
+        return invites;
+    }
+
+    public void setInvites(Integer invites) {
+        this.invites = invites;
+    }
+
+    public Double getCaloriesMin() {
+        return caloriesMin;
+    }
+
+    public void setCaloriesMin(Double caloriesMin) {
+        this.caloriesMin = caloriesMin;
+    }
+
+    public Double getCaloriesMax() {
+        return caloriesMax;
+    }
+
+    public void setCaloriesMax(Double caloriesMax) {
+        this.caloriesMax = caloriesMax;
+    }
+
+    public int getNombreMin() {
+        return nombreMin;
+    }
+
+    public void setNombreMin(int nombreMin) {
+        this.nombreMin = nombreMin;
+    }
+
+    public int getNombreMax() {
+        return nombreMax;
+    }
+
+    public void setNombreMax(int nombreMax) {
+        this.nombreMax = nombreMax;
+    }
+
+    public int getMaxParCategorie() {
+        return maxParCategorie;
+    }
+
+    public void setMaxParCategorie(int maxParCategorie) {
+        this.maxParCategorie = maxParCategorie;
+    }
+
+    public List<String> getCategoriesRequises() {
+        return categoriesRequises;
+    }
+
+    public void setCategoriesRequises(List<String> categoriesRequises) {
+        this.categoriesRequises = categoriesRequises != null ? categoriesRequises : List.of();
+    }
+
+    public List<String> getAllergiesExclues() {
+        return allergiesExclues;
+    }
+
+    public void setAllergiesExclues(List<String> allergiesExclues) {
+        this.allergiesExclues = allergiesExclues != null ? allergiesExclues : List.of();
+    }
+
+    public Integer getBudgetMs() {
+        return budgetMs;
+    }
+
+    public void setBudgetMs(Integer budgetMs) {
+        this.budgetMs = budgetMs;
+    }
+}
@@ -0,0 +1,80 @@
+package com.buffet.dto;
+
+/**
+ * Meilleur buffet trouvé par l'optimiseur, avec les statistiques de la recherche.
+ * {@code buffet} est null si aucune combinaison n'a été trouvée : aucune n'existe
+ * si la recherche est complète, sinon le budget de temps a été épuisé avant.
+ */
+public class OptimisationResponse {
+
+    private BuffetResponse buffet;
+    private Double caloriesParInvite;
+    private Integer nombreCategories;
+    private Statistiques statistiques;
+
+    /**
+     * Statistiques de la recherche ; complete indique que tout l'espace a été
+     * exploré (ou élagué) : le buffet renvoyé est alors optimal
+     */
+    public static class Statistiques {
+        private int candidats;
+        private long noeuds;
+        private long elagages;
+        private long solutions;
+        private double dureeMs;
+        private boolean complete;
+
+        public Statistiques() {}
+
+        public Statistiques(int candidats, long noeuds, long elagages, long solutions,
+                            double dureeMs, boolean complete) {
+            this.candidats = candidats;
+            this.noeuds = noeuds;
+            this.elagages = elagages;
+            this.solutions = solutions;
+            this.dureeMs = dureeMs;
+            this.complete = complete;
+        }
+
+        public int getCandidats() { return candidats; }
+        public void setCandidats(int candidats) { this.candidats = candidats; }
+
+        public long getNoeuds() { return noeuds; }
+        public void setNoeuds(long noeuds) { this.noeuds = noeuds; }
+
+        public long getElagages() { return elagages; }
+        public void setElagages(long elagages) { this.elagages = elagages; }
+
+        public long getSolutions() { return solutions; }
+        public void setSolutions(long solutions) { this.solutions = solutions; }
+
+        public double getDureeMs() { return dureeMs; }
+        public void setDureeMs(double dureeMs) { this.dureeMs = dureeMs; }
+
+        public boolean isComplete() { return complete; }
+        public void setComplete(boolean complete) { this.complete = complete; }
+    }
+
+    public OptimisationResponse() {}
+
+    public OptimisationResponse(BuffetResponse buffet, Double caloriesParInvite, Integer nombreCategories,
+                                Statistiques statistiques) {
+        this.buffet = buffet;
+        this.caloriesParInvite = caloriesParInvite;
+        this.nombreCategories = nombreCategories;
+        this.statistiques = statistiques;
+    }
+
+    // Getters et Setters
+    public BuffetResponse getBuffet() { return buffet; }
+    public void setBuffet(BuffetResponse buffet) { this.buffet = buffet; }
+
+    public Double getCaloriesParInvite() { return caloriesParInvite; }
+    public void setCaloriesParInvite(Double caloriesParInvite) { this.caloriesParInvite = caloriesParInvite; }
+
+    public Integer getNombreCategories() { return nombreCategories; }
+    public void setNombreCategories(Integer nombreCategories) { this.nombreCategories = nombreCategories; }
+
+    public Statistiques getStatistiques() { return statistiques; }
+    public void setStatistiques(Statistiques statistiques) { this.statistiques = statistiques; }
+}
@@ -0,0 +1,29 @@
+package com.buffet.dto;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Page d'aliments réduits aux champs demandés, avec le curseur de la page suivante
+ */
+public class PageAliments {
+
+    private final List<Map<String, Object>> aliments;
+    private final String suivant;
+
+    public PageAliments(List<Map<String, Object>> aliments, String suivant) {
+        this.aliments = aliments;
+        this.suivant = suivant;
+    }
+
+    public List<Map<String, Object>> getAliments() {
+        return aliments;
+    }
+
+    /**
+     * Curseur de la page suivante, null sur la dernière page
+     */
+    public String getSuivant() {
+        return suivant;
+    }
+}
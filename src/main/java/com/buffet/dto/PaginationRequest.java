@@ -0,0 +1,55 @@
+package com.buffet.dto;
+
+import io.swagger.v3.oas.annotations.Parameter;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+
+/**
+ * Paramètres optionnels de pagination par clé et de projection des listes d'aliments.
+ * Sans aucun de ces paramètres, la liste complète est renvoyée comme auparavant.
+ */
+public class PaginationRequest {
+
+    public static final int TAILLE_PAR_DEFAUT = 50;
+
+    @Parameter(description = "Curseur de la page suivante (en-tête X-Page-Suivante de la réponse précédente)")
+    private String apres;
+
+    @Parameter(description = "Nombre d'aliments par page (" + TAILLE_PAR_DEFAUT + " par défaut)")
+    @Min(value = 1, message = "La taille de page doit être au moins 1")
+    @Max(value = 1000, message = "La taille de page ne peut pas dépasser 1000")
+    private Integer taille;
+
+    @Parameter(description = "Champs à renvoyer, séparés par des virgules (ex. id,nom,caloriesPer100g,categorie)")
+    private String fields;
+
+    // Constructeurs
+    public PaginationRequest() {}
+
+    public PaginationRequest(String apres, Integer taille, String fields) {
+        this.apres = apres;
+        this.taille = taille;
+        this.fields = fields;
+    }
+
+    /**
+     * Vrai si la demande utilise la pagination ou la projection
+     */
+    public boolean estDemandee() {
+        return apres != null || taille != null || fields != null;
+    }
+
+    public int getTailleOuDefaut() {
+        return taille != null ? taille : TAILLE_PAR_DEFAUT;
+    }
+
+    // Getters et Setters
+    public String getApres() { return apres; }
+    public void setApres(String apres) { this.apres = apres; }
+
+    public Integer getTaille() { return taille; }
+    public void setTaille(Integer taille) { this.taille = taille; }
+
+    public String getFields() { return fields; }
+    public void setFields(String fields) { this.fields = fields; }
+}
@@ -0,0 +1,44 @@
+package com.buffet.dto;
+
+import com.buffet.model.Repas;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Repas planifiés pour un site et un jour
+ */
+public class PlanificationJourResponse {
+
+    private String site;
+    private LocalDate date;
+    private List<Repas> repas;
+
+    // Constructeurs
+    public PlanificationJourResponse() {}
+
+    public PlanificationJourResponse(String site, LocalDate date, List<Repas> repas) {
+        this.site = site;
+        this.date = date;
+        this.repas = repas;
+    }
+
+    // Getters et Setters
+    public String getSite() { return site; }
+    public void setSite(String site) { this.site = site; }
+
+    public LocalDate getDate() { return date; }
+    public void setDate(LocalDate date) { this.date = date; }
+
+    public List<Repas> getRepas() { return repas; }
+    public void setRepas(List<Repas> repas) { this.repas = repas; }
+
+    @Override
+    public String toString() {
+        return "PlanificationJourResponse{" +
+                "site='" + site + '\'' +
+                ", date=" + date +
+                ", repas=" + (repas != null ? repas.size() : 0) + " repas" +
+                '}';
+    }
+}
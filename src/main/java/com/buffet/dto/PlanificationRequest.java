@@ -0,0 +1,110 @@
+package com.buffet.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Demande de planification sur une période, pour plusieurs sites
+ */
+public class PlanificationRequest {
+
+    /**
+     * Sites par demande : avec l'horizon du moteur, borne le travail d'une seule demande
+     */
+    public static final int SITES_MAX = 50;
+
+    @NotNull(message = "La date de début est obligatoire")
+    private LocalDate dateDebut;
+
+    @NotNull(message = "La date de fin est obligatoire")
+    private LocalDate dateFin;
+
+    // Graine du tirage des aliments : même graine, même planification
+    private Long graine = 0L;
+
+    @NotEmpty(message = "La liste des sites est obligatoire")
+    @Size(max = SITES_MAX, message = "Une demande compte au plus " + SITES_MAX + " sites")
+    @Valid
+    private List<Site> sites;
+
+    // Classe interne pour un site (cantine) et ses contraintes
+    public static class Site {
+        @NotBlank(message = "Le nom du site est obligatoire")
+        private String nom;
+
+        @NotNull(message = "Le nombre de personnes est obligatoire")
+        @Min(value = 1, message = "Le nombre de personnes doit être au moins 1")
+        private Integer nombrePersonnes;
+
+        // Allergies à exclure des repas du site (dictionnaire Allergene)
+        private List<String> allergiesExclues = new ArrayList<>();
+
+        // Catégories à exclure des repas du site
+        private List<String> categoriesExclues = new ArrayList<>();
+
+        // Constructeurs
+        public Site() {}
+
+        public Site(String nom, Integer nombrePersonnes) {
+            this.nom = nom;
+            this.nombrePersonnes = nombrePersonnes;
+        }
+
+        // Getters et Setters
+        public String getNom() { return nom; }
+        public void setNom(String nom) { this.nom = nom; }
+
+        public Integer getNombrePersonnes() { return nombrePersonnes; }
+        public void setNombrePersonnes(Integer nombrePersonnes) { this.nombrePersonnes = nombrePersonnes; }
+
+        public List<String> getAllergiesExclues() { return allergiesExclues; }
+        public void setAllergiesExclues(List<String> allergiesExclues) {
+            this.allergiesExclues = allergiesExclues != null ? allergiesExclues : new ArrayList<>();
+        }
+
+        public List<String> getCategoriesExclues() { return categoriesExclues; }
+        public void setCategoriesExclues(List<String> categoriesExclues) {
+            this.categoriesExclues = categoriesExclues != null ? categoriesExclues : new ArrayList<>();
+        }
+    }
+
+    // Constructeurs
+    public PlanificationRequest() {}
+
+    public PlanificationRequest(LocalDate dateDebut, LocalDate dateFin, Long graine, List<Site> sites) {
+        this.dateDebut = dateDebut;
+        this.dateFin = dateFin;
+        this.graine = graine;
+        this.sites = sites;
+    }
+
+    // Getters et Setters
+    public LocalDate getDateDebut() { return dateDebut; }
+    public void setDateDebut(LocalDate dateDebut) { this.dateDebut = dateDebut; }
+
+    public LocalDate getDateFin() { return dateFin; }
+    public void setDateFin(LocalDate dateFin) { this.dateFin = dateFin; }
+
+    public Long getGraine() { return graine; }
+    public void setGraine(Long graine) { this.graine = graine; }
+
+    public List<Site> getSites() { return sites; }
+    public void setSites(List<Site> sites) { this.sites = sites; }
+
+    @Override
+    public String toString() {
+        return "PlanificationRequest{" +
+                "dateDebut=" + dateDebut +
+                ", dateFin=" + dateFin +
+                ", graine=" + graine +
+                ", sites=" + (sites != null ? sites.size() : 0) + " sites" +
+                '}';
+    }
+}
@@ -0,0 +1,19 @@
+package com.buffet.exception;
+
+import org.springframework.dao.TransientDataAccessResourceException;
+
+/**
+ * Connexion à la base refusée par le limiteur : trop de requêtes attendent déjà
+ * une connexion du pool. Répondue en 503 par {@link GlobalExceptionHandler}.
+ *
+ * Non vérifiée pour traverser Hibernate sans être journalisée comme une erreur
+ * SQL à chaque refus.
+ */
+public class ConnexionsSatureesException extends TransientDataAccessResourceException {
+
+    private static final long serialVersionUID = 1L;
+
+    public ConnexionsSatureesException(String message) {
+        super(message);
+    }
+}
@@ -1,12 +1,17 @@
 package com.buffet.model;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "aliments")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "aliments")
 public class Aliment {
     
     @Id
@@ -25,6 +30,11 @@ public class Aliment {
     @Column(name = "allergies", columnDefinition = "TEXT")
     private String allergies;
     
+    // Masque des allergènes (voir Allergene), dérivé de allergies
+    @Column(name = "allergenes_masque", nullable = false)
+    @JsonIgnore
+    private long allergenesMasque;
+    
     @Column(name = "image_url")
     private String imageUrl;
     
@@ -43,7 +53,7 @@ public class Aliment {
         this.nom = nom;
         this.description = description;
         this.caloriesPer100g = caloriesPer100g;
-        this.allergies = allergies;
+        setAllergies(allergies);
         this.imageUrl = imageUrl;
         this.createdAt = LocalDateTime.now();
     }
@@ -87,6 +97,20 @@ public class Aliment {
     
     public void setAllergies(String allergies) {
         this.allergies = allergies;
+        this.allergenesMasque = Allergene.masque(allergies);
+    }
+    
+    public long getAllergenesMasque() {
+        return allergenesMasque;
+    }
+    
+    /**
+     * Garantit la cohérence du masque avec allergies avant toute écriture
+     */
+    @PrePersist
+    @PreUpdate
+    void calculerAllergenesMasque() {
+        this.allergenesMasque = Allergene.masque(allergies);
     }
     
     public String getImageUrl() {
@@ -0,0 +1,137 @@
+package com.buffet.model;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Dictionnaire normalisé des allergènes.
+ *
+ * Chaque allergène occupe un bit du masque stocké dans la colonne
+ * aliments.allergenes_masque ; le texte libre de la colonne allergies est
+ * analysé par mots (sans accents, insensible à la casse, pluriels en s/x).
+ * L'ordre des constantes fixe la position des bits : ne pas réordonner,
+ * ajouter les nouveaux allergènes à la fin (64 au maximum).
+ */
+public enum Allergene {
+    GLUTEN("gluten", "ble", "seigle", "orge"),
+    LACTOSE("lactose", "lait", "laitier"),
+    OEUFS("oeuf"),
+    POISSONS("poisson"),
+    CRUSTACES("crustace", "crevette", "homard", "crabe"),
+    MOLLUSQUES("mollusque", "moule", "huitre"),
+    FRUITS_A_COQUE("coque", "noix", "amande", "noisette", "pistache"),
+    ARACHIDES("arachide", "cacahuete"),
+    SOJA("soja"),
+    SESAME("sesame"),
+    CELERI("celeri"),
+    MOUTARDE("moutarde"),
+    LUPIN("lupin"),
+    SULFITES("sulfite"),
+    AGRUMES("agrume", "orange", "citron"),
+    FRAISES("fraise"),
+    KIWI("kiwi"),
+    ANANAS("ananas"),
+    MANGUE("mangue"),
+    PECHES("peche"),
+    TOMATES("tomate"),
+    POIVRONS("poivron"),
+    OIGNONS("oignon"),
+    AIL("ail"),
+    VOLAILLE("volaille", "poulet", "dinde"),
+    BOEUF("boeuf"),
+    PORC("porc"),
+    AGNEAU("agneau"),
+    AVOINE("avoine"),
+    EPICES("epice"),
+    OLIVES("olive"),
+    GRAINES("graine"),
+    CACAO("cacao", "chocolat");
+
+    // Les textes d'allergies se répètent d'un aliment à l'autre : l'analyse d'un texte
+    // déjà vu est évitée, dans la limite de TAILLE_MAX_MASQUES textes distincts
+    private static final int TAILLE_MAX_MASQUES = 4096;
+    private static final Map<String, Long> MASQUES = new ConcurrentHashMap<>();
+
+    private final String[] motsCles;
+
+    Allergene(String... motsCles) {
+        this.motsCles = motsCles;
+    }
+
+    /**
+     * Bit de l'allergène dans le masque
+     */
+    public long bit() {
+        return 1L << ordinal();
+    }
+
+    /**
+     * Calcule le masque des allergènes cités dans un texte libre (0 si aucun)
+     */
+    public static long masque(String texte) {
+        if (texte == null || texte.isBlank()) {
+            return 0L;
+        }
+        Long connu = MASQUES.get(texte);
+        if (connu != null) {
+            return connu;
+        }
+        long masque = analyser(texte);
+        if (MASQUES.size() < TAILLE_MAX_MASQUES) {
+            MASQUES.put(texte, masque);
+        }
+        return masque;
+    }
+
+    private static long analyser(String texte) {
+        long masque = 0L;
+        for (String mot : normaliser(texte).split("[^a-z]+")) {
+            if (mot.isEmpty()) {
+                continue;
+            }
+            for (Allergene allergene : values()) {
+                if (allergene.reconnait(mot)) {
+                    masque |= allergene.bit();
+                }
+            }
+        }
+        return masque;
+    }
+
+    /**
+     * Liste les allergènes présents dans un masque
+     */
+    public static List<Allergene> depuisMasque(long masque) {
+        List<Allergene> allergenes = new ArrayList<>();
+        for (Allergene allergene : values()) {
+            if ((masque & allergene.bit()) != 0) {
+                allergenes.add(allergene);
+            }
+        }
+        return allergenes;
+    }
+
+    private boolean reconnait(String mot) {
+        for (String motCle : motsCles) {
+            if (mot.equals(motCle) || mot.equals(motCle + "s") || mot.equals(motCle + "x")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Minuscules, sans accents ni ligatures (aussi utilisé par la recherche d'aliments)
+     */
+    public static String normaliser(String texte) {
+        String sansLigatures = texte.toLowerCase(Locale.ROOT)
+                .replace("œ", "oe")
+                .replace("æ", "ae");
+        return Normalizer.normalize(sansLigatures, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "");
+    }
+}
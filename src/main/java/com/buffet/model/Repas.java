@@ -33,6 +33,7 @@ public class Repas {
     @Column(name = "created_at")
     private LocalDateTime createdAt;
     
+    // Lecture seule en pratique : repas_aliments (et sa quantite_grammes) est écrit par RepasJdbcRepository
     @ManyToMany(fetch = FetchType.LAZY)
     @JoinTable(
         name = "repas_aliments",
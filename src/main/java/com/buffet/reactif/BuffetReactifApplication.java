@@ -0,0 +1,36 @@
+package com.buffet.reactif;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * Application réactive (WebFlux + R2DBC) servant en lecture seule le catalogue et
+ * les calculs de buffet, à côté de l'application servlet qui reste seule à écrire.
+ *
+ * Elle lit les tables de schema.sql sans passer par JPA et se configure par
+ * reactif.yml (port 8081). Ses composants ne sont actifs que dans un contexte
+ * réactif : l'application servlet, qui parcourt aussi ce paquet, les ignore.
+ * Le serveur est Netty, bien que Tomcat soit présent pour l'application servlet.
+ */
+@SpringBootApplication(exclude = {DataSourceAutoConfiguration.class, HibernateJpaAutoConfiguration.class})
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class BuffetReactifApplication {
+
+    public static void main(String[] args) {
+        new SpringApplicationBuilder(BuffetReactifApplication.class)
+                .web(WebApplicationType.REACTIVE)
+                .properties("spring.config.name=reactif")
+                .run(args);
+    }
+
+    @Bean
+    public NettyReactiveWebServerFactory serveurNetty() {
+        return new NettyReactiveWebServerFactory();
+    }
+}
@@ -0,0 +1,45 @@
+package com.buffet.reactif;
+
+import com.buffet.dto.BuffetRequest;
+import com.buffet.dto.BuffetResponse;
+import com.buffet.model.Aliment;
+import com.buffet.service.CalculsBuffet;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Équivalents non bloquants des calculs de buffet : mêmes fonctions
+ * ({@link CalculsBuffet}) que l'application servlet, appliquées au snapshot R2DBC.
+ * Les calculs ne durent que quelques microsecondes et restent sur la boucle d'événements.
+ */
+@RestController
+@RequestMapping("/api/buffet")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class BuffetReactifController {
+
+    private final CatalogueReactif catalogueReactif;
+
+    public BuffetReactifController(CatalogueReactif catalogueReactif) {
+        this.catalogueReactif = catalogueReactif;
+    }
+
+    @PostMapping("/calculer")
+    public Mono<BuffetResponse> calculerBuffet(@RequestBody Mono<BuffetRequest> request) {
+        return Mono.zip(catalogueReactif.getSnapshot(), request)
+                .map(demande -> CalculsBuffet.calculerBuffet(demande.getT1(),
+                        demande.getT2().getInvites(), demande.getT2().getAliments()));
+    }
+
+    @GetMapping("/recommandations/{nombreInvites}")
+    public Flux<Aliment> getRecommandations(@PathVariable Integer nombreInvites) {
+        return catalogueReactif.getSnapshot()
+                .flatMapIterable(catalogue -> CalculsBuffet.recommandations(catalogue, nombreInvites));
+    }
+}
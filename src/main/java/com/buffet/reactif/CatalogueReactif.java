@@ -0,0 +1,92 @@
+package com.buffet.reactif;
+
+import com.buffet.catalogue.CatalogueSnapshot;
+import com.buffet.model.Aliment;
+import com.buffet.model.Categorie;
+import io.r2dbc.spi.Readable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Snapshot du catalogue chargé par R2DBC.
+ *
+ * Les écritures passent par l'application servlet, dont ce processus ne reçoit
+ * pas les invalidations : le snapshot est rechargé à la première demande qui
+ * suit l'expiration de sa durée de vie (buffet.reactif.rafraichissement). Les
+ * demandes simultanées partagent un même chargement.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class CatalogueReactif {
+
+    private static final String SELECT_CATEGORIES =
+            "SELECT id, nom, description, created_at FROM categories";
+
+    private static final String SELECT_ALIMENTS =
+            "SELECT id, nom, description, calories_per_100g, allergies, image_url, categorie_id, created_at " +
+            "FROM aliments";
+
+    private final DatabaseClient databaseClient;
+    private final AtomicLong version = new AtomicLong();
+    private final Mono<CatalogueSnapshot> snapshot;
+
+    public CatalogueReactif(DatabaseClient databaseClient,
+                            @Value("${buffet.reactif.rafraichissement:30s}") Duration rafraichissement) {
+        this.databaseClient = databaseClient;
+        this.snapshot = charger().cache(charge -> rafraichissement, erreur -> Duration.ZERO, () -> Duration.ZERO);
+    }
+
+    /**
+     * Snapshot courant, chargé au besoin sans bloquer
+     */
+    public Mono<CatalogueSnapshot> getSnapshot() {
+        return snapshot;
+    }
+
+    private Mono<CatalogueSnapshot> charger() {
+        Mono<List<Categorie>> categories = databaseClient.sql(SELECT_CATEGORIES)
+                .map(CatalogueReactif::categorie)
+                .all()
+                .collectList();
+        Mono<List<Aliment>> aliments = databaseClient.sql(SELECT_ALIMENTS)
+                .map(CatalogueReactif::aliment)
+                .all()
+                .collectList();
+        return Mono.zip(categories, aliments)
+                .map(lu -> CatalogueSnapshot.construire(version.incrementAndGet(), lu.getT1(), lu.getT2()));
+    }
+
+    private static Categorie categorie(Readable ligne) {
+        Categorie categorie = new Categorie();
+        categorie.setId(ligne.get("id", Number.class).longValue());
+        categorie.setNom(ligne.get("nom", String.class));
+        categorie.setDescription(ligne.get("description", String.class));
+        categorie.setCreatedAt(ligne.get("created_at", LocalDateTime.class));
+        return categorie;
+    }
+
+    private static Aliment aliment(Readable ligne) {
+        Aliment aliment = new Aliment();
+        aliment.setId(ligne.get("id", Number.class).longValue());
+        aliment.setNom(ligne.get("nom", String.class));
+        aliment.setDescription(ligne.get("description", String.class));
+        aliment.setCaloriesPer100g(ligne.get("calories_per_100g", BigDecimal.class));
+        aliment.setAllergies(ligne.get("allergies", String.class));
+        aliment.setImageUrl(ligne.get("image_url", String.class));
+        aliment.setCreatedAt(ligne.get("created_at", LocalDateTime.class));
+        // Référence par ID, résolue par CatalogueSnapshot.construire
+        Categorie categorie = new Categorie();
+        categorie.setId(ligne.get("categorie_id", Number.class).longValue());
+        aliment.setCategorie(categorie);
+        return aliment;
+    }
+}
@@ -0,0 +1,35 @@
+package com.buffet.reactif;
+
+import com.buffet.catalogue.CatalogueSnapshot;
+import com.buffet.model.Aliment;
+import com.buffet.model.Categorie;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+
+/**
+ * Équivalents non bloquants de GET /api/aliments et GET /api/categories
+ */
+@RestController
+@RequestMapping("/api")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class CatalogueReactifController {
+
+    private final CatalogueReactif catalogueReactif;
+
+    public CatalogueReactifController(CatalogueReactif catalogueReactif) {
+        this.catalogueReactif = catalogueReactif;
+    }
+
+    @GetMapping("/aliments")
+    public Flux<Aliment> getAllAliments() {
+        return catalogueReactif.getSnapshot().flatMapIterable(CatalogueSnapshot::getAliments);
+    }
+
+    @GetMapping("/categories")
+    public Flux<Categorie> getAllCategories() {
+        return catalogueReactif.getSnapshot().flatMapIterable(CatalogueSnapshot::getCategories);
+    }
+}
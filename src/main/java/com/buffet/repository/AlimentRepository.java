@@ -2,10 +2,15 @@ package com.buffet.repository;
 
 import com.buffet.model.Aliment;
 import com.buffet.model.Categorie;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -19,8 +24,9 @@ public interface AlimentRepository extends JpaRepository<Aliment, Long> {
     List<Aliment> findByCategorie(Categorie categorie);
     
     /**
-     * Trouve tous les aliments d'une catégorie par nom
+     * Trouve tous les aliments d'une catégorie par nom (résultat dans le cache de requêtes d'Hibernate)
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Aliment> findByCategorieNom(String categorieNom);
     
     /**
@@ -47,6 +53,7 @@ public interface AlimentRepository extends JpaRepository<Aliment, Long> {
      * Trouve tous les aliments avec leur catégorie
      */
     @Query("SELECT a FROM Aliment a LEFT JOIN FETCH a.categorie")
+    @Transactional(readOnly = true)
     List<Aliment> findAllWithCategorie();
     
     /**
@@ -67,6 +74,20 @@ public interface AlimentRepository extends JpaRepository<Aliment, Long> {
     @Query("SELECT a FROM Aliment a ORDER BY a.caloriesPer100g ASC")
     List<Aliment> findMoinsCaloriques();
     
+    /**
+     * Trouve les {@code limite} aliments les plus caloriques (LIMIT sur l'index calories_per_100g, id)
+     */
+    @Transactional(readOnly = true)
+    @Query("SELECT a FROM Aliment a WHERE a.caloriesPer100g IS NOT NULL ORDER BY a.caloriesPer100g DESC, a.id DESC")
+    List<Aliment> findTopCaloriques(Pageable limite);
+    
+    /**
+     * Trouve les {@code limite} aliments les moins caloriques (LIMIT sur l'index calories_per_100g, id)
+     */
+    @Transactional(readOnly = true)
+    @Query("SELECT a FROM Aliment a WHERE a.caloriesPer100g IS NOT NULL ORDER BY a.caloriesPer100g ASC, a.id ASC")
+    List<Aliment> findMoinsCaloriques(Pageable limite);
+    
     /**
      * Trouve les aliments par allergie spécifique
      */
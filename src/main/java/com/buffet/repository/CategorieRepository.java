@@ -1,10 +1,14 @@
 package com.buffet.repository;
 
 import com.buffet.model.Categorie;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -13,8 +17,9 @@ import java.util.Optional;
 public interface CategorieRepository extends JpaRepository<Categorie, Long> {
     
     /**
-     * Trouve une catégorie par son nom
+     * Trouve une catégorie par son nom (résultat dans le cache de requêtes d'Hibernate)
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Categorie> findByNom(String nom);
     
     /**
@@ -26,6 +31,7 @@ public interface CategorieRepository extends JpaRepository<Categorie, Long> {
      * Trouve toutes les catégories avec leurs aliments
      */
     @Query("SELECT c FROM Categorie c LEFT JOIN FETCH c.aliments")
+    @Transactional(readOnly = true)
     List<Categorie> findAllWithAliments();
     
     /**
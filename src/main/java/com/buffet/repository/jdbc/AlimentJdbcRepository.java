@@ -1,8 +1,13 @@
 package com.buffet.repository.jdbc;
 
+import com.buffet.dto.PageAliments;
 import com.buffet.model.Aliment;
+import com.buffet.model.Allergene;
 import com.buffet.model.Categorie;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
@@ -10,42 +15,222 @@ import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.sql.PreparedStatement;
-import java.sql.Statement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
 @Repository
 public class AlimentJdbcRepository {
     
+    /**
+     * Colonnes de l'aliment et de sa catégorie, lues en une seule requête (jointure)
+     */
+    private static final String SELECT_ALIMENTS =
+            "SELECT a.id, a.nom, a.description, a.calories_per_100g, a.allergies, a.image_url, a.created_at, " +
+            "c.id AS categorie_id, c.nom AS categorie_nom, c.description AS categorie_description, " +
+            "c.created_at AS categorie_created_at " +
+            "FROM aliments a JOIN categories c ON a.categorie_id = c.id ";
+    
+    /**
+     * Mêmes colonnes, à partir des catégories : une catégorie sans aliment donne une ligne aux colonnes d'aliment nulles
+     */
+    private static final String SELECT_CATEGORIES_AVEC_ALIMENTS =
+            "SELECT a.id, a.nom, a.description, a.calories_per_100g, a.allergies, a.image_url, a.created_at, " +
+            "c.id AS categorie_id, c.nom AS categorie_nom, c.description AS categorie_description, " +
+            "c.created_at AS categorie_created_at " +
+            "FROM categories c LEFT JOIN aliments a ON a.categorie_id = c.id ";
+    
+    private static final String INSERT_ALIMENT =
+            "INSERT INTO aliments (nom, description, calories_per_100g, allergies, allergenes_masque, image_url, categorie_id, created_at, source_catalogue) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    
+    private static final String UPDATE_ALIMENT =
+            "UPDATE aliments SET nom = ?, description = ?, calories_per_100g = ?, " +
+            "allergies = ?, allergenes_masque = ?, image_url = ?, categorie_id = ? WHERE id = ?";
+    
+    private static final String INSERT_CATEGORIE =
+            "INSERT INTO categories (nom, description, created_at, source_catalogue) VALUES (?, ?, ?, ?)";
+    
+    /**
+     * Nombre de lignes lues par aller-retour lors des parcours
+     */
+    private static final int TAILLE_FETCH = 500;
+    
     private final JdbcTemplate jdbcTemplate;
-    private final CategorieJdbcRepository categorieRepository;
-    private final RowMapper<Aliment> alimentRowMapper;
     
-    public AlimentJdbcRepository(JdbcTemplate jdbcTemplate, CategorieJdbcRepository categorieRepository) {
+    public AlimentJdbcRepository(JdbcTemplate jdbcTemplate) {
         this.jdbcTemplate = jdbcTemplate;
-        this.categorieRepository = categorieRepository;
-        
-        this.alimentRowMapper = (rs, rowNum) -> {
-            Aliment aliment = new Aliment();
-            aliment.setId(rs.getLong("id"));
-            aliment.setNom(rs.getString("nom"));
-            aliment.setDescription(rs.getString("description"));
-            aliment.setCaloriesPer100g(rs.getBigDecimal("calories_per_100g"));
-            aliment.setAllergies(rs.getString("allergies"));
-            aliment.setImageUrl(rs.getString("image_url"));
-            aliment.setCreatedAt(rs.getTimestamp("created_at").toLocalDateTime());
+    }
+    
+    /**
+     * Crée un mapper pour une requête. Les catégories déjà rencontrées dans la
+     * requête sont réutilisées : une seule instance par catégorie, aucun SELECT
+     * supplémentaire.
+     */
+    private RowMapper<Aliment> alimentRowMapper() {
+        Map<Long, Categorie> categories = new HashMap<>();
+        
+        return (rs, rowNum) -> {
+            Aliment aliment = mapperAliment(rs);
             
-            // Charger la catégorie
-            Long categorieId = rs.getLong("categorie_id");
-            if (categorieId != null) {
-                categorieRepository.findById(categorieId).ifPresent(aliment::setCategorie);
+            // Catégorie issue de la jointure
+            Categorie categorie = categories.get(rs.getLong("categorie_id"));
+            if (categorie == null) {
+                categorie = mapperCategorie(rs);
+                categories.put(categorie.getId(), categorie);
             }
+            aliment.setCategorie(categorie);
             
             return aliment;
         };
     }
     
+    private static Aliment mapperAliment(ResultSet rs) throws SQLException {
+        Aliment aliment = new Aliment();
+        aliment.setId(rs.getLong("id"));
+        aliment.setNom(rs.getString("nom"));
+        aliment.setDescription(rs.getString("description"));
+        aliment.setCaloriesPer100g(rs.getBigDecimal("calories_per_100g"));
+        aliment.setAllergies(rs.getString("allergies"));
+        aliment.setImageUrl(rs.getString("image_url"));
+        aliment.setCreatedAt(toLocalDateTime(rs.getTimestamp("created_at")));
+        return aliment;
+    }
+    
+    private static Categorie mapperCategorie(ResultSet rs) throws SQLException {
+        Categorie categorie = new Categorie();
+        categorie.setId(rs.getLong("categorie_id"));
+        categorie.setNom(rs.getString("categorie_nom"));
+        categorie.setDescription(rs.getString("categorie_description"));
+        categorie.setCreatedAt(toLocalDateTime(rs.getTimestamp("categorie_created_at")));
+        return categorie;
+    }
+    
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+    
+    /**
+     * Parcourt les aliments d'ID supérieur à {@code apresId}, par ID croissant.
+     * Les lignes sont lues par paquets de {@link #TAILLE_FETCH} et transmises une à une :
+     * la mémoire utilisée ne dépend pas de la taille du catalogue. Avec PostgreSQL,
+     * la lecture par paquets n'a lieu que dans une transaction.
+     */
+    public void parcourirDepuis(long apresId, Consumer<Aliment> consommateur) {
+        RowMapper<Aliment> mapper = alimentRowMapper();
+        
+        jdbcTemplate.query(
+                curseur(SELECT_ALIMENTS + "WHERE a.id > ? ORDER BY a.id", apresId),
+                (RowCallbackHandler) rs -> consommateur.accept(mapper.mapRow(rs, rs.getRow())));
+    }
+    
+    /**
+     * Parcourt les catégories d'ID supérieur à {@code apresCategorieId}, par ID croissant,
+     * chacune avec ses aliments. Seule la catégorie en cours est gardée en mémoire.
+     */
+    public void parcourirCategoriesDepuis(long apresCategorieId, Consumer<Categorie> consommateur) {
+        Categorie[] enCours = new Categorie[1];
+        
+        jdbcTemplate.query(
+                curseur(SELECT_CATEGORIES_AVEC_ALIMENTS + "WHERE c.id > ? ORDER BY c.id, a.id", apresCategorieId),
+                (RowCallbackHandler) rs -> {
+                    Categorie categorie = enCours[0];
+                    if (categorie == null || categorie.getId() != rs.getLong("categorie_id")) {
+                        if (categorie != null) {
+                            consommateur.accept(categorie);
+                        }
+                        categorie = mapperCategorie(rs);
+                        enCours[0] = categorie;
+                    }
+                    
+                    // LEFT JOIN : pas d'aliment pour une catégorie vide
+                    rs.getLong("id");
+                    if (!rs.wasNull()) {
+                        Aliment aliment = mapperAliment(rs);
+                        aliment.setCategorie(categorie);
+                        categorie.getAliments().add(aliment);
+                    }
+                });
+        
+        if (enCours[0] != null) {
+            consommateur.accept(enCours[0]);
+        }
+    }
+    
+    private static PreparedStatementCreator curseur(String sql, long apresId) {
+        return connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(TAILLE_FETCH);
+            ps.setLong(1, apresId);
+            return ps;
+        };
+    }
+    
+    /**
+     * Page d'aliments triée par clé (voir {@link TriAliment}) : seules les colonnes
+     * des champs demandés sont lues, et la reprise après {@code apres} passe par
+     * l'index de la clé. Une ligne de plus que la taille est lue pour savoir s'il
+     * existe une page suivante.
+     */
+    public PageAliments findPage(FiltreAliment filtre, TriAliment tri, String apres, int taille,
+                                 Set<ChampAliment> champs) {
+        StringBuilder sql = new StringBuilder("SELECT ");
+        for (ChampAliment champ : champs) {
+            sql.append(champ.getSelection()).append(", ");
+        }
+        sql.append(tri.getColonne()).append(" AS cle_valeur, a.id AS cle_id FROM aliments a ");
+        if (filtre.isJointureCategorie() || champs.stream().anyMatch(ChampAliment::isJointureCategorie)) {
+            sql.append("JOIN categories c ON a.categorie_id = c.id ");
+        }
+        
+        List<String> conditions = new ArrayList<>();
+        List<Object> parametres = new ArrayList<>(filtre.getParametres());
+        if (filtre.getCondition() != null) {
+            conditions.add(filtre.getCondition());
+        }
+        if (tri.conditionCle() != null) {
+            conditions.add(tri.conditionCle());
+        }
+        if (apres != null) {
+            conditions.add(tri.conditionApres());
+            parametres.addAll(List.of(tri.lireCurseur(apres)));
+        }
+        if (!conditions.isEmpty()) {
+            sql.append("WHERE ").append(String.join(" AND ", conditions)).append(' ');
+        }
+        sql.append(tri.orderBy()).append(" LIMIT ?");
+        parametres.add(taille + 1);
+        
+        List<Map<String, Object>> aliments = new ArrayList<>(taille);
+        Object[] derniereCle = new Object[2];
+        boolean[] pageSuivante = new boolean[1];
+        jdbcTemplate.query(sql.toString(), (RowCallbackHandler) rs -> {
+            if (aliments.size() == taille) {
+                pageSuivante[0] = true;
+                return;
+            }
+            Map<String, Object> aliment = new LinkedHashMap<>();
+            for (ChampAliment champ : champs) {
+                aliment.put(champ.getNomJson(), champ.lire(rs));
+            }
+            aliments.add(aliment);
+            derniereCle[0] = tri.lireCle(rs);
+            derniereCle[1] = rs.getLong("cle_id");
+        }, parametres.toArray());
+        
+        String suivant = pageSuivante[0] ? tri.curseur(derniereCle[0], (Long) derniereCle[1]) : null;
+        return new PageAliments(aliments, suivant);
+    }
+    
     /**
      * Sauvegarde un aliment
      */
@@ -61,20 +246,19 @@ public class AlimentJdbcRepository {
      * Insère un nouvel aliment
      */
     private Aliment insert(Aliment aliment) {
-        String sql = "INSERT INTO aliments (nom, description, calories_per_100g, allergies, image_url, categorie_id, created_at) " +
-                    "VALUES (?, ?, ?, ?, ?, ?, ?)";
-        
         KeyHolder keyHolder = new GeneratedKeyHolder();
         
         jdbcTemplate.update(connection -> {
-            PreparedStatement ps = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+            PreparedStatement ps = connection.prepareStatement(INSERT_ALIMENT, new String[]{"id"});
             ps.setString(1, aliment.getNom());
             ps.setString(2, aliment.getDescription());
             ps.setBigDecimal(3, aliment.getCaloriesPer100g());
             ps.setString(4, aliment.getAllergies());
-            ps.setString(5, aliment.getImageUrl());
-            ps.setLong(6, aliment.getCategorie().getId());
-            ps.setTimestamp(7, java.sql.Timestamp.valueOf(LocalDateTime.now()));
+            ps.setLong(5, aliment.getAllergenesMasque());
+            ps.setString(6, aliment.getImageUrl());
+            ps.setLong(7, aliment.getCategorie().getId());
+            ps.setTimestamp(8, java.sql.Timestamp.valueOf(LocalDateTime.now()));
+            ps.setString(9, null);
             return ps;
         }, keyHolder);
         
@@ -82,18 +266,132 @@ public class AlimentJdbcRepository {
         return aliment;
     }
     
+    /**
+     * Insère des aliments du catalogue {@code source} en un seul lot JDBC, sans relire
+     * les identifiants générés. Chaque aliment doit avoir une catégorie dont l'ID est connu.
+     */
+    public void insertAll(List<Aliment> aliments, String source) {
+        jdbcTemplate.batchUpdate(INSERT_ALIMENT, aliments, aliments.size(), (ps, aliment) -> {
+            ps.setString(1, aliment.getNom());
+            ps.setString(2, aliment.getDescription());
+            ps.setBigDecimal(3, aliment.getCaloriesPer100g());
+            ps.setString(4, aliment.getAllergies());
+            ps.setLong(5, aliment.getAllergenesMasque());
+            ps.setString(6, aliment.getImageUrl());
+            ps.setLong(7, aliment.getCategorie().getId());
+            ps.setTimestamp(8, Timestamp.valueOf(
+                    aliment.getCreatedAt() != null ? aliment.getCreatedAt() : LocalDateTime.now()));
+            ps.setString(9, source);
+        });
+    }
+    
+    /**
+     * Met à jour des aliments existants en un seul lot JDBC
+     */
+    public void updateAll(List<Aliment> aliments) {
+        jdbcTemplate.batchUpdate(UPDATE_ALIMENT, aliments, aliments.size(), (ps, aliment) -> {
+            ps.setString(1, aliment.getNom());
+            ps.setString(2, aliment.getDescription());
+            ps.setBigDecimal(3, aliment.getCaloriesPer100g());
+            ps.setString(4, aliment.getAllergies());
+            ps.setLong(5, aliment.getAllergenesMasque());
+            ps.setString(6, aliment.getImageUrl());
+            ps.setLong(7, aliment.getCategorie().getId());
+            ps.setLong(8, aliment.getId());
+        });
+    }
+    
+    /**
+     * Supprime par lots JDBC les aliments issus du catalogue {@code source} qu'aucun repas
+     * n'utilise ; les autres sont conservés. Retourne le nombre d'aliments supprimés.
+     */
+    public int supprimerDuCatalogue(String source, List<Long> ids) {
+        int[][] lignes = jdbcTemplate.batchUpdate(
+                "DELETE FROM aliments WHERE id = ? AND source_catalogue = ? " +
+                "AND NOT EXISTS (SELECT 1 FROM repas_aliments ra WHERE ra.aliment_id = aliments.id)",
+                ids, TAILLE_FETCH, (ps, id) -> {
+                    ps.setLong(1, id);
+                    ps.setString(2, source);
+                });
+        return somme(lignes);
+    }
+    
+    /**
+     * Rattache au catalogue {@code source} des aliments existants encore sans origine
+     */
+    public void revendiquer(String source, List<Long> ids) {
+        jdbcTemplate.batchUpdate("UPDATE aliments SET source_catalogue = ? WHERE id = ? AND source_catalogue IS NULL",
+                ids, TAILLE_FETCH, (ps, id) -> {
+                    ps.setString(1, source);
+                    ps.setLong(2, id);
+                });
+    }
+    
+    private static int somme(int[][] lignes) {
+        int total = 0;
+        for (int[] lot : lignes) {
+            for (int n : lot) {
+                total += Math.max(n, 0);
+            }
+        }
+        return total;
+    }
+    
+    /**
+     * Insère des catégories du catalogue {@code source} en un seul lot JDBC et leur
+     * affecte les identifiants générés
+     */
+    public List<Categorie> insertCategories(List<Categorie> categories, String source) {
+        if (categories.isEmpty()) {
+            return categories;
+        }
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(INSERT_CATEGORIE, new String[]{"id"})) {
+                for (Categorie categorie : categories) {
+                    ps.setString(1, categorie.getNom());
+                    ps.setString(2, categorie.getDescription());
+                    ps.setTimestamp(3, Timestamp.valueOf(
+                            categorie.getCreatedAt() != null ? categorie.getCreatedAt() : LocalDateTime.now()));
+                    ps.setString(4, source);
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+                
+                // Les clés générées arrivent dans l'ordre du lot
+                try (ResultSet cles = ps.getGeneratedKeys()) {
+                    for (Categorie categorie : categories) {
+                        if (!cles.next()) {
+                            throw new IllegalStateException("Identifiant manquant pour la catégorie " + categorie.getNom());
+                        }
+                        categorie.setId(cles.getLong(1));
+                    }
+                }
+            }
+            return null;
+        });
+        return categories;
+    }
+    
+    /**
+     * Identifiants des catégories existantes, par nom
+     */
+    public Map<String, Long> findCategorieIdsParNom() {
+        Map<String, Long> ids = new HashMap<>();
+        jdbcTemplate.query("SELECT id, nom FROM categories",
+                (RowCallbackHandler) rs -> ids.put(rs.getString("nom"), rs.getLong("id")));
+        return ids;
+    }
+    
     /**
      * Met à jour un aliment existant
      */
     private Aliment update(Aliment aliment) {
-        String sql = "UPDATE aliments SET nom = ?, description = ?, calories_per_100g = ?, " +
-                    "allergies = ?, image_url = ?, categorie_id = ? WHERE id = ?";
-        
-        jdbcTemplate.update(sql,
+        jdbcTemplate.update(UPDATE_ALIMENT,
                 aliment.getNom(),
                 aliment.getDescription(),
                 aliment.getCaloriesPer100g(),
                 aliment.getAllergies(),
+                aliment.getAllergenesMasque(),
                 aliment.getImageUrl(),
                 aliment.getCategorie().getId(),
                 aliment.getId());
@@ -105,10 +403,10 @@ public class AlimentJdbcRepository {
      * Trouve un aliment par ID
      */
     public Optional<Aliment> findById(Long id) {
-        String sql = "SELECT id, nom, description, calories_per_100g, allergies, image_url, categorie_id, created_at " +
-                    "FROM aliments WHERE id = ?";
+        String sql = SELECT_ALIMENTS +
+                    "WHERE a.id = ?";
         
-        List<Aliment> result = jdbcTemplate.query(sql, alimentRowMapper, id);
+        List<Aliment> result = jdbcTemplate.query(sql, alimentRowMapper(), id);
         
         return result.isEmpty() ? Optional.empty() : Optional.of(result.get(0));
     }
@@ -117,72 +415,102 @@ public class AlimentJdbcRepository {
      * Trouve tous les aliments
      */
     public List<Aliment> findAll() {
-        String sql = "SELECT id, nom, description, calories_per_100g, allergies, image_url, categorie_id, created_at " +
-                    "FROM aliments ORDER BY nom";
+        String sql = SELECT_ALIMENTS +
+                    "ORDER BY a.nom";
         
-        return jdbcTemplate.query(sql, alimentRowMapper);
+        return jdbcTemplate.query(sql, alimentRowMapper());
     }
     
     /**
      * Trouve les aliments d'une catégorie
      */
     public List<Aliment> findByCategorie(Categorie categorie) {
-        String sql = "SELECT id, nom, description, calories_per_100g, allergies, image_url, categorie_id, created_at " +
-                    "FROM aliments WHERE categorie_id = ? ORDER BY nom";
+        String sql = SELECT_ALIMENTS +
+                    "WHERE a.categorie_id = ? ORDER BY a.nom";
         
-        return jdbcTemplate.query(sql, alimentRowMapper, categorie.getId());
+        return jdbcTemplate.query(sql, alimentRowMapper(), categorie.getId());
     }
     
     /**
      * Trouve les aliments par nom de catégorie
      */
     public List<Aliment> findByCategorieNom(String categorieNom) {
-        String sql = "SELECT a.id, a.nom, a.description, a.calories_per_100g, a.allergies, a.image_url, a.categorie_id, a.created_at " +
-                    "FROM aliments a " +
-                    "JOIN categories c ON a.categorie_id = c.id " +
+        String sql = SELECT_ALIMENTS +
                     "WHERE c.nom = ? ORDER BY a.nom";
         
-        return jdbcTemplate.query(sql, alimentRowMapper, categorieNom);
+        return jdbcTemplate.query(sql, alimentRowMapper(), categorieNom);
     }
     
     /**
      * Trouve les aliments par nom (recherche partielle)
      */
     public List<Aliment> findByNomContaining(String nom) {
-        String sql = "SELECT id, nom, description, calories_per_100g, allergies, image_url, categorie_id, created_at " +
-                    "FROM aliments WHERE LOWER(nom) LIKE LOWER(?) ORDER BY nom";
+        String sql = SELECT_ALIMENTS +
+                    "WHERE LOWER(a.nom) LIKE LOWER(?) ORDER BY a.nom";
         
-        return jdbcTemplate.query(sql, alimentRowMapper, "%" + nom + "%");
+        return jdbcTemplate.query(sql, alimentRowMapper(), "%" + nom + "%");
     }
     
     /**
      * Trouve les aliments par plage de calories
      */
     public List<Aliment> findByCaloriesBetween(BigDecimal minCalories, BigDecimal maxCalories) {
-        String sql = "SELECT id, nom, description, calories_per_100g, allergies, image_url, categorie_id, created_at " +
-                    "FROM aliments WHERE calories_per_100g BETWEEN ? AND ? ORDER BY calories_per_100g";
+        String sql = SELECT_ALIMENTS +
+                    "WHERE a.calories_per_100g BETWEEN ? AND ? ORDER BY a.calories_per_100g";
         
-        return jdbcTemplate.query(sql, alimentRowMapper, minCalories, maxCalories);
+        return jdbcTemplate.query(sql, alimentRowMapper(), minCalories, maxCalories);
     }
     
     /**
-     * Trouve les aliments par allergie
+     * Trouve les aliments par allergie (masque binaire si l'allergie est connue du dictionnaire)
      */
     public List<Aliment> findByAllergiesContaining(String allergie) {
-        String sql = "SELECT id, nom, description, calories_per_100g, allergies, image_url, categorie_id, created_at " +
-                    "FROM aliments WHERE LOWER(allergies) LIKE LOWER(?) ORDER BY nom";
+        long masque = Allergene.masque(allergie);
+        if (masque != 0) {
+            return findByAllergenesMasque(masque);
+        }
+        
+        String sql = SELECT_ALIMENTS +
+                    "WHERE LOWER(a.allergies) LIKE LOWER(?) ORDER BY a.nom";
+        
+        return jdbcTemplate.query(sql, alimentRowMapper(), "%" + allergie + "%");
+    }
+    
+    /**
+     * Trouve les aliments contenant au moins un des allergènes du masque
+     */
+    public List<Aliment> findByAllergenesMasque(long masque) {
+        String sql = SELECT_ALIMENTS +
+                    "WHERE (a.allergenes_masque & ?) <> 0 ORDER BY a.nom";
         
-        return jdbcTemplate.query(sql, alimentRowMapper, "%" + allergie + "%");
+        return jdbcTemplate.query(sql, alimentRowMapper(), masque);
+    }
+    
+    /**
+     * Recalcule allergenes_masque depuis allergies partout où il diffère : colonne ajoutée
+     * à une base existante (0 partout), ou dictionnaire d'allergènes enrichi depuis.
+     * Retourne le nombre d'aliments corrigés.
+     */
+    public int recalculerMasquesAllergenes() {
+        List<Object[]> corrections = new ArrayList<>();
+        jdbcTemplate.query("SELECT id, allergies, allergenes_masque FROM aliments", (RowCallbackHandler) rs -> {
+            long masque = Allergene.masque(rs.getString("allergies"));
+            if (masque != rs.getLong("allergenes_masque")) {
+                corrections.add(new Object[]{masque, rs.getLong("id")});
+            }
+        });
+        jdbcTemplate.batchUpdate("UPDATE aliments SET allergenes_masque = ? WHERE id = ?", corrections);
+        return corrections.size();
     }
     
     /**
      * Trouve les aliments sans allergie
      */
     public List<Aliment> findSansAllergie() {
-        String sql = "SELECT id, nom, description, calories_per_100g, allergies, image_url, categorie_id, created_at " +
-                    "FROM aliments WHERE allergies = 'Aucune allergie connue' OR allergies IS NULL ORDER BY nom";
+        String sql = SELECT_ALIMENTS +
+                    "WHERE a.allergies = 'Aucune allergie connue' OR a.allergies IS NULL ORDER BY a.nom";
         
-        return jdbcTemplate.query(sql, alimentRowMapper);
+        return jdbcTemplate.query(sql, alimentRowMapper());
     }
     
     /**
@@ -205,10 +533,21 @@ public class AlimentJdbcRepository {
      * Trouve les aliments les plus caloriques
      */
     public List<Aliment> findTopCaloriques(int limit) {
-        String sql = "SELECT id, nom, description, calories_per_100g, allergies, image_url, categorie_id, created_at " +
-                    "FROM aliments WHERE calories_per_100g IS NOT NULL " +
-                    "ORDER BY calories_per_100g DESC LIMIT ?";
+        String sql = SELECT_ALIMENTS +
+                    "WHERE a.calories_per_100g IS NOT NULL " +
+                    "ORDER BY a.calories_per_100g DESC, a.id DESC LIMIT ?";
+        
+        return jdbcTemplate.query(sql, alimentRowMapper(), limit);
+    }
+    
+    /**
+     * Trouve les aliments les moins caloriques
+     */
+    public List<Aliment> findMoinsCaloriques(int limit) {
+        String sql = SELECT_ALIMENTS +
+                    "WHERE a.calories_per_100g IS NOT NULL " +
+                    "ORDER BY a.calories_per_100g ASC, a.id ASC LIMIT ?";
         
-        return jdbcTemplate.query(sql, alimentRowMapper, limit);
+        return jdbcTemplate.query(sql, alimentRowMapper(), limit);
     }
 } 
\ No newline at end of file
@@ -8,7 +8,7 @@ import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
 
 import java.sql.PreparedStatement;
-import java.sql.Statement;
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
@@ -23,7 +23,8 @@ public class CategorieJdbcRepository {
         categorie.setId(rs.getLong("id"));
         categorie.setNom(rs.getString("nom"));
         categorie.setDescription(rs.getString("description"));
-        categorie.setCreatedAt(rs.getTimestamp("created_at").toLocalDateTime());
+        Timestamp createdAt = rs.getTimestamp("created_at");
+        categorie.setCreatedAt(createdAt != null ? createdAt.toLocalDateTime() : null);
         return categorie;
     };
     
@@ -51,7 +52,7 @@ public class CategorieJdbcRepository {
         KeyHolder keyHolder = new GeneratedKeyHolder();
         
         jdbcTemplate.update(connection -> {
-            PreparedStatement ps = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+            PreparedStatement ps = connection.prepareStatement(sql, new String[]{"id"});
             ps.setString(1, categorie.getNom());
             ps.setString(2, categorie.getDescription());
             ps.setTimestamp(3, java.sql.Timestamp.valueOf(LocalDateTime.now()));
@@ -124,6 +125,24 @@ public class CategorieJdbcRepository {
         jdbcTemplate.update(sql, id);
     }
     
+    /**
+     * Supprime une catégorie issue du catalogue {@code source} si elle n'a plus d'aliment.
+     * Retourne vrai si elle a été supprimée.
+     */
+    public boolean supprimerDuCatalogueSiVide(String source, Long id) {
+        String sql = "DELETE FROM categories WHERE id = ? AND source_catalogue = ? " +
+                "AND NOT EXISTS (SELECT 1 FROM aliments a WHERE a.categorie_id = categories.id)";
+        return jdbcTemplate.update(sql, id, source) > 0;
+    }
+    
+    /**
+     * Rattache au catalogue {@code source} une catégorie existante encore sans origine
+     */
+    public void revendiquer(String source, Long id) {
+        jdbcTemplate.update("UPDATE categories SET source_catalogue = ? WHERE id = ? AND source_catalogue IS NULL",
+                source, id);
+    }
+    
     /**
      * Compte le nombre total de catégories
      */
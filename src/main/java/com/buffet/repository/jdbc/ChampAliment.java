@@ -0,0 +1,134 @@
+package com.buffet.repository.jdbc;
+
+import com.buffet.model.Aliment;
+import com.buffet.model.Categorie;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Champs d'un aliment sélectionnables avec {@code fields=}, avec leurs colonnes SQL
+ * et leur nom JSON (identique à la sérialisation de {@link com.buffet.model.Aliment}).
+ * {@code categorie}, que la sérialisation de Aliment omet, n'est renvoyé que s'il est
+ * demandé : il ajoute l'id et le nom de la catégorie, lus par jointure.
+ */
+public enum ChampAliment {
+    ID("id", "a.id"),
+    NOM("nom", "a.nom"),
+    DESCRIPTION("description", "a.description"),
+    CALORIES_PER_100G("caloriesPer100g", "a.calories_per_100g"),
+    ALLERGIES("allergies", "a.allergies"),
+    IMAGE_URL("imageUrl", "a.image_url"),
+    CREATED_AT("createdAt", "a.created_at"),
+    CATEGORIE("categorie", "c.id", "c.nom");
+
+    private final String nomJson;
+    private final String[] colonnes;
+
+    ChampAliment(String nomJson, String... colonnes) {
+        this.nomJson = nomJson;
+        this.colonnes = colonnes;
+    }
+
+    public String getNomJson() {
+        return nomJson;
+    }
+
+    boolean isJointureCategorie() {
+        return this == CATEGORIE;
+    }
+
+    /**
+     * Colonnes du champ avec leurs alias dans le résultat, pour la clause SELECT
+     */
+    String getSelection() {
+        StringBuilder selection = new StringBuilder();
+        for (int i = 0; i < colonnes.length; i++) {
+            if (i > 0) {
+                selection.append(", ");
+            }
+            selection.append(colonnes[i]).append(" AS ").append(getAlias(i));
+        }
+        return selection.toString();
+    }
+
+    private String getAlias(int colonne) {
+        return "f_" + name().toLowerCase() + (colonne > 0 ? "_" + colonne : "");
+    }
+
+    Object lire(ResultSet rs) throws SQLException {
+        return switch (this) {
+            case ID -> rs.getLong(getAlias(0));
+            case CALORIES_PER_100G -> rs.getBigDecimal(getAlias(0));
+            case CREATED_AT -> {
+                Timestamp createdAt = rs.getTimestamp(getAlias(0));
+                yield createdAt != null ? createdAt.toLocalDateTime() : null;
+            }
+            case CATEGORIE -> {
+                Map<String, Object> categorie = new LinkedHashMap<>();
+                categorie.put("id", rs.getLong(getAlias(0)));
+                categorie.put("nom", rs.getString(getAlias(1)));
+                yield categorie;
+            }
+            default -> rs.getString(getAlias(0));
+        };
+    }
+
+    /**
+     * Valeur du champ pour un aliment déjà en mémoire (index de recherche), sous la
+     * même forme que {@link #lire(ResultSet)}
+     */
+    public Object lire(Aliment aliment) {
+        return switch (this) {
+            case ID -> aliment.getId();
+            case NOM -> aliment.getNom();
+            case DESCRIPTION -> aliment.getDescription();
+            case CALORIES_PER_100G -> aliment.getCaloriesPer100g();
+            case ALLERGIES -> aliment.getAllergies();
+            case IMAGE_URL -> aliment.getImageUrl();
+            case CREATED_AT -> aliment.getCreatedAt();
+            case CATEGORIE -> {
+                Categorie source = aliment.getCategorie();
+                if (source == null) {
+                    yield null;
+                }
+                Map<String, Object> categorie = new LinkedHashMap<>();
+                categorie.put("id", source.getId());
+                categorie.put("nom", source.getNom());
+                yield categorie;
+            }
+        };
+    }
+
+    /**
+     * Lit une liste de noms JSON séparés par des virgules ; vide ou absente : les champs
+     * de la sérialisation de Aliment, comme la même liste sans pagination
+     */
+    public static Set<ChampAliment> depuis(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return parDefaut();
+        }
+        Set<ChampAliment> champs = EnumSet.noneOf(ChampAliment.class);
+        for (String nom : fields.split(",")) {
+            String nomNettoye = nom.trim();
+            if (nomNettoye.isEmpty()) {
+                continue;
+            }
+            champs.add(Arrays.stream(values())
+                    .filter(champ -> champ.nomJson.equals(nomNettoye))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException("Champ inconnu : " + nomNettoye)));
+        }
+        return champs.isEmpty() ? parDefaut() : champs;
+    }
+
+    private static Set<ChampAliment> parDefaut() {
+        return EnumSet.complementOf(EnumSet.of(CATEGORIE));
+    }
+}
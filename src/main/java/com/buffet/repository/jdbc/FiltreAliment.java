@@ -0,0 +1,62 @@
+package com.buffet.repository.jdbc;
+
+import com.buffet.model.Allergene;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Condition SQL d'une liste d'aliments paginée, avec ses paramètres
+ */
+public final class FiltreAliment {
+
+    private final String condition;
+    private final List<Object> parametres;
+    private final boolean jointureCategorie;
+
+    private FiltreAliment(String condition, List<Object> parametres, boolean jointureCategorie) {
+        this.condition = condition;
+        this.parametres = parametres;
+        this.jointureCategorie = jointureCategorie;
+    }
+
+    public static FiltreAliment aucun() {
+        return new FiltreAliment(null, List.of(), false);
+    }
+
+    public static FiltreAliment categorieNom(String categorieNom) {
+        return new FiltreAliment("c.nom = ?", List.of(categorieNom), true);
+    }
+
+    public static FiltreAliment calories(BigDecimal minCalories, BigDecimal maxCalories) {
+        return new FiltreAliment("a.calories_per_100g BETWEEN ? AND ?", List.of(minCalories, maxCalories), false);
+    }
+
+    /**
+     * Aliments contenant l'allergie : par le masque d'allergènes si le terme est
+     * dans le dictionnaire {@link Allergene}, par recherche textuelle sinon
+     */
+    public static FiltreAliment allergie(String allergie) {
+        long masque = Allergene.masque(allergie);
+        if (masque != 0) {
+            return new FiltreAliment("(a.allergenes_masque & ?) <> 0", List.of(masque), false);
+        }
+        return new FiltreAliment("LOWER(a.allergies) LIKE ?", List.of("%" + allergie.toLowerCase() + "%"), false);
+    }
+
+    public static FiltreAliment sansAllergie(String aucuneAllergie) {
+        return new FiltreAliment("(a.allergies = ? OR a.allergies IS NULL)", List.of(aucuneAllergie), false);
+    }
+
+    String getCondition() {
+        return condition;
+    }
+
+    List<Object> getParametres() {
+        return parametres;
+    }
+
+    boolean isJointureCategorie() {
+        return jointureCategorie;
+    }
+}
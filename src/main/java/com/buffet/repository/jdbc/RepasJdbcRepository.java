@@ -0,0 +1,117 @@
+package com.buffet.repository.jdbc;
+
+import com.buffet.model.Aliment;
+import com.buffet.model.Repas;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+@Repository
+public class RepasJdbcRepository {
+
+    /**
+     * Nombre de lignes envoyées par lot JDBC
+     */
+    static final int TAILLE_LOT = 500;
+
+    private static final String INSERT_REPAS =
+            "INSERT INTO repas (nom, description, date_repas, type_repas, nombre_personnes, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_REPAS_ALIMENT =
+            "INSERT INTO repas_aliments (repas_id, aliment_id, quantite_grammes) VALUES (?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public RepasJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Insère des repas et leurs aliments par lots : un lot JDBC pour les repas
+     * (identifiants récupérés en retour), puis un lot pour repas_aliments.
+     * Un aliment présent plusieurs fois dans un repas n'a qu'une ligne, avec
+     * la somme des quantités.
+     *
+     * @param quantiteParAliment quantité en grammes de chaque aliment du repas
+     */
+    public List<Repas> insertAll(List<Repas> repas, Function<Repas, BigDecimal> quantiteParAliment) {
+        if (repas.isEmpty()) {
+            return repas;
+        }
+
+        insererRepas(repas);
+
+        List<Object[]> lignes = new ArrayList<>();
+        for (Repas r : repas) {
+            BigDecimal quantite = quantiteParAliment.apply(r);
+            Map<Long, BigDecimal> quantites = new LinkedHashMap<>();
+            for (Aliment aliment : r.getAliments()) {
+                quantites.merge(aliment.getId(), quantite, BigDecimal::add);
+            }
+            quantites.forEach((alimentId, grammes) -> lignes.add(new Object[]{r.getId(), alimentId, grammes}));
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_REPAS_ALIMENT, lignes, TAILLE_LOT, (ps, ligne) -> {
+            ps.setLong(1, (Long) ligne[0]);
+            ps.setLong(2, (Long) ligne[1]);
+            ps.setBigDecimal(3, (BigDecimal) ligne[2]);
+        });
+
+        return repas;
+    }
+
+    /**
+     * Insère les repas par lots et leur affecte les identifiants générés
+     */
+    private void insererRepas(List<Repas> repas) {
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(INSERT_REPAS, new String[]{"id"})) {
+                for (int debut = 0; debut < repas.size(); debut += TAILLE_LOT) {
+                    List<Repas> lot = repas.subList(debut, Math.min(debut + TAILLE_LOT, repas.size()));
+                    for (Repas r : lot) {
+                        if (r.getCreatedAt() == null) {
+                            r.setCreatedAt(LocalDateTime.now());
+                        }
+                        ps.setString(1, r.getNom());
+                        ps.setString(2, r.getDescription());
+                        ps.setDate(3, Date.valueOf(r.getDateRepas()));
+                        ps.setString(4, r.getTypeRepas().name());
+                        if (r.getNombrePersonnes() != null) {
+                            ps.setInt(5, r.getNombrePersonnes());
+                        } else {
+                            ps.setNull(5, Types.INTEGER);
+                        }
+                        ps.setTimestamp(6, Timestamp.valueOf(r.getCreatedAt()));
+                        ps.addBatch();
+                    }
+                    ps.executeBatch();
+
+                    // Les clés générées arrivent dans l'ordre du lot
+                    try (ResultSet cles = ps.getGeneratedKeys()) {
+                        for (Repas r : lot) {
+                            if (!cles.next()) {
+                                throw new IllegalStateException("Identifiant manquant pour le repas " + r.getNom());
+                            }
+                            r.setId(cles.getLong(1));
+                        }
+                    }
+                }
+            }
+            return null;
+        });
+    }
+}
@@ -0,0 +1,47 @@
+package com.buffet.repository.jdbc;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * État des synchronisations de catalogue (table catalogue_sync)
+ */
+@Repository
+public class SynchronisationJdbcRepository {
+
+    /**
+     * Empreinte d'une source jamais synchronisée
+     */
+    public static final String AUCUNE_EMPREINTE = "";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public SynchronisationJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Verrouille la ligne de la source jusqu'à la fin de la transaction et renvoie
+     * l'empreinte de sa dernière synchronisation ({@link #AUCUNE_EMPREINTE} s'il n'y
+     * en a pas eu). Deux nœuds qui démarrent ensemble synchronisent donc l'un après
+     * l'autre, et le second trouve l'empreinte déjà à jour.
+     */
+    public String verrouillerEmpreinte(String source) {
+        // Une erreur de clé dupliquée annulerait la transaction sous PostgreSQL
+        jdbcTemplate.update("INSERT INTO catalogue_sync (source, empreinte) VALUES (?, ?) ON CONFLICT DO NOTHING",
+                source, AUCUNE_EMPREINTE);
+        return jdbcTemplate.queryForObject(
+                "SELECT empreinte FROM catalogue_sync WHERE source = ? FOR UPDATE", String.class, source);
+    }
+
+    /**
+     * Enregistre l'empreinte de la synchronisation en cours
+     */
+    public void enregistrerEmpreinte(String source, String empreinte) {
+        jdbcTemplate.update("UPDATE catalogue_sync SET empreinte = ?, synchronise_le = ? WHERE source = ?",
+                empreinte, Timestamp.valueOf(LocalDateTime.now()), source);
+    }
+}
@@ -0,0 +1,82 @@
+package com.buffet.repository.jdbc;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Base64;
+
+/**
+ * Ordres de pagination par clé (keyset) : chaque page reprend strictement
+ * après la clé (valeur, id) de la dernière ligne de la page précédente,
+ * via un index sur ces deux colonnes.
+ */
+public enum TriAliment {
+    NOM("a.nom", false),
+    CALORIES_CROISSANTES("a.calories_per_100g", false),
+    CALORIES_DECROISSANTES("a.calories_per_100g", true);
+
+    private static final char SEPARATEUR = '\u001F';
+
+    private final String colonne;
+    private final boolean decroissant;
+
+    TriAliment(String colonne, boolean decroissant) {
+        this.colonne = colonne;
+        this.decroissant = decroissant;
+    }
+
+    String getColonne() {
+        return colonne;
+    }
+
+    /**
+     * Condition de reprise après une clé, sous forme de comparaison de lignes
+     */
+    String conditionApres() {
+        return "(" + colonne + ", a.id) " + (decroissant ? "<" : ">") + " (?, ?)";
+    }
+
+    String orderBy() {
+        String sens = decroissant ? " DESC" : " ASC";
+        return "ORDER BY " + colonne + sens + ", a.id" + sens;
+    }
+
+    /**
+     * Les aliments sans calories n'ont pas de place dans un classement par calories
+     */
+    String conditionCle() {
+        return this == NOM ? null : colonne + " IS NOT NULL";
+    }
+
+    /**
+     * Valeur de la clé de tri de la ligne courante (colonne cle_valeur)
+     */
+    Object lireCle(ResultSet rs) throws SQLException {
+        return this == NOM ? rs.getString("cle_valeur") : rs.getBigDecimal("cle_valeur");
+    }
+
+    /**
+     * Curseur opaque désignant la ligne de clé (valeur, id)
+     */
+    String curseur(Object valeur, long id) {
+        String texte = valeur instanceof BigDecimal nombre ? nombre.toPlainString() : (String) valeur;
+        String cle = texte + SEPARATEUR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(cle.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Valeurs (valeur, id) d'un curseur produit par {@link #curseur}
+     */
+    Object[] lireCurseur(String curseur) {
+        try {
+            String cle = new String(Base64.getUrlDecoder().decode(curseur), StandardCharsets.UTF_8);
+            int separateur = cle.lastIndexOf(SEPARATEUR);
+            String valeur = cle.substring(0, separateur);
+            long id = Long.parseLong(cle.substring(separateur + 1));
+            return new Object[]{this == NOM ? valeur : new BigDecimal(valeur), id};
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Curseur de pagination invalide : " + curseur);
+        }
+    }
+}
@@ -1,31 +1,63 @@
 package com.buffet.service;
 
+import com.buffet.catalogue.CatalogueCache;
+import com.buffet.catalogue.CatalogueSnapshot;
+import com.buffet.catalogue.IndexRecherche;
+import com.buffet.dto.PageAliments;
+import com.buffet.dto.PaginationRequest;
 import com.buffet.model.Aliment;
+import com.buffet.model.Allergene;
 import com.buffet.model.Categorie;
 import com.buffet.repository.AlimentRepository;
+import com.buffet.repository.jdbc.AlimentJdbcRepository;
+import com.buffet.repository.jdbc.ChampAliment;
+import com.buffet.repository.jdbc.FiltreAliment;
+import com.buffet.repository.jdbc.TriAliment;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
 @Service
+@Timed("buffet.service")
 @Transactional
 public class AlimentService {
     
     private final AlimentRepository alimentRepository;
+    private final AlimentJdbcRepository alimentJdbcRepository;
     private final CategorieService categorieService;
+    private final CatalogueCache catalogueCache;
+    private final IndexRecherche indexRecherche;
     
-    public AlimentService(AlimentRepository alimentRepository, CategorieService categorieService) {
+    public AlimentService(AlimentRepository alimentRepository, AlimentJdbcRepository alimentJdbcRepository,
+                          CategorieService categorieService, CatalogueCache catalogueCache,
+                          IndexRecherche indexRecherche) {
         this.alimentRepository = alimentRepository;
+        this.alimentJdbcRepository = alimentJdbcRepository;
         this.categorieService = categorieService;
+        this.catalogueCache = catalogueCache;
+        this.indexRecherche = indexRecherche;
     }
     
     /**
      * Sauvegarde un aliment
      */
     public Aliment save(Aliment aliment) {
-        return alimentRepository.save(aliment);
+        catalogueCache.invalider();
+        Aliment saved = alimentRepository.save(aliment);
+        indexRecherche.indexer(saved);
+        return saved;
     }
     
     /**
@@ -45,19 +77,66 @@ public class AlimentService {
     }
     
     /**
-     * Trouve tous les aliments
+     * Trouve tous les aliments : dans le snapshot s'il est à jour, sinon en base
      */
     @Transactional(readOnly = true)
     public List<Aliment> findAll() {
-        return alimentRepository.findAll();
+        return catalogueCache.getSnapshotSiAJour()
+                .map(CatalogueSnapshot::getAliments)
+                .orElseGet(alimentRepository::findAll);
     }
     
     /**
-     * Trouve tous les aliments avec leur catégorie
+     * Validateurs HTTP (ETag, Last-Modified) du catalogue, pour les GET conditionnels
      */
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public CatalogueCache.Validateurs getValidateurs() {
+        return catalogueCache.getValidateurs();
+    }
+    
+    /**
+     * Trouve un aliment par ID dans le snapshot courant, construit depuis la base primaire
+     * (et non depuis un réplica en retard) : corps et ETag viennent de la même instance
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Optional<Aliment> findByIdDansCatalogue(Long id) {
+        return catalogueCache.getSnapshot().findAlimentById(id);
+    }
+    
+    /**
+     * Validateurs HTTP d'un aliment du catalogue
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public CatalogueCache.Validateurs getValidateurs(Aliment aliment) {
+        return catalogueCache.getValidateurs(aliment);
+    }
+    
+    /**
+     * Trouve tous les aliments avec leur catégorie : dans le snapshot s'il est à jour, sinon en base
+     * (le repository ouvre alors sa propre transaction en lecture seule)
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public List<Aliment> findAllWithCategorie() {
-        return alimentRepository.findAllWithCategorie();
+        return catalogueCache.getSnapshotSiAJour()
+                .map(CatalogueSnapshot::getAliments)
+                .orElseGet(alimentRepository::findAllWithCategorie);
+    }
+    
+    /**
+     * Transmet un à un les aliments d'ID supérieur à apresId, par ID croissant
+     */
+    @Transactional(readOnly = true)
+    public void exporter(long apresId, Consumer<Aliment> consommateur) {
+        alimentJdbcRepository.parcourirDepuis(apresId, consommateur);
+    }
+    
+    /**
+     * Trouve une page d'aliments, réduits aux champs demandés
+     */
+    @Transactional(readOnly = true)
+    public PageAliments findPage(FiltreAliment filtre, TriAliment tri, PaginationRequest pagination) {
+        return alimentJdbcRepository.findPage(filtre, tri, pagination.getApres(),
+                pagination.getTailleOuDefaut(), ChampAliment.depuis(pagination.getFields()));
     }
     
     /**
@@ -84,6 +163,57 @@ public class AlimentService {
         return alimentRepository.findByNomContainingIgnoreCase(nom);
     }
     
+    /**
+     * Recherche les aliments par nom dans l'index de trigrammes, les meilleures correspondances d'abord.
+     * Sans transaction : l'index est en mémoire, et se construit depuis le snapshot du catalogue
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<Aliment> rechercher(String nom, int limite) {
+        return indexRecherche.rechercher(nom, limite);
+    }
+    
+    /**
+     * Page des résultats classés de l'index de recherche, réduits aux champs demandés.
+     * Le classement n'a pas de clé stable : le curseur porte le rang du premier résultat
+     * de la page suivante, et une écriture entre deux pages peut décaler les résultats.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public PageAliments rechercherPage(String nom, PaginationRequest pagination) {
+        int debut = pagination.getApres() != null ? lireRang(pagination.getApres()) : 0;
+        long fin = (long) debut + pagination.getTailleOuDefaut();
+        Set<ChampAliment> champs = ChampAliment.depuis(pagination.getFields());
+        
+        // Un résultat de plus que la page : il signale la page suivante
+        List<Aliment> resultats = indexRecherche.rechercher(nom, (int) Math.min(fin + 1, Integer.MAX_VALUE));
+        List<Map<String, Object>> aliments = new ArrayList<>();
+        for (int i = debut; i < Math.min(fin, resultats.size()); i++) {
+            Map<String, Object> aliment = new LinkedHashMap<>();
+            for (ChampAliment champ : champs) {
+                aliment.put(champ.getNomJson(), champ.lire(resultats.get(i)));
+            }
+            aliments.add(aliment);
+        }
+        String suivant = resultats.size() > fin ? curseurRang((int) fin) : null;
+        return new PageAliments(aliments, suivant);
+    }
+    
+    private static String curseurRang(int rang) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(Integer.toString(rang).getBytes(StandardCharsets.UTF_8));
+    }
+    
+    private static int lireRang(String curseur) {
+        try {
+            int rang = Integer.parseInt(new String(Base64.getUrlDecoder().decode(curseur), StandardCharsets.UTF_8));
+            if (rang < 0) {
+                throw new IllegalArgumentException();
+            }
+            return rang;
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Curseur de pagination invalide : " + curseur);
+        }
+    }
+    
     /**
      * Trouve les aliments par plage de calories
      */
@@ -97,6 +227,11 @@ public class AlimentService {
      */
     @Transactional(readOnly = true)
     public List<Aliment> findByAllergiesContaining(String allergie) {
+        long masque = Allergene.masque(allergie);
+        if (masque != 0) {
+            return catalogueCache.getSnapshot().getAllergenes().avecUnDes(masque);
+        }
+        // Terme hors dictionnaire : recherche textuelle
         return alimentRepository.findByAllergiesContainingIgnoreCase(allergie);
     }
     
@@ -116,6 +251,17 @@ public class AlimentService {
         return alimentRepository.findTopCaloriques();
     }
     
+    /**
+     * Trouve les k aliments les plus caloriques : dans le snapshot s'il est à jour, sinon avec un LIMIT en base
+     * (le repository ouvre alors sa propre transaction en lecture seule)
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<Aliment> findTopCaloriques(int k) {
+        return catalogueCache.getSnapshotSiAJour()
+                .map(catalogue -> catalogue.premiersParCalories(k, true))
+                .orElseGet(() -> alimentRepository.findTopCaloriques(PageRequest.ofSize(k)));
+    }
+    
     /**
      * Trouve les aliments les moins caloriques
      */
@@ -124,11 +270,26 @@ public class AlimentService {
         return alimentRepository.findMoinsCaloriques();
     }
     
+    /**
+     * Trouve les k aliments les moins caloriques : dans le snapshot s'il est à jour, sinon avec un LIMIT en base
+     * (le repository ouvre alors sa propre transaction en lecture seule)
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<Aliment> findMoinsCaloriques(int k) {
+        return catalogueCache.getSnapshotSiAJour()
+                .map(catalogue -> catalogue.premiersParCalories(k, false))
+                .orElseGet(() -> alimentRepository.findMoinsCaloriques(PageRequest.ofSize(k)));
+    }
+    
     /**
      * Trouve les aliments par allergie spécifique
      */
     @Transactional(readOnly = true)
     public List<Aliment> findByAllergieSpecifique(String allergie) {
+        long masque = Allergene.masque(allergie);
+        if (masque != 0) {
+            return catalogueCache.getSnapshot().getAllergenes().avecUnDes(masque);
+        }
         return alimentRepository.findByAllergieSpecifique(allergie);
     }
     
@@ -136,6 +297,8 @@ public class AlimentService {
      * Supprime un aliment par ID
      */
     public void deleteById(Long id) {
+        catalogueCache.invalider();
+        indexRecherche.retirer(id);
         alimentRepository.deleteById(id);
     }
     
@@ -1,164 +1,171 @@
 package com.buffet.service;
 
+import com.buffet.catalogue.CatalogueCache;
+import com.buffet.catalogue.CatalogueSnapshot;
+import com.buffet.dto.BuffetRequest;
 import com.buffet.dto.BuffetResponse;
+import com.buffet.dto.OptimisationRequest;
+import com.buffet.dto.OptimisationResponse;
 import com.buffet.model.Aliment;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
-import java.util.ArrayList;
+import java.time.Duration;
+import java.util.HashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
 
+/**
+ * Calculs de buffet ({@link CalculsBuffet}) sur le snapshot courant du catalogue :
+ * aucune requête SQL n'est émise tant que le catalogue n'a pas changé.
+ *
+ * Les préréglages (recommandations, buffets économique et équilibré) ne dépendent
+ * que du catalogue et du nombre d'invités : ils sont mis en cache sous le snapshot
+ * qui les a produits, avec le palier d'invités pour les recommandations. Les caches
+ * sont vidés à chaque reconstruction du snapshot.
+ */
 @Service
-@Transactional
+@Timed("buffet.service")
 public class BuffetService {
     
-    private final AlimentService alimentService;
+    static final String CACHE_RECOMMANDATIONS = "buffet-recommandations";
+    static final String CACHE_ECONOMIQUES = "buffet-economiques";
+    static final String CACHE_EQUILIBRES = "buffet-equilibres";
     
-    // Constantes pour les calculs de buffet
-    private static final double GRAMMES_PAR_PERSONNE = 150.0; // 150g par personne par aliment
-    private static final double FACTEUR_VARIETE = 1.2; // 20% de plus pour la variété
+    private static final int SEUIL_CALCUL_PARALLELE = 64; // scénarios au-delà desquels un lot est parallélisé
     
-    public BuffetService(AlimentService alimentService) {
-        this.alimentService = alimentService;
+    /**
+     * Clé d'un préréglage : snapshot du catalogue (comparé par identité) et nombre
+     * d'invités (ou palier). Un calcul fait sur un snapshot remplacé et rangé après
+     * le vidage du cache ne peut pas être servi pour le nouveau.
+     */
+    record ClePreset(CatalogueSnapshot catalogue, int invites) {}
+    
+    private final CatalogueCache catalogueCache;
+    private final Cache recommandations;
+    private final Cache economiques;
+    private final Cache equilibres;
+    private final Duration budgetOptimisation;
+    private final Duration budgetOptimisationMax;
+    
+    public BuffetService(CatalogueCache catalogueCache, CacheManager cacheManager,
+                         @Value("${buffet.optimiseur.budget:50ms}") Duration budgetOptimisation,
+                         @Value("${buffet.optimiseur.budget-max:1s}") Duration budgetOptimisationMax) {
+        this.catalogueCache = catalogueCache;
+        this.budgetOptimisation = budgetOptimisation;
+        this.budgetOptimisationMax = budgetOptimisationMax;
+        this.recommandations = cache(cacheManager, CACHE_RECOMMANDATIONS);
+        this.economiques = cache(cacheManager, CACHE_ECONOMIQUES);
+        this.equilibres = cache(cacheManager, CACHE_EQUILIBRES);
+        catalogueCache.ecouterReconstructions(this::invaliderPresets);
     }
     
     /**
      * Calcule un buffet basé sur le nombre d'invités et les aliments sélectionnés
      */
     public BuffetResponse calculerBuffet(Integer nombreInvites, List<Long> alimentIds) {
-        List<Aliment> aliments = alimentService.findByIds(alimentIds);
-        
-        if (aliments.isEmpty()) {
-            throw new IllegalArgumentException("Aucun aliment trouvé avec les IDs fournis");
-        }
+        return CalculsBuffet.calculerBuffet(catalogueCache.getSnapshot(), nombreInvites, alimentIds);
+    }
+    
+    /**
+     * Calcule un même menu pour plusieurs nombres d'invités.
+     * Les aliments sont résolus une seule fois pour tous les scénarios.
+     */
+    public List<BuffetResponse> calculerBuffets(List<Long> alimentIds, List<Integer> nombresInvites) {
+        CatalogueSnapshot catalogue = catalogueCache.getSnapshot();
+        int[] indices = CalculsBuffet.resoudreAliments(catalogue, alimentIds);
+        String allergies = CalculsBuffet.allergiesPresentes(catalogue, indices);
         
-        List<BuffetResponse.AlimentBuffet> alimentsBuffet = new ArrayList<>();
-        double caloriesTotales = 0;
-        List<String> allergiesList = new ArrayList<>();
+        return evaluer(nombresInvites.size(),
+                i -> CalculsBuffet.construireBuffet(catalogue, indices, allergies, nombresInvites.get(i)));
+    }
+    
+    /**
+     * Calcule plusieurs buffets indépendants sur une même version du catalogue
+     */
+    public List<BuffetResponse> calculerBuffets(List<BuffetRequest> demandes) {
+        CatalogueSnapshot catalogue = catalogueCache.getSnapshot();
         
-        for (Aliment aliment : aliments) {
-            // Calculer la quantité nécessaire
-            double quantiteKg = calculerQuantite(nombreInvites);
-            
-            // Calculer les calories
-            double calories = 0;
-            if (aliment.getCaloriesPer100g() != null) {
-                BigDecimal caloriesBigDecimal = aliment.getCaloriesPer100g()
-                    .multiply(BigDecimal.valueOf(quantiteKg))
-                    .multiply(BigDecimal.TEN); // *10 car calories_per_100g
-                calories = caloriesBigDecimal.doubleValue();
-            }
-            
-            // Collecter les allergies
-            if (aliment.getAllergies() != null && !aliment.getAllergies().equals("Aucune allergie connue")) {
-                allergiesList.add(aliment.getAllergies());
-            }
-            
-            // Créer l'aliment du buffet
-            BuffetResponse.AlimentBuffet alimentBuffet = new BuffetResponse.AlimentBuffet(
-                    aliment.getId(),
-                    aliment.getNom(),
-                    aliment.getCategorie().getNom(),
-                    quantiteKg,
-                    calories,
-                    aliment.getAllergies()
-            );
-            
-            alimentsBuffet.add(alimentBuffet);
-            
-            // Accumuler les calories totales
-            caloriesTotales += calories;
+        // Les demandes portant sur le même menu partagent la résolution des aliments
+        Map<List<Long>, int[]> indicesParMenu = new HashMap<>();
+        Map<List<Long>, String> allergiesParMenu = new HashMap<>();
+        for (BuffetRequest demande : demandes) {
+            indicesParMenu.computeIfAbsent(demande.getAliments(), ids -> {
+                int[] indices = CalculsBuffet.resoudreAliments(catalogue, ids);
+                allergiesParMenu.put(ids, CalculsBuffet.allergiesPresentes(catalogue, indices));
+                return indices;
+            });
         }
         
-        // Créer la liste des allergies présentes
-        String allergiesPresentes = allergiesList.isEmpty() ? 
-            "Aucune allergie détectée" : 
-            String.join("; ", allergiesList.stream().distinct().collect(Collectors.toList()));
-        
-        return new BuffetResponse(
-                nombreInvites,
-                alimentsBuffet,
-                caloriesTotales,
-                allergiesPresentes
-        );
+        return evaluer(demandes.size(), i -> {
+            BuffetRequest demande = demandes.get(i);
+            return CalculsBuffet.construireBuffet(catalogue,
+                    indicesParMenu.get(demande.getAliments()),
+                    allergiesParMenu.get(demande.getAliments()),
+                    demande.getInvites());
+        });
     }
     
     /**
-     * Calcule la quantité nécessaire par aliment
+     * Évalue les scénarios dans l'ordre, en parallèle au-delà d'un certain volume
      */
-    private double calculerQuantite(Integer nombreInvites) {
-        return (GRAMMES_PAR_PERSONNE * nombreInvites * FACTEUR_VARIETE) / 1000.0; // Conversion en kg
+    private List<BuffetResponse> evaluer(int nombreScenarios, IntFunction<BuffetResponse> scenario) {
+        IntStream positions = IntStream.range(0, nombreScenarios);
+        if (nombreScenarios >= SEUIL_CALCUL_PARALLELE) {
+            positions = positions.parallel();
+        }
+        return positions.mapToObj(scenario).toList();
     }
     
     /**
      * Génère des recommandations de buffet basées sur le nombre d'invités
      */
     public List<Aliment> genererRecommandationsBuffet(Integer nombreInvites) {
-        List<Aliment> recommandations = new ArrayList<>();
-        
-        // Logique de recommandation basée sur le nombre d'invités
-        if (nombreInvites <= 10) {
-            // Petit buffet : 3-4 aliments variés
-            recommandations.addAll(alimentService.findByCategorieNom("Viandes").stream().limit(1).toList());
-            recommandations.addAll(alimentService.findByCategorieNom("Légumes").stream().limit(2).toList());
-            recommandations.addAll(alimentService.findByCategorieNom("Fruits").stream().limit(1).toList());
-        } else if (nombreInvites <= 30) {
-            // Buffet moyen : 5-6 aliments
-            recommandations.addAll(alimentService.findByCategorieNom("Viandes").stream().limit(2).toList());
-            recommandations.addAll(alimentService.findByCategorieNom("Poissons").stream().limit(1).toList());
-            recommandations.addAll(alimentService.findByCategorieNom("Légumes").stream().limit(2).toList());
-            recommandations.addAll(alimentService.findByCategorieNom("Fruits").stream().limit(1).toList());
-        } else {
-            // Grand buffet : 7-8 aliments
-            recommandations.addAll(alimentService.findByCategorieNom("Viandes").stream().limit(2).toList());
-            recommandations.addAll(alimentService.findByCategorieNom("Poissons").stream().limit(1).toList());
-            recommandations.addAll(alimentService.findByCategorieNom("Légumes").stream().limit(3).toList());
-            recommandations.addAll(alimentService.findByCategorieNom("Fruits").stream().limit(1).toList());
-            recommandations.addAll(alimentService.findByCategorieNom("Céréales").stream().limit(1).toList());
-        }
-        
-        return recommandations;
+        CatalogueSnapshot catalogue = catalogueCache.getSnapshot();
+        return enCache(recommandations, new ClePreset(catalogue, CalculsBuffet.palier(nombreInvites)),
+                () -> CalculsBuffet.recommandations(catalogue, nombreInvites));
     }
     
     /**
      * Calcule un buffet économique (moins calorique)
      */
     public BuffetResponse calculerBuffetEconomique(Integer nombreInvites) {
-        List<Aliment> alimentsEconomiques = alimentService.findMoinsCaloriques();
-        List<Long> alimentIds = alimentsEconomiques.stream()
-                .limit(5) // Limiter à 5 aliments pour l'économie
-                .map(Aliment::getId)
-                .toList();
-        
-        return calculerBuffet(nombreInvites, alimentIds);
+        CatalogueSnapshot catalogue = catalogueCache.getSnapshot();
+        return enCache(economiques, new ClePreset(catalogue, nombreInvites),
+                () -> CalculsBuffet.buffetEconomique(catalogue, nombreInvites));
     }
     
     /**
      * Calcule un buffet équilibré (sans allergie)
      */
     public BuffetResponse calculerBuffetEquilibre(Integer nombreInvites) {
-        List<Aliment> alimentsEquilibres = alimentService.findSansAllergie();
-        List<Long> alimentIds = alimentsEquilibres.stream()
-                .limit(6) // Limiter à 6 aliments équilibrés
-                .map(Aliment::getId)
-                .toList();
-        
-        return calculerBuffet(nombreInvites, alimentIds);
+        CatalogueSnapshot catalogue = catalogueCache.getSnapshot();
+        return enCache(equilibres, new ClePreset(catalogue, nombreInvites),
+                () -> CalculsBuffet.buffetEquilibre(catalogue, nombreInvites));
     }
     
     /**
      * Calcule un buffet sans allergie spécifique
      */
     public BuffetResponse calculerBuffetSansAllergie(Integer nombreInvites, String allergie) {
-        List<Aliment> alimentsSansAllergie = alimentService.findSansAllergie();
-        List<Long> alimentIds = alimentsSansAllergie.stream()
-                .limit(5)
-                .map(Aliment::getId)
-                .toList();
-        
-        return calculerBuffet(nombreInvites, alimentIds);
+        return CalculsBuffet.buffetSansAllergie(catalogueCache.getSnapshot(), nombreInvites, allergie);
+    }
+    
+    /**
+     * Cherche dans tout le catalogue le buffet qui respecte les contraintes de la
+     * demande ; le budget de recherche demandé est plafonné à buffet.optimiseur.budget-max
+     */
+    public OptimisationResponse optimiserBuffet(OptimisationRequest demande) {
+        Duration budget = demande.getBudgetMs() == null ? budgetOptimisation
+                : Duration.ofMillis(Math.min(demande.getBudgetMs(), budgetOptimisationMax.toMillis()));
+        return OptimiseurBuffet.optimiser(catalogueCache.getSnapshot(), demande, budget);
     }
     
     /**
@@ -171,4 +178,29 @@ public class BuffetService {
         
         return buffetResponse.getCaloriesTotales() / buffetResponse.getNombreInvites();
     }
-} 
\ No newline at end of file
+    
+    private static Cache cache(CacheManager cacheManager, String nom) {
+        return Objects.requireNonNull(cacheManager.getCache(nom), () -> "Cache non configuré : " + nom);
+    }
+    
+    private static <T> T enCache(Cache cache, ClePreset cle, Supplier<T> calcul) {
+        try {
+            return cache.get(cle, calcul::get);
+        } catch (Cache.ValueRetrievalException e) {
+            // Les erreurs de la demande (IllegalArgumentException...) restent des 400
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+    
+    /**
+     * Retire les préréglages des snapshots antérieurs
+     */
+    private void invaliderPresets(CatalogueSnapshot nouveau) {
+        for (Cache cache : List.of(recommandations, economiques, equilibres)) {
+            cache.clear();
+        }
+    }
+}
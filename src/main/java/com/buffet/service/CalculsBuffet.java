@@ -0,0 +1,194 @@
+package com.buffet.service;
+
+import com.buffet.catalogue.CatalogueSnapshot;
+import com.buffet.catalogue.NutrimentStore;
+import com.buffet.dto.BuffetResponse;
+import com.buffet.model.Aliment;
+import com.buffet.model.Allergene;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Calculs de buffet sous forme de fonctions pures d'un snapshot du catalogue :
+ * ni état, ni accès à la base. Partagés par {@link BuffetService} et par
+ * l'application réactive.
+ */
+public final class CalculsBuffet {
+
+    // Constantes pour les calculs de buffet
+    private static final double GRAMMES_PAR_PERSONNE = 150.0; // 150g par personne par aliment
+    private static final double FACTEUR_VARIETE = 1.2; // 20% de plus pour la variété
+
+    private CalculsBuffet() {}
+
+    /**
+     * Calcule un buffet basé sur le nombre d'invités et les aliments sélectionnés
+     */
+    public static BuffetResponse calculerBuffet(CatalogueSnapshot catalogue, Integer nombreInvites,
+                                                List<Long> alimentIds) {
+        int[] indices = resoudreAliments(catalogue, alimentIds);
+        return construireBuffet(catalogue, indices, allergiesPresentes(catalogue, indices), nombreInvites);
+    }
+
+    /**
+     * Taille de buffet (0 : petit, 1 : moyen, 2 : grand) ; les recommandations
+     * ne dépendent que de cette taille
+     */
+    public static int palier(Integer nombreInvites) {
+        if (nombreInvites <= 10) {
+            return 0;
+        }
+        return nombreInvites <= 30 ? 1 : 2;
+    }
+
+    /**
+     * Génère des recommandations de buffet basées sur le nombre d'invités
+     */
+    public static List<Aliment> recommandations(CatalogueSnapshot catalogue, Integer nombreInvites) {
+        List<Aliment> recommandations = new ArrayList<>();
+
+        // Logique de recommandation basée sur le nombre d'invités
+        switch (palier(nombreInvites)) {
+            case 0 -> {
+                // Petit buffet : 3-4 aliments variés
+                recommandations.addAll(catalogue.findAlimentsByCategorieNom("Viandes").stream().limit(1).toList());
+                recommandations.addAll(catalogue.findAlimentsByCategorieNom("Légumes").stream().limit(2).toList());
+                recommandations.addAll(catalogue.findAlimentsByCategorieNom("Fruits").stream().limit(1).toList());
+            }
+            case 1 -> {
+                // Buffet moyen : 5-6 aliments
+                recommandations.addAll(catalogue.findAlimentsByCategorieNom("Viandes").stream().limit(2).toList());
+                recommandations.addAll(catalogue.findAlimentsByCategorieNom("Poissons").stream().limit(1).toList());
+                recommandations.addAll(catalogue.findAlimentsByCategorieNom("Légumes").stream().limit(2).toList());
+                recommandations.addAll(catalogue.findAlimentsByCategorieNom("Fruits").stream().limit(1).toList());
+            }
+            default -> {
+                // Grand buffet : 7-8 aliments
+                recommandations.addAll(catalogue.findAlimentsByCategorieNom("Viandes").stream().limit(2).toList());
+                recommandations.addAll(catalogue.findAlimentsByCategorieNom("Poissons").stream().limit(1).toList());
+                recommandations.addAll(catalogue.findAlimentsByCategorieNom("Légumes").stream().limit(3).toList());
+                recommandations.addAll(catalogue.findAlimentsByCategorieNom("Fruits").stream().limit(1).toList());
+                recommandations.addAll(catalogue.findAlimentsByCategorieNom("Céréales").stream().limit(1).toList());
+            }
+        }
+
+        return recommandations;
+    }
+
+    /**
+     * Calcule un buffet économique (moins calorique)
+     */
+    public static BuffetResponse buffetEconomique(CatalogueSnapshot catalogue, Integer nombreInvites) {
+        // Les 5 aliments les moins caloriques, sans trier tout le catalogue
+        int[] indices = catalogue.getNutriments().topK(5, false);
+        if (indices.length == 0) {
+            throw new IllegalArgumentException("Aucun aliment trouvé avec les IDs fournis");
+        }
+
+        return construireBuffet(catalogue, indices, allergiesPresentes(catalogue, indices), nombreInvites);
+    }
+
+    /**
+     * Calcule un buffet équilibré (sans allergie)
+     */
+    public static BuffetResponse buffetEquilibre(CatalogueSnapshot catalogue, Integer nombreInvites) {
+        List<Aliment> alimentsEquilibres = catalogue.getAlimentsSansAllergie();
+        List<Long> alimentIds = alimentsEquilibres
+                .subList(0, Math.min(6, alimentsEquilibres.size())) // Limiter à 6 aliments équilibrés
+                .stream()
+                .map(Aliment::getId)
+                .toList();
+
+        return calculerBuffet(catalogue, nombreInvites, alimentIds);
+    }
+
+    /**
+     * Calcule un buffet sans allergie spécifique
+     */
+    public static BuffetResponse buffetSansAllergie(CatalogueSnapshot catalogue, Integer nombreInvites,
+                                                    String allergie) {
+        long masque = Allergene.masque(allergie);
+        if (masque == 0) {
+            throw new IllegalArgumentException("Allergie inconnue : " + allergie);
+        }
+
+        List<Long> alimentIds = catalogue.getAllergenes()
+                .sansAucunDes(masque, 5)
+                .stream()
+                .map(Aliment::getId)
+                .toList();
+
+        return calculerBuffet(catalogue, nombreInvites, alimentIds);
+    }
+
+    static int[] resoudreAliments(CatalogueSnapshot catalogue, List<Long> alimentIds) {
+        int[] indices = catalogue.resoudreIndices(alimentIds);
+        if (indices.length == 0) {
+            throw new IllegalArgumentException("Aucun aliment trouvé avec les IDs fournis");
+        }
+        return indices;
+    }
+
+    /**
+     * Liste des allergies présentes parmi les aliments sélectionnés
+     */
+    static String allergiesPresentes(CatalogueSnapshot catalogue, int[] indices) {
+        List<String> allergiesList = new ArrayList<>();
+        for (int index : indices) {
+            String allergies = catalogue.getAliments().get(index).getAllergies();
+            if (allergies != null && !allergies.equals("Aucune allergie connue")) {
+                allergiesList.add(allergies);
+            }
+        }
+
+        return allergiesList.isEmpty() ?
+            "Aucune allergie détectée" :
+            String.join("; ", allergiesList.stream().distinct().collect(Collectors.toList()));
+    }
+
+    static BuffetResponse construireBuffet(CatalogueSnapshot catalogue, int[] indices,
+                                           String allergiesPresentes, Integer nombreInvites) {
+        NutrimentStore nutriments = catalogue.getNutriments();
+
+        // La quantité ne dépend que du nombre d'invités
+        double quantiteKg = calculerQuantite(nombreInvites);
+        double caloriesTotales = nutriments.caloriesTotales(indices, indices.length, quantiteKg);
+
+        List<BuffetResponse.AlimentBuffet> alimentsBuffet = new ArrayList<>(indices.length);
+        for (int index : indices) {
+            Aliment aliment = catalogue.getAliments().get(index);
+
+            alimentsBuffet.add(new BuffetResponse.AlimentBuffet(
+                    aliment.getId(),
+                    aliment.getNom(),
+                    nutriments.getNomCategorie(nutriments.getCategorieOrdinal(index)),
+                    quantiteKg,
+                    nutriments.calories(index, quantiteKg),
+                    aliment.getAllergies()
+            ));
+        }
+
+        return new BuffetResponse(
+                nombreInvites,
+                alimentsBuffet,
+                caloriesTotales,
+                allergiesPresentes
+        );
+    }
+
+    /**
+     * Quantité (en kg) de chaque aliment servie à un invité
+     */
+    static double quantiteParInvite() {
+        return calculerQuantite(1);
+    }
+
+    /**
+     * Calcule la quantité nécessaire par aliment
+     */
+    private static double calculerQuantite(Integer nombreInvites) {
+        return (GRAMMES_PAR_PERSONNE * nombreInvites * FACTEUR_VARIETE) / 1000.0; // Conversion en kg
+    }
+}
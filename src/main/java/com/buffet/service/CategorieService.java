@@ -1,27 +1,45 @@
 package com.buffet.service;
 
+import com.buffet.catalogue.CatalogueCache;
+import com.buffet.catalogue.CatalogueSnapshot;
+import com.buffet.catalogue.IndexRecherche;
 import com.buffet.model.Categorie;
 import com.buffet.repository.CategorieRepository;
+import com.buffet.repository.jdbc.AlimentJdbcRepository;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 @Service
+@Timed("buffet.service")
 @Transactional
 public class CategorieService {
     
     private final CategorieRepository categorieRepository;
+    private final AlimentJdbcRepository alimentJdbcRepository;
+    private final CatalogueCache catalogueCache;
+    private final IndexRecherche indexRecherche;
     
-    public CategorieService(CategorieRepository categorieRepository) {
+    public CategorieService(CategorieRepository categorieRepository, AlimentJdbcRepository alimentJdbcRepository,
+                            CatalogueCache catalogueCache, IndexRecherche indexRecherche) {
         this.categorieRepository = categorieRepository;
+        this.alimentJdbcRepository = alimentJdbcRepository;
+        this.catalogueCache = catalogueCache;
+        this.indexRecherche = indexRecherche;
     }
     
     /**
      * Sauvegarde une catégorie
      */
     public Categorie save(Categorie categorie) {
+        catalogueCache.invalider();
+        // La cascade peut modifier les aliments de la catégorie
+        indexRecherche.reinitialiser();
         return categorieRepository.save(categorie);
     }
     
@@ -42,11 +60,22 @@ public class CategorieService {
     }
     
     /**
-     * Trouve toutes les catégories
+     * Trouve toutes les catégories avec leurs aliments : dans le snapshot s'il est à jour,
+     * sinon en une jointure (le repository ouvre alors sa propre transaction en lecture seule)
      */
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public List<Categorie> findAll() {
-        return categorieRepository.findAll();
+        return catalogueCache.getSnapshotSiAJour()
+                .map(CatalogueSnapshot::getCategories)
+                .orElseGet(categorieRepository::findAllWithAliments);
+    }
+    
+    /**
+     * Validateurs HTTP (ETag, Last-Modified) du catalogue, pour les GET conditionnels
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public CatalogueCache.Validateurs getValidateurs() {
+        return catalogueCache.getValidateurs();
     }
     
     /**
@@ -65,6 +94,14 @@ public class CategorieService {
         return categorieRepository.findAllWithAliments();
     }
     
+    /**
+     * Transmet une à une les catégories d'ID supérieur à apresId, avec leurs aliments
+     */
+    @Transactional(readOnly = true)
+    public void exporterAvecAliments(long apresId, Consumer<Categorie> consommateur) {
+        alimentJdbcRepository.parcourirCategoriesDepuis(apresId, consommateur);
+    }
+    
     /**
      * Trouve une catégorie par nom avec ses aliments
      */
@@ -77,6 +114,8 @@ public class CategorieService {
      * Supprime une catégorie par ID
      */
     public void deleteById(Long id) {
+        catalogueCache.invalider();
+        indexRecherche.reinitialiser();
         categorieRepository.deleteById(id);
     }
     
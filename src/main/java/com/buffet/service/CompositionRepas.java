@@ -0,0 +1,45 @@
+package com.buffet.service;
+
+import com.buffet.model.Repas;
+
+import java.util.List;
+
+/**
+ * Composition type d'un repas : nombre d'aliments à prendre dans chaque groupe de catégories
+ */
+final class CompositionRepas {
+
+    /**
+     * {@code nombre} aliments pris parmi les catégories listées
+     */
+    record Portion(int nombre, String... categories) {}
+
+    private CompositionRepas() {}
+
+    static String description(Repas.TypeRepas typeRepas) {
+        return switch (typeRepas) {
+            case PETIT_DEJEUNER -> "Petit déjeuner équilibré";
+            case DEJEUNER -> "Déjeuner complet";
+            case DINER -> "Dîner léger";
+        };
+    }
+
+    static List<Portion> pour(Repas.TypeRepas typeRepas) {
+        return switch (typeRepas) {
+            // Petit déjeuner : céréales, fruits, produits laitiers
+            case PETIT_DEJEUNER -> List.of(
+                    new Portion(1, "Céréales"),
+                    new Portion(1, "Fruits"),
+                    new Portion(1, "Produits laitiers"));
+            // Déjeuner : protéines, légumes, céréales
+            case DEJEUNER -> List.of(
+                    new Portion(1, "Viandes", "Poissons"),
+                    new Portion(2, "Légumes"),
+                    new Portion(1, "Céréales"));
+            // Dîner : légumes, protéines légères
+            case DINER -> List.of(
+                    new Portion(2, "Légumes"),
+                    new Portion(1, "Poissons"));
+        };
+    }
+}
@@ -0,0 +1,262 @@
+package com.buffet.service;
+
+import com.buffet.catalogue.CatalogueCache;
+import com.buffet.catalogue.IndexRecherche;
+import com.buffet.model.Aliment;
+import com.buffet.model.Categorie;
+import com.buffet.repository.jdbc.AlimentJdbcRepository;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Import d'un catalogue au format de data.json ({@code {"categories": [...], "aliments": [...]}}).
+ *
+ * Le fichier est lu en flux avec un {@link JsonParser} : seul le lot d'aliments en
+ * cours est en mémoire. Les catégories sont résolues par une table nom → catégorie
+ * chargée une fois, et les aliments insérés par lots JDBC, chaque lot dans sa propre
+ * transaction. La lecture du lot suivant se poursuit pendant que des écrivains
+ * insèrent les lots précédents : le temps d'import est proportionnel au nombre
+ * d'aliments.
+ */
+@Service
+public class ImportCatalogueService {
+
+    private static final Logger log = LoggerFactory.getLogger(ImportCatalogueService.class);
+
+    private final AlimentJdbcRepository alimentJdbcRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final CatalogueCache catalogueCache;
+    private final IndexRecherche indexRecherche;
+    private final ObjectMapper objectMapper;
+    private final int tailleLot;
+    private final int nombreEcrivains;
+
+    public ImportCatalogueService(AlimentJdbcRepository alimentJdbcRepository,
+                                  PlatformTransactionManager transactionManager,
+                                  CatalogueCache catalogueCache,
+                                  IndexRecherche indexRecherche,
+                                  ObjectMapper objectMapper,
+                                  @Value("${buffet.import.taille-lot:1000}") int tailleLot,
+                                  @Value("${buffet.import.ecrivains:2}") int nombreEcrivains) {
+        this.alimentJdbcRepository = alimentJdbcRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Chaque lot est validé seul, même appelé depuis une transaction (les écrivains n'y ont pas accès)
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.catalogueCache = catalogueCache;
+        this.indexRecherche = indexRecherche;
+        this.objectMapper = objectMapper;
+        this.tailleLot = Math.max(1, tailleLot);
+        this.nombreEcrivains = Math.max(1, nombreEcrivains);
+    }
+
+    /**
+     * Résultat d'un import, avec son débit
+     */
+    public record Bilan(int categories, long aliments, long alimentsIgnores, Duration duree) {
+
+        public double alimentsParSeconde() {
+            long millis = Math.max(1, duree.toMillis());
+            return aliments * 1000.0 / millis;
+        }
+    }
+
+    /**
+     * Importe un catalogue. Les catégories déjà en base sont réutilisées ; les
+     * aliments d'une catégorie inconnue sont ignorés. Les catégories doivent
+     * précéder les aliments dans le fichier : un aliment lu avant sa catégorie est
+     * ignoré. Les lignes créées ont pour origine {@code source}. L'échec d'un lot
+     * est levé en {@link IllegalStateException} ; les lots déjà validés restent en base.
+     */
+    public Bilan importer(InputStream entree, String source) throws IOException {
+        long debut = System.nanoTime();
+        Import enCours = new Import(source);
+        try (JsonParser parser = objectMapper.createParser(entree)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IllegalArgumentException("Le catalogue doit être un objet JSON");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String champ = parser.getCurrentName();
+                parser.nextToken();
+                switch (champ) {
+                    case "categories" -> enCours.importerCategories(parser);
+                    case "aliments" -> enCours.importerAliments(parser);
+                    default -> parser.skipChildren();
+                }
+            }
+            enCours.terminer();
+        } finally {
+            enCours.abandonner();
+            catalogueCache.invalider();
+            indexRecherche.reinitialiser();
+        }
+
+        Bilan bilan = new Bilan(enCours.categoriesCreees, enCours.alimentsImportes, enCours.alimentsIgnores,
+                Duration.ofNanos(System.nanoTime() - debut));
+        log.info("Import terminé : {} catégories créées, {} aliments importés ({} ignorés) en {} ms, soit {} aliments/s",
+                bilan.categories(), bilan.aliments(), bilan.alimentsIgnores(), bilan.duree().toMillis(),
+                Math.round(bilan.alimentsParSeconde()));
+        return bilan;
+    }
+
+    /**
+     * État d'un import : catégories connues et lots en cours d'écriture
+     */
+    private final class Import {
+
+        private final String source;
+        private final Map<String, Categorie> categoriesParNom = new HashMap<>();
+        private final ExecutorService ecrivains = Executors.newFixedThreadPool(nombreEcrivains);
+        // Au plus deux lots en attente par écrivain : la mémoire reste bornée
+        private final Semaphore lotsEnVol = new Semaphore(2 * nombreEcrivains);
+        private final List<Future<?>> envois = new ArrayList<>();
+        private final AtomicReference<RuntimeException> erreur = new AtomicReference<>();
+
+        private int categoriesCreees;
+        private long alimentsImportes;
+        private long alimentsIgnores;
+
+        Import(String source) {
+            this.source = source;
+            alimentJdbcRepository.findCategorieIdsParNom().forEach((nom, id) -> {
+                Categorie categorie = new Categorie();
+                categorie.setId(id);
+                categorie.setNom(nom);
+                categoriesParNom.put(nom, categorie);
+            });
+        }
+
+        void importerCategories(JsonParser parser) throws IOException {
+            verifierTableau(parser, "categories");
+            List<Categorie> nouvelles = new ArrayList<>();
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                LigneCategorie ligne = parser.readValueAs(LigneCategorie.class);
+                if (!categoriesParNom.containsKey(ligne.nom())) {
+                    Categorie categorie = new Categorie(ligne.nom(), ligne.description());
+                    categoriesParNom.put(categorie.getNom(), categorie);
+                    nouvelles.add(categorie);
+                }
+            }
+            transactionTemplate.executeWithoutResult(statut -> alimentJdbcRepository.insertCategories(nouvelles, source));
+            categoriesCreees += nouvelles.size();
+        }
+
+        void importerAliments(JsonParser parser) throws IOException {
+            verifierTableau(parser, "aliments");
+            List<Aliment> lot = new ArrayList<>(tailleLot);
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                LigneAliment ligne = parser.readValueAs(LigneAliment.class);
+                Categorie categorie = categoriesParNom.get(ligne.categorieNom());
+                if (categorie == null) {
+                    log.warn("Catégorie non trouvée pour l'aliment : {}", ligne.nom());
+                    alimentsIgnores++;
+                    continue;
+                }
+
+                Aliment aliment = new Aliment(ligne.nom(), ligne.description(), ligne.calories(),
+                        ligne.allergies(), ligne.imageUrl());
+                aliment.setCategorie(categorie);
+                lot.add(aliment);
+                if (lot.size() == tailleLot) {
+                    envoyer(lot);
+                    lot = new ArrayList<>(tailleLot);
+                }
+            }
+            if (!lot.isEmpty()) {
+                envoyer(lot);
+            }
+        }
+
+        private void envoyer(List<Aliment> lot) {
+            verifierErreur();
+            lotsEnVol.acquireUninterruptibly();
+            envois.add(ecrivains.submit(() -> {
+                try {
+                    if (erreur.get() == null) {
+                        transactionTemplate.executeWithoutResult(statut -> alimentJdbcRepository.insertAll(lot, source));
+                    }
+                } catch (RuntimeException e) {
+                    erreur.compareAndSet(null, new IllegalStateException("Échec d'un lot d'import", e));
+                } finally {
+                    lotsEnVol.release();
+                }
+            }));
+            alimentsImportes += lot.size();
+        }
+
+        /**
+         * Attend la fin des écritures et relève la première erreur
+         */
+        void terminer() {
+            ecrivains.shutdown();
+            try {
+                for (Future<?> envoi : envois) {
+                    envoi.get();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                ecrivains.shutdownNow();
+                throw new IllegalStateException("Import interrompu", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Échec d'un lot d'import", e.getCause());
+            }
+            verifierErreur();
+        }
+
+        /**
+         * Sans effet après {@link #terminer()} ; sinon, les lots pas encore commencés ne sont pas écrits
+         */
+        void abandonner() {
+            erreur.compareAndSet(null, new IllegalStateException("Import abandonné"));
+            ecrivains.shutdown();
+        }
+
+        private void verifierErreur() {
+            RuntimeException e = erreur.get();
+            if (e != null) {
+                throw e;
+            }
+        }
+
+        private static void verifierTableau(JsonParser parser, String champ) {
+            if (parser.currentToken() != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException("Le champ \"" + champ + "\" doit être un tableau");
+            }
+        }
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record LigneCategorie(String nom, String description) {}
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record LigneAliment(String nom,
+                        String description,
+                        @JsonProperty("calories_per_100g") BigDecimal calories,
+                        String allergies,
+                        @JsonProperty("image_url") String imageUrl,
+                        @JsonProperty("categorie_nom") String categorieNom) {}
+}
@@ -0,0 +1,254 @@
+package com.buffet.service;
+
+import com.buffet.catalogue.CatalogueSnapshot;
+import com.buffet.catalogue.CatalogueCache;
+import com.buffet.catalogue.IndexCategories;
+import com.buffet.dto.PlanificationJourResponse;
+import com.buffet.dto.PlanificationRequest;
+import com.buffet.model.Aliment;
+import com.buffet.model.Allergene;
+import com.buffet.model.Repas;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+
+/**
+ * Moteur de planification multi-semaines et multi-sites.
+ *
+ * Chaque couple (jour, site) est généré indépendamment sur l'exécuteur de
+ * planification, avec un générateur aléatoire dérivé de la graine, du site et
+ * du jour : le résultat ne dépend pas du degré de parallélisme. Les jours sont
+ * émis dans l'ordre chronologique (puis l'ordre des sites) au fil de l'eau,
+ * avec un nombre borné de jours en cours de calcul. Le pool est dédié à la
+ * planification pour ne pas concurrencer les autres calculs parallèles.
+ */
+@Service
+public class MoteurPlanification {
+
+    static final int JOURS_MAX = 366 * 2; // horizon maximal d'une demande
+
+    private final CatalogueCache catalogueCache;
+    private final ForkJoinPool executor;
+    private final int fenetre;
+
+    public MoteurPlanification(CatalogueCache catalogueCache,
+                               @Value("${buffet.planification.parallelisme:0}") int parallelisme,
+                               @Value("${buffet.planification.jours-en-vol:64}") int fenetre) {
+        this.catalogueCache = catalogueCache;
+        this.executor = new ForkJoinPool(parallelisme > 0 ? parallelisme : Runtime.getRuntime().availableProcessors());
+        this.fenetre = Math.max(1, fenetre);
+    }
+
+    @PreDestroy
+    void arreter() {
+        executor.shutdown();
+    }
+
+    /**
+     * Valide la demande et prépare les aliments candidats de chaque site.
+     * Les erreurs de la demande sont levées ici, avant toute émission.
+     */
+    public Planification preparer(PlanificationRequest demande) {
+        if (demande.getDateFin().isBefore(demande.getDateDebut())) {
+            throw new IllegalArgumentException("La date de fin doit être postérieure à la date de début");
+        }
+        long nombreJours = ChronoUnit.DAYS.between(demande.getDateDebut(), demande.getDateFin()) + 1;
+        if (nombreJours > JOURS_MAX) {
+            throw new IllegalArgumentException("La période ne peut pas dépasser " + JOURS_MAX + " jours");
+        }
+
+        IndexCategories index = IndexCategories.construire(catalogueCache.getSnapshot());
+        List<ContexteSite> sites = demande.getSites().stream()
+                .map(site -> new ContexteSite(site, index))
+                .toList();
+        long graine = demande.getGraine() != null ? demande.getGraine() : 0L;
+
+        return new Planification(demande.getDateDebut(), (int) nombreJours, graine, sites);
+    }
+
+    /**
+     * Planification prête à être générée
+     */
+    public final class Planification {
+
+        private final LocalDate dateDebut;
+        private final int nombreJours;
+        private final long graine;
+        private final List<ContexteSite> sites;
+
+        private Planification(LocalDate dateDebut, int nombreJours, long graine, List<ContexteSite> sites) {
+            this.dateDebut = dateDebut;
+            this.nombreJours = nombreJours;
+            this.graine = graine;
+            this.sites = sites;
+        }
+
+        /**
+         * Génère les jours en parallèle et les transmet dans l'ordre au consommateur
+         */
+        public void generer(Consumer<PlanificationJourResponse> consommateur) {
+            int total = nombreJours * sites.size();
+            Deque<CompletableFuture<PlanificationJourResponse>> enVol = new ArrayDeque<>(fenetre);
+
+            for (int tache = 0; tache < total; tache++) {
+                LocalDate date = dateDebut.plusDays(tache / sites.size());
+                int site = tache % sites.size();
+                enVol.addLast(CompletableFuture.supplyAsync(() -> genererJour(site, date), executor));
+                if (enVol.size() >= fenetre) {
+                    consommateur.accept(attendre(enVol.removeFirst()));
+                }
+            }
+            while (!enVol.isEmpty()) {
+                consommateur.accept(attendre(enVol.removeFirst()));
+            }
+        }
+
+        /**
+         * Génère toute la planification en mémoire
+         */
+        public List<PlanificationJourResponse> genererListe() {
+            List<PlanificationJourResponse> jours = new ArrayList<>(nombreJours * sites.size());
+            generer(jours::add);
+            return jours;
+        }
+
+        private PlanificationJourResponse genererJour(int indexSite, LocalDate date) {
+            ContexteSite site = sites.get(indexSite);
+            SplittableRandom aleatoire = new SplittableRandom(graineJour(graine, indexSite, date));
+
+            List<Repas> repasJour = new ArrayList<>(Repas.TypeRepas.values().length);
+            for (Repas.TypeRepas typeRepas : Repas.TypeRepas.values()) {
+                Repas repas = new Repas();
+                repas.setNom(PlanificationService.genererNomRepas(date, typeRepas));
+                repas.setDescription(CompositionRepas.description(typeRepas));
+                repas.setDateRepas(date);
+                repas.setTypeRepas(typeRepas);
+                repas.setNombrePersonnes(site.nombrePersonnes);
+                repas.setAliments(site.tirer(typeRepas, aleatoire));
+                repasJour.add(repas);
+            }
+
+            return new PlanificationJourResponse(site.nom, date, repasJour);
+        }
+    }
+
+    private static PlanificationJourResponse attendre(CompletableFuture<PlanificationJourResponse> jour) {
+        try {
+            return jour.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Graine propre à un (site, jour), indépendante de l'ordre d'exécution
+     */
+    static long graineJour(long graine, int indexSite, LocalDate date) {
+        long h = graine;
+        h = h * 0x9E3779B97F4A7C15L + indexSite;
+        h = h * 0x9E3779B97F4A7C15L + date.toEpochDay();
+        // Finalisation murmur3 (fmix64)
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /**
+     * Aliments candidats d'un site, par type de repas et par portion, après application des contraintes
+     */
+    private static final class ContexteSite {
+
+        private final String nom;
+        private final int nombrePersonnes;
+        private final CatalogueSnapshot catalogue;
+        private final Map<Repas.TypeRepas, List<Candidats>> candidats = new EnumMap<>(Repas.TypeRepas.class);
+
+        private record Candidats(int nombre, int[] positions) {}
+
+        ContexteSite(PlanificationRequest.Site site, IndexCategories index) {
+            this.nom = site.getNom();
+            this.nombrePersonnes = site.getNombrePersonnes();
+            this.catalogue = index.getCatalogue();
+
+            long allergenesExclus = 0L;
+            for (String allergie : site.getAllergiesExclues()) {
+                long masque = Allergene.masque(allergie);
+                if (masque == 0) {
+                    throw new IllegalArgumentException("Allergie inconnue pour le site " + nom + " : " + allergie);
+                }
+                allergenesExclus |= masque;
+            }
+            Set<String> categoriesExclues = new HashSet<>(site.getCategoriesExclues());
+
+            for (Repas.TypeRepas typeRepas : Repas.TypeRepas.values()) {
+                List<Candidats> portions = new ArrayList<>();
+                for (CompositionRepas.Portion portion : CompositionRepas.pour(typeRepas)) {
+                    String[] categories = Arrays.stream(portion.categories())
+                            .filter(categorie -> !categoriesExclues.contains(categorie))
+                            .toArray(String[]::new);
+                    long exclus = allergenesExclus;
+                    int[] positions = Arrays.stream(index.positions(categories))
+                            .filter(position -> (catalogue.getAllergenes().getMasque(position) & exclus) == 0)
+                            .toArray();
+                    portions.add(new Candidats(portion.nombre(), positions));
+                }
+                candidats.put(typeRepas, portions);
+            }
+        }
+
+        /**
+         * Tire sans remise les aliments de chaque portion du repas
+         */
+        List<Aliment> tirer(Repas.TypeRepas typeRepas, SplittableRandom aleatoire) {
+            List<Aliment> selection = new ArrayList<>();
+            for (Candidats portion : candidats.get(typeRepas)) {
+                int[] positions = portion.positions();
+                int nombre = Math.min(portion.nombre(), positions.length);
+                // Algorithme de Floyd : nombre indices distincts parmi positions.length
+                int[] tirage = new int[nombre];
+                int tires = 0;
+                for (int j = positions.length - nombre; j < positions.length; j++) {
+                    int t = aleatoire.nextInt(j + 1);
+                    tirage[tires] = contient(tirage, tires, t) ? j : t;
+                    tires++;
+                }
+                for (int t : tirage) {
+                    selection.add(catalogue.getAliments().get(positions[t]));
+                }
+            }
+            return selection;
+        }
+
+        private static boolean contient(int[] valeurs, int taille, int valeur) {
+            for (int i = 0; i < taille; i++) {
+                if (valeurs[i] == valeur) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,362 @@
+package com.buffet.service;
+
+import com.buffet.catalogue.CatalogueSnapshot;
+import com.buffet.catalogue.NutrimentStore;
+import com.buffet.dto.BuffetResponse;
+import com.buffet.dto.OptimisationRequest;
+import com.buffet.dto.OptimisationResponse;
+import com.buffet.model.Aliment;
+import com.buffet.model.Allergene;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Choisit dans tout le catalogue le buffet qui respecte les contraintes d'une
+ * {@link OptimisationRequest}, par séparation et évaluation (branch and bound).
+ *
+ * Objectifs, dans l'ordre : couvrir le plus de catégories possible, puis approcher
+ * le centre de la fenêtre de calories par invité. Seules comptent la catégorie et
+ * les calories d'un aliment : dans une catégorie, les candidats sont parcourus par
+ * calories croissantes et un seul est essayé par valeur de calories. Une branche
+ * est élaguée dès que ses bornes de calories sortent de la fenêtre, ou qu'elle ne
+ * peut plus battre la meilleure solution. À l'échéance, la meilleure solution
+ * trouvée est renvoyée.
+ *
+ * Les calories sont des sommes entières de centièmes de kcal pour 100 g
+ * ({@link NutrimentStore}) ; la fenêtre par invité y est convertie une fois.
+ */
+final class OptimiseurBuffet {
+
+    private static final int NOEUDS_ENTRE_MESURES = 1024; // nœuds explorés entre deux lectures de l'horloge
+
+    private final int nombreMin;
+    private final int nombreMax;
+    private final int maxParCategorie;
+    private final long bas;
+    private final long haut;
+    private final long cible;
+    private final long echeance;
+
+    // Par catégorie retenue (requises d'abord) : positions et calories des candidats, par calories croissantes
+    private final int[][] candidats;
+    private final long[][] calories;
+    private final boolean[] requises;
+    // [k][a] : calories des a candidats les plus caloriques de la catégorie k
+    private final long[][] plusCaloriques;
+    // [k][r] : borne des calories de r aliments pris dans les catégories k et suivantes
+    private final long[][] maxDepuis;
+    // [k] : calories minimales et nombre des catégories requises à partir de k
+    private final long[] requisesDepuis;
+    private final int[] nombreRequisesDepuis;
+    // [k] : nombre maximal d'aliments des catégories k et suivantes
+    private final int[] alimentsDepuis;
+
+    private final int[] choix;
+    private int profondeur;
+    private int[] meilleur;
+    private int meilleuresCategories = -1;
+    private long meilleurEcart = Long.MAX_VALUE;
+    private long meilleureSomme;
+
+    private long noeuds;
+    private long elagages;
+    private long solutions;
+    private boolean interrompue;
+
+    private OptimiseurBuffet(int[][] candidats, long[][] calories, boolean[] requises, int nombreMin,
+                             int nombreMax, int maxParCategorie, long bas, long haut, long echeance) {
+        this.candidats = candidats;
+        this.calories = calories;
+        this.requises = requises;
+        this.nombreMin = nombreMin;
+        this.nombreMax = nombreMax;
+        this.maxParCategorie = maxParCategorie;
+        this.bas = bas;
+        this.haut = haut;
+        this.cible = (bas + haut) / 2;
+        this.echeance = echeance;
+        this.choix = new int[nombreMax];
+
+        int nombreCategories = candidats.length;
+        this.plusCaloriques = new long[nombreCategories][];
+        for (int k = 0; k < nombreCategories; k++) {
+            long[] cal = calories[k];
+            int pris = Math.min(maxParCategorie, cal.length);
+            long[] sommes = new long[pris + 1];
+            for (int a = 1; a <= pris; a++) {
+                sommes[a] = sommes[a - 1] + cal[cal.length - a];
+            }
+            plusCaloriques[k] = sommes;
+        }
+
+        this.maxDepuis = new long[nombreCategories + 1][nombreMax + 1];
+        this.requisesDepuis = new long[nombreCategories + 1];
+        this.nombreRequisesDepuis = new int[nombreCategories + 1];
+        this.alimentsDepuis = new int[nombreCategories + 1];
+        for (int k = nombreCategories - 1; k >= 0; k--) {
+            for (int r = 1; r <= nombreMax; r++) {
+                maxDepuis[k][r] = borneMax(k, 0, r);
+            }
+            requisesDepuis[k] = requisesDepuis[k + 1] + (requises[k] ? calories[k][0] : 0);
+            nombreRequisesDepuis[k] = nombreRequisesDepuis[k + 1] + (requises[k] ? 1 : 0);
+            alimentsDepuis[k] = alimentsDepuis[k + 1] + plusCaloriques[k].length - 1;
+        }
+    }
+
+    /**
+     * Meilleur buffet pour la demande, cherché au plus pendant le budget donné
+     */
+    static OptimisationResponse optimiser(CatalogueSnapshot catalogue, OptimisationRequest demande, Duration budget) {
+        long debut = System.nanoTime();
+        if (demande.getCaloriesMin() > demande.getCaloriesMax()) {
+            throw new IllegalArgumentException("Les calories minimales dépassent les calories maximales");
+        }
+        if (demande.getNombreMin() > demande.getNombreMax()) {
+            throw new IllegalArgumentException("Le nombre minimal d'aliments dépasse le nombre maximal");
+        }
+        if (demande.getCategoriesRequises().size() > demande.getNombreMax()) {
+            throw new IllegalArgumentException("Plus de catégories requises que d'aliments dans le buffet");
+        }
+
+        NutrimentStore nutriments = catalogue.getNutriments();
+        long exclues = masqueExclu(demande.getAllergiesExclues());
+        boolean[] estRequise = new boolean[nutriments.nombreCategories()];
+        for (String nom : demande.getCategoriesRequises()) {
+            int ordinal = nutriments.ordinalCategorie(nom);
+            if (ordinal < 0) {
+                throw new IllegalArgumentException("Catégorie inconnue : " + nom);
+            }
+            estRequise[ordinal] = true;
+        }
+
+        // Candidats par catégorie, triés par calories puis position (clé calories << 32 | position)
+        long[][] cles = new long[nutriments.nombreCategories()][];
+        int[] tailles = new int[cles.length];
+        List<Aliment> aliments = catalogue.getAliments();
+        for (int i = 0; i < nutriments.size(); i++) {
+            int ordinal = nutriments.getCategorieOrdinal(i);
+            int centiemes = nutriments.getCaloriesCentiemes(i);
+            if (ordinal < 0 || centiemes == NutrimentStore.CALORIES_ABSENTES
+                    || (aliments.get(i).getAllergenesMasque() & exclues) != 0) {
+                continue;
+            }
+            if (cles[ordinal] == null) {
+                cles[ordinal] = new long[16];
+            } else if (tailles[ordinal] == cles[ordinal].length) {
+                cles[ordinal] = Arrays.copyOf(cles[ordinal], tailles[ordinal] * 2);
+            }
+            cles[ordinal][tailles[ordinal]++] = ((long) centiemes << 32) | i;
+        }
+
+        // Catégories requises d'abord, puis les autres dans l'ordre du catalogue
+        List<Integer> ordre = new ArrayList<>();
+        int nombreCandidats = 0;
+        for (int passe = 0; passe < 2; passe++) {
+            for (int ordinal = 0; ordinal < cles.length; ordinal++) {
+                if (estRequise[ordinal] != (passe == 0)) {
+                    continue;
+                }
+                if (tailles[ordinal] > 0) {
+                    ordre.add(ordinal);
+                    nombreCandidats += tailles[ordinal];
+                } else if (estRequise[ordinal]) {
+                    // Catégorie requise sans candidat : aucune solution
+                    return reponse(catalogue, demande, null, debut, nombreCandidats);
+                }
+            }
+        }
+
+        int[][] candidats = new int[ordre.size()][];
+        long[][] calories = new long[ordre.size()][];
+        boolean[] requises = new boolean[ordre.size()];
+        for (int k = 0; k < ordre.size(); k++) {
+            int ordinal = ordre.get(k);
+            long[] triees = Arrays.copyOf(cles[ordinal], tailles[ordinal]);
+            Arrays.sort(triees);
+            candidats[k] = new int[triees.length];
+            calories[k] = new long[triees.length];
+            for (int r = 0; r < triees.length; r++) {
+                candidats[k][r] = (int) triees[r];
+                calories[k][r] = triees[r] >> 32;
+            }
+            requises[k] = estRequise[ordinal];
+        }
+
+        // Fenêtre par invité convertie en somme de centièmes pour 100 g
+        double centiemesParKcal = 10.0 / CalculsBuffet.quantiteParInvite();
+        long bas = (long) Math.ceil(demande.getCaloriesMin() * centiemesParKcal);
+        long haut = (long) Math.floor(demande.getCaloriesMax() * centiemesParKcal);
+
+        OptimiseurBuffet optimiseur = new OptimiseurBuffet(candidats, calories, requises, demande.getNombreMin(),
+                demande.getNombreMax(), demande.getMaxParCategorie(), bas, haut, debut + budget.toNanos());
+        optimiseur.explorer(0, 0, 0, 0, 0);
+        return reponse(catalogue, demande, optimiseur, debut, nombreCandidats);
+    }
+
+    private static long masqueExclu(List<String> allergies) {
+        long masque = 0;
+        for (String allergie : allergies) {
+            long bits = Allergene.masque(allergie);
+            if (bits == 0) {
+                throw new IllegalArgumentException("Allergie inconnue : " + allergie);
+            }
+            masque |= bits;
+        }
+        return masque;
+    }
+
+    private static OptimisationResponse reponse(CatalogueSnapshot catalogue, OptimisationRequest demande,
+                                                OptimiseurBuffet optimiseur, long debut, int candidats) {
+        BuffetResponse buffet = null;
+        Double caloriesParInvite = null;
+        Integer nombreCategories = null;
+        if (optimiseur != null && optimiseur.meilleur != null) {
+            int[] indices = optimiseur.meilleur;
+            buffet = CalculsBuffet.construireBuffet(catalogue, indices,
+                    CalculsBuffet.allergiesPresentes(catalogue, indices), demande.getInvites());
+            caloriesParInvite = optimiseur.meilleureSomme * CalculsBuffet.quantiteParInvite() / 10.0;
+            nombreCategories = optimiseur.meilleuresCategories;
+        }
+        OptimisationResponse.Statistiques statistiques = optimiseur == null
+                ? new OptimisationResponse.Statistiques(candidats, 0, 0, 0, millisecondes(debut), true)
+                : new OptimisationResponse.Statistiques(candidats, optimiseur.noeuds, optimiseur.elagages,
+                        optimiseur.solutions, millisecondes(debut), !optimiseur.interrompue);
+        return new OptimisationResponse(buffet, caloriesParInvite, nombreCategories, statistiques);
+    }
+
+    private static double millisecondes(long debut) {
+        return (System.nanoTime() - debut) / 1_000_000.0;
+    }
+
+    /**
+     * Nœud de la recherche : catégorie k, prochain candidat {@code depuis}, avec
+     * {@code dansCategorie} aliments déjà pris dans k
+     */
+    private void explorer(int k, int depuis, int dansCategorie, int couvertes, long somme) {
+        if (++noeuds % NOEUDS_ENTRE_MESURES == 0 && System.nanoTime() > echeance) {
+            interrompue = true;
+        }
+        if (interrompue) {
+            return;
+        }
+        if (k == candidats.length) {
+            evaluer(couvertes, somme);
+            return;
+        }
+
+        int restants = nombreMax - profondeur;
+        int suivante = dansCategorie == 0 ? k : k + 1; // première catégorie encore à couvrir
+        long minAjout = requisesDepuis[suivante];
+        long maxAjout = borneMax(k, dansCategorie, restants);
+        int aliments = profondeur + Math.min(restants,
+                Math.min(maxParCategorie - dansCategorie, candidats[k].length - depuis) + alimentsDepuis[k + 1]);
+        int categoriesPossibles = couvertes + Math.min(restants, candidats.length - suivante);
+        if (somme + minAjout > haut || somme + maxAjout < bas
+                || nombreRequisesDepuis[suivante] > restants || aliments < nombreMin
+                || !prometteur(categoriesPossibles, somme + minAjout, somme + maxAjout)) {
+            elagages++;
+            return;
+        }
+        if (restants == 0) {
+            evaluer(couvertes, somme);
+            return;
+        }
+
+        if (dansCategorie == 0) {
+            // Couvrir la catégorie d'abord, sauf à l'écarter si elle n'est pas requise
+            prendre(k, depuis, dansCategorie, couvertes, somme);
+            if (!requises[k]) {
+                explorer(k + 1, 0, 0, couvertes, somme);
+            }
+        } else {
+            // Une catégorie de plus avant un second aliment de la même
+            explorer(k + 1, 0, 0, couvertes, somme);
+            prendre(k, depuis, dansCategorie, couvertes, somme);
+        }
+    }
+
+    /**
+     * Essaie chaque candidat de la catégorie k à partir de {@code depuis}, sans
+     * descendre sous les calories qui ne permettraient plus d'atteindre la fenêtre
+     */
+    private void prendre(int k, int depuis, int dansCategorie, int couvertes, long somme) {
+        int restants = nombreMax - profondeur;
+        if (dansCategorie >= maxParCategorie || restants == 0) {
+            return;
+        }
+        long[] cal = calories[k];
+        long minimum = bas - somme - borneMax(k, dansCategorie + 1, restants - 1);
+        long maximum = haut - somme - requisesDepuis[k + 1];
+        int i = premierAuMoins(cal, depuis, minimum);
+        // Candidats triés : on s'arrête au premier qui dépasse la fenêtre
+        while (i < cal.length && cal[i] <= maximum && !interrompue) {
+            long c = cal[i];
+            choix[profondeur++] = candidats[k][i];
+            explorer(k, i + 1, dansCategorie + 1, couvertes + (dansCategorie == 0 ? 1 : 0), somme + c);
+            profondeur--;
+            // Mêmes calories : même sous-arbre, on passe directement à la valeur suivante
+            i = premierAuMoins(cal, i + 1, c + 1);
+        }
+    }
+
+    private void evaluer(int couvertes, long somme) {
+        if (profondeur < nombreMin || somme < bas || somme > haut) {
+            return;
+        }
+        long ecart = Math.abs(somme - cible);
+        if (couvertes > meilleuresCategories || (couvertes == meilleuresCategories && ecart < meilleurEcart)) {
+            meilleur = Arrays.copyOf(choix, profondeur);
+            meilleuresCategories = couvertes;
+            meilleurEcart = ecart;
+            meilleureSomme = somme;
+            solutions++;
+        }
+    }
+
+    /**
+     * Vrai si une branche couvrant au plus {@code categories} catégories, de calories
+     * finales entre {@code min} et {@code max}, peut encore battre la meilleure solution
+     */
+    private boolean prometteur(int categories, long min, long max) {
+        if (categories != meilleuresCategories) {
+            return categories > meilleuresCategories;
+        }
+        long ecartMin = cible < min ? min - cible : cible > max ? cible - max : 0;
+        return ecartMin < meilleurEcart;
+    }
+
+    /**
+     * Borne des calories de r aliments de plus : jusqu'à {@code maxParCategorie - dansCategorie}
+     * dans la catégorie k, le reste dans les suivantes
+     */
+    private long borneMax(int k, int dansCategorie, int r) {
+        long[] categorie = plusCaloriques[k];
+        long[] suivantes = maxDepuis[k + 1];
+        int dansK = Math.min(r, Math.max(0, Math.min(maxParCategorie - dansCategorie, categorie.length - 1)));
+        long borne = 0;
+        for (int a = 0; a <= dansK; a++) {
+            borne = Math.max(borne, categorie[a] + suivantes[r - a]);
+        }
+        return borne;
+    }
+
+    /**
+     * Premier rang à partir de {@code depuis} dont les calories atteignent {@code minimum}
+     */
+    private static int premierAuMoins(long[] cal, int depuis, long minimum) {
+        int bas = depuis;
+        int haut = cal.length;
+        while (bas < haut) {
+            int milieu = (bas + haut) >>> 1;
+            if (cal[milieu] < minimum) {
+                bas = milieu + 1;
+            } else {
+                haut = milieu;
+            }
+        }
+        return bas;
+    }
+}
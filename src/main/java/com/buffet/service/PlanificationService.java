@@ -1,8 +1,12 @@
 package com.buffet.service;
 
+import com.buffet.catalogue.CatalogueCache;
+import com.buffet.catalogue.IndexCategories;
 import com.buffet.model.Repas;
 import com.buffet.model.Aliment;
 import com.buffet.repository.RepasRepository;
+import com.buffet.repository.jdbc.RepasJdbcRepository;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -13,36 +17,51 @@ import java.util.stream.Collectors;
 import java.math.BigDecimal;
 
 @Service
+@Timed("buffet.service")
 @Transactional
 public class PlanificationService {
     
+    // Portion de chaque aliment d'un repas, par personne
+    private static final BigDecimal GRAMMES_PAR_PERSONNE = BigDecimal.valueOf(100);
+    private static final int SEMAINES_MAX = MoteurPlanification.JOURS_MAX / 7; // même horizon que le moteur
+    
     private final RepasRepository repasRepository;
-    private final AlimentService alimentService;
+    private final RepasJdbcRepository repasJdbcRepository;
+    private final CatalogueCache catalogueCache;
     
-    public PlanificationService(RepasRepository repasRepository, AlimentService alimentService) {
+    public PlanificationService(RepasRepository repasRepository, RepasJdbcRepository repasJdbcRepository,
+                                CatalogueCache catalogueCache) {
         this.repasRepository = repasRepository;
-        this.alimentService = alimentService;
+        this.repasJdbcRepository = repasJdbcRepository;
+        this.catalogueCache = catalogueCache;
     }
     
     /**
      * Génère une planification hebdomadaire automatique
      */
     public List<Repas> genererPlanificationHebdomadaire(LocalDate dateSemaine) {
+        return genererPlanification(dateSemaine, 1);
+    }
+    
+    /**
+     * Génère une planification automatique sur plusieurs semaines consécutives.
+     * L'index des aliments par catégorie est construit une seule fois pour tout l'horizon.
+     */
+    public List<Repas> genererPlanification(LocalDate dateSemaine, int nombreSemaines) {
         LocalDate debutSemaine = dateSemaine.with(TemporalAdjusters.previousOrSame(java.time.DayOfWeek.MONDAY));
-        LocalDate finSemaine = debutSemaine.plusDays(6);
+        LocalDate fin = debutSemaine.plusWeeks(nombreSemaines).minusDays(1);
         
-        List<Repas> planification = new ArrayList<>();
+        Map<Repas.TypeRepas, List<Aliment>> selections =
+                selectionnerAlimentsParTypeRepas(IndexCategories.construire(catalogueCache.getSnapshot()));
         
-        // Générer les repas pour chaque jour de la semaine
-        for (LocalDate date = debutSemaine; !date.isAfter(finSemaine); date = date.plusDays(1)) {
-            // Petit déjeuner
-            planification.add(creerRepasAutomatique(date, Repas.TypeRepas.PETIT_DEJEUNER, "Petit déjeuner équilibré"));
-            
-            // Déjeuner
-            planification.add(creerRepasAutomatique(date, Repas.TypeRepas.DEJEUNER, "Déjeuner complet"));
-            
-            // Dîner
-            planification.add(creerRepasAutomatique(date, Repas.TypeRepas.DINER, "Dîner léger"));
+        List<Repas> planification = new ArrayList<>(nombreSemaines * 7 * 3);
+        
+        // Générer les repas pour chaque jour de la période
+        for (LocalDate date = debutSemaine; !date.isAfter(fin); date = date.plusDays(1)) {
+            // Petit déjeuner, déjeuner et dîner
+            for (Repas.TypeRepas typeRepas : Repas.TypeRepas.values()) {
+                planification.add(creerRepasAutomatique(date, typeRepas, selections));
+            }
         }
         
         return planification;
@@ -51,17 +70,17 @@ public class PlanificationService {
     /**
      * Crée un repas automatique avec des aliments variés
      */
-    private Repas creerRepasAutomatique(LocalDate date, Repas.TypeRepas typeRepas, String description) {
+    private Repas creerRepasAutomatique(LocalDate date, Repas.TypeRepas typeRepas,
+                                        Map<Repas.TypeRepas, List<Aliment>> selections) {
         Repas repas = new Repas();
         repas.setNom(genererNomRepas(date, typeRepas));
-        repas.setDescription(description);
+        repas.setDescription(CompositionRepas.description(typeRepas));
         repas.setDateRepas(date);
         repas.setTypeRepas(typeRepas);
         repas.setNombrePersonnes(4); // Par défaut pour 4 personnes
         
-        // Sélectionner des aliments selon le type de repas
-        List<Aliment> alimentsSelectionnes = selectionnerAlimentsPourRepas(typeRepas);
-        repas.setAliments(alimentsSelectionnes);
+        // Aliments sélectionnés selon le type de repas
+        repas.setAliments(new ArrayList<>(selections.get(typeRepas)));
         
         return repas;
     }
@@ -69,7 +88,7 @@ public class PlanificationService {
     /**
      * Génère un nom pour le repas
      */
-    private String genererNomRepas(LocalDate date, Repas.TypeRepas typeRepas) {
+    static String genererNomRepas(LocalDate date, Repas.TypeRepas typeRepas) {
         String jour = date.getDayOfWeek().toString().toLowerCase();
         jour = jour.substring(0, 1).toUpperCase() + jour.substring(1);
         
@@ -86,67 +105,53 @@ public class PlanificationService {
     }
     
     /**
-     * Sélectionne des aliments appropriés selon le type de repas
+     * Sélectionne des aliments appropriés pour chaque type de repas
      */
-    private List<Aliment> selectionnerAlimentsPourRepas(Repas.TypeRepas typeRepas) {
-        List<Aliment> tousAliments = alimentService.findAll();
-        List<Aliment> selection = new ArrayList<>();
+    private Map<Repas.TypeRepas, List<Aliment>> selectionnerAlimentsParTypeRepas(IndexCategories index) {
+        Map<Repas.TypeRepas, List<Aliment>> selections = new EnumMap<>(Repas.TypeRepas.class);
         
-        switch (typeRepas) {
-            case PETIT_DEJEUNER:
-                // Petit déjeuner : céréales, fruits, produits laitiers
-                selection.addAll(tousAliments.stream()
-                    .filter(a -> a.getCategorie().getNom().equals("Céréales"))
-                    .limit(1)
-                    .collect(Collectors.toList()));
-                selection.addAll(tousAliments.stream()
-                    .filter(a -> a.getCategorie().getNom().equals("Fruits"))
-                    .limit(1)
-                    .collect(Collectors.toList()));
-                selection.addAll(tousAliments.stream()
-                    .filter(a -> a.getCategorie().getNom().equals("Produits laitiers"))
-                    .limit(1)
-                    .collect(Collectors.toList()));
-                break;
-                
-            case DEJEUNER:
-                // Déjeuner : protéines, légumes, céréales
-                selection.addAll(tousAliments.stream()
-                    .filter(a -> a.getCategorie().getNom().equals("Viandes") || 
-                                a.getCategorie().getNom().equals("Poissons"))
-                    .limit(1)
-                    .collect(Collectors.toList()));
-                selection.addAll(tousAliments.stream()
-                    .filter(a -> a.getCategorie().getNom().equals("Légumes"))
-                    .limit(2)
-                    .collect(Collectors.toList()));
-                selection.addAll(tousAliments.stream()
-                    .filter(a -> a.getCategorie().getNom().equals("Céréales"))
-                    .limit(1)
-                    .collect(Collectors.toList()));
-                break;
-                
-            case DINER:
-                // Dîner : légumes, protéines légères
-                selection.addAll(tousAliments.stream()
-                    .filter(a -> a.getCategorie().getNom().equals("Légumes"))
-                    .limit(2)
-                    .collect(Collectors.toList()));
-                selection.addAll(tousAliments.stream()
-                    .filter(a -> a.getCategorie().getNom().equals("Poissons"))
-                    .limit(1)
-                    .collect(Collectors.toList()));
-                break;
+        for (Repas.TypeRepas typeRepas : Repas.TypeRepas.values()) {
+            List<Aliment> selection = new ArrayList<>();
+            for (CompositionRepas.Portion portion : CompositionRepas.pour(typeRepas)) {
+                selection.addAll(index.premiers(portion.nombre(), portion.categories()));
+            }
+            selections.put(typeRepas, selection);
         }
         
-        return selection;
+        return selections;
     }
     
     /**
-     * Sauvegarde une planification
+     * Sauvegarde un repas, par le même chemin JDBC qu'une planification complète
      */
     public Repas sauvegarderRepas(Repas repas) {
-        return repasRepository.save(repas);
+        return repasJdbcRepository.insertAll(List.of(repas), this::quantiteParAliment).get(0);
+    }
+    
+    /**
+     * Sauvegarde une planification complète par lots JDBC (repas puis repas_aliments),
+     * avec la quantité de chaque aliment selon le nombre de personnes
+     */
+    public List<Repas> sauvegarderRepas(List<Repas> repas) {
+        return repasJdbcRepository.insertAll(repas, this::quantiteParAliment);
+    }
+    
+    /**
+     * Génère puis sauvegarde la planification de plusieurs semaines
+     */
+    public List<Map<String, Object>> genererEtSauvegarderPlanification(LocalDate dateSemaine, int nombreSemaines) {
+        if (nombreSemaines < 1) {
+            throw new IllegalArgumentException("Le nombre de semaines doit être au moins 1");
+        }
+        if (nombreSemaines > SEMAINES_MAX) {
+            throw new IllegalArgumentException("Le nombre de semaines ne peut pas dépasser " + SEMAINES_MAX);
+        }
+        return convertirRepasEnMap(sauvegarderRepas(genererPlanification(dateSemaine, nombreSemaines)));
+    }
+    
+    private BigDecimal quantiteParAliment(Repas repas) {
+        int personnes = repas.getNombrePersonnes() != null ? repas.getNombrePersonnes() : 1;
+        return GRAMMES_PAR_PERSONNE.multiply(BigDecimal.valueOf(personnes));
     }
     
     /**
@@ -0,0 +1,372 @@
+package com.buffet.service;
+
+import com.buffet.catalogue.CatalogueCache;
+import com.buffet.catalogue.IndexRecherche;
+import com.buffet.model.Aliment;
+import com.buffet.model.Categorie;
+import com.buffet.repository.jdbc.AlimentJdbcRepository;
+import com.buffet.repository.jdbc.CategorieJdbcRepository;
+import com.buffet.repository.jdbc.SynchronisationJdbcRepository;
+import com.buffet.service.ImportCatalogueService.LigneAliment;
+import com.buffet.service.ImportCatalogueService.LigneCategorie;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Synchronisation d'une base existante avec un catalogue au format de data.json.
+ *
+ * L'empreinte SHA-256 du fichier est comparée à celle de la dernière
+ * synchronisation : si elle n'a pas changé, rien n'est lu ni écrit. Sinon les
+ * aliments du fichier sont comparés aux lignes existantes par clé naturelle
+ * (nom + nom de catégorie), et seuls les ajouts, modifications et suppressions
+ * nécessaires sont appliqués, par lots JDBC, dans une seule transaction.
+ * Les modifications faites par l'API entre deux changements du fichier sont donc
+ * conservées.
+ *
+ * Chaque ligne du fichier est rattachée à sa source ({@code source_catalogue}).
+ * Une ligne absente du fichier n'est supprimée que si elle vient de cette source
+ * et qu'aucun repas (aliment) ni aucun aliment restant (catégorie) ne l'utilise ;
+ * sinon elle est conservée et comptée dans le bilan.
+ *
+ * Sur une base vide, l'import initial est délégué à {@link ImportCatalogueService},
+ * dont les lots sont validés dans leurs propres transactions : un échec laisse un
+ * import partiel sans enregistrer l'empreinte, et la synchronisation suivante, la
+ * base n'étant plus vide, complète le catalogue par différence.
+ */
+@Service
+public class SynchronisationCatalogueService {
+
+    private static final Logger log = LoggerFactory.getLogger(SynchronisationCatalogueService.class);
+
+    private static final int TAILLE_LOT = 1000;
+    private static final char SEPARATEUR = '\u001F';
+
+    private final AlimentJdbcRepository alimentJdbcRepository;
+    private final CategorieJdbcRepository categorieJdbcRepository;
+    private final SynchronisationJdbcRepository synchronisationJdbcRepository;
+    private final ImportCatalogueService importCatalogueService;
+    private final TransactionTemplate transactionTemplate;
+    private final CatalogueCache catalogueCache;
+    private final IndexRecherche indexRecherche;
+    private final ObjectMapper objectMapper;
+
+    public SynchronisationCatalogueService(AlimentJdbcRepository alimentJdbcRepository,
+                                           CategorieJdbcRepository categorieJdbcRepository,
+                                           SynchronisationJdbcRepository synchronisationJdbcRepository,
+                                           ImportCatalogueService importCatalogueService,
+                                           PlatformTransactionManager transactionManager,
+                                           CatalogueCache catalogueCache,
+                                           IndexRecherche indexRecherche,
+                                           ObjectMapper objectMapper) {
+        this.alimentJdbcRepository = alimentJdbcRepository;
+        this.categorieJdbcRepository = categorieJdbcRepository;
+        this.synchronisationJdbcRepository = synchronisationJdbcRepository;
+        this.importCatalogueService = importCatalogueService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.catalogueCache = catalogueCache;
+        this.indexRecherche = indexRecherche;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Résultat d'une synchronisation ; {@code inchange} si l'empreinte était déjà à jour
+     */
+    public record Bilan(boolean inchange,
+                        int categoriesCreees, int categoriesModifiees, int categoriesSupprimees,
+                        int categoriesConservees,
+                        long alimentsCrees, long alimentsModifies, long alimentsSupprimes, long alimentsConserves,
+                        long alimentsIgnores, Duration duree) {
+    }
+
+    /**
+     * Synchronise la base avec le catalogue. Sur une base vide, le catalogue est
+     * importé en parallèle par {@link ImportCatalogueService}, hors de la transaction
+     * de synchronisation.
+     */
+    public Bilan synchroniser(Resource catalogue) throws IOException {
+        long debut = System.nanoTime();
+        String source = catalogue.getDescription();
+        String empreinte = empreinteFichier(catalogue);
+
+        Synchronisation synchronisation = transactionTemplate.execute(statut -> {
+            String precedente = synchronisationJdbcRepository.verrouillerEmpreinte(source);
+            if (precedente.equals(empreinte)) {
+                return null;
+            }
+            Synchronisation enCours = new Synchronisation(source);
+            try {
+                enCours.appliquer(catalogue);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            synchronisationJdbcRepository.enregistrerEmpreinte(source, empreinte);
+            catalogueCache.invalider();
+            indexRecherche.reinitialiser();
+            return enCours;
+        });
+
+        Duration duree = Duration.ofNanos(System.nanoTime() - debut);
+        if (synchronisation == null) {
+            log.info("Catalogue {} inchangé (empreinte {}), synchronisation ignorée en {} ms",
+                    source, empreinte, duree.toMillis());
+            return new Bilan(true, 0, 0, 0, 0, 0, 0, 0, 0, 0, duree);
+        }
+        Bilan bilan = synchronisation.bilan(duree);
+        log.info("Catalogue {} synchronisé en {} ms : catégories +{} ~{} -{} ({} absentes conservées), "
+                        + "aliments +{} ~{} -{} ({} absents conservés, {} ignorés)",
+                source, duree.toMillis(), bilan.categoriesCreees(), bilan.categoriesModifiees(),
+                bilan.categoriesSupprimees(), bilan.categoriesConservees(), bilan.alimentsCrees(),
+                bilan.alimentsModifies(), bilan.alimentsSupprimes(), bilan.alimentsConserves(),
+                bilan.alimentsIgnores());
+        return bilan;
+    }
+
+    /**
+     * Différences entre le fichier et la base, appliquées au fil de la lecture
+     */
+    private final class Synchronisation {
+
+        private final String source;
+        private final Map<String, Categorie> categoriesExistantes = new HashMap<>();
+        private final Map<String, Categorie> categoriesParNom = new HashMap<>();
+        private final Map<String, Existant> alimentsExistants = new HashMap<>();
+        private final List<Long> alimentsEnDouble = new ArrayList<>();
+        private final Set<String> clesLues = new HashSet<>();
+
+        private final List<Aliment> aCreer = new ArrayList<>(TAILLE_LOT);
+        private final List<Aliment> aModifier = new ArrayList<>(TAILLE_LOT);
+        private final List<Long> aRevendiquer = new ArrayList<>(TAILLE_LOT);
+
+        private ImportCatalogueService.Bilan importInitial;
+        private int categoriesCreees;
+        private int categoriesModifiees;
+        private int categoriesSupprimees;
+        private int categoriesConservees;
+        private long alimentsCrees;
+        private long alimentsModifies;
+        private long alimentsSupprimes;
+        private long alimentsConserves;
+        private long alimentsIgnores;
+
+        Synchronisation(String source) {
+            this.source = source;
+        }
+
+        void appliquer(Resource catalogue) throws IOException {
+            for (Categorie categorie : categorieJdbcRepository.findAll()) {
+                categoriesExistantes.put(categorie.getNom(), categorie);
+            }
+            // Seule une empreinte (id, contenu) par aliment est gardée en mémoire
+            alimentJdbcRepository.parcourirDepuis(0, aliment -> {
+                Existant precedent = alimentsExistants.put(
+                        cle(aliment.getNom(), aliment.getCategorie().getNom()),
+                        new Existant(aliment.getId(), empreinte(aliment)));
+                if (precedent != null) {
+                    alimentsEnDouble.add(precedent.id());
+                }
+            });
+
+            if (categoriesExistantes.isEmpty() && alimentsExistants.isEmpty()) {
+                try (InputStream entree = catalogue.getInputStream()) {
+                    importInitial = importCatalogueService.importer(entree, source);
+                }
+                return;
+            }
+
+            try (InputStream entree = catalogue.getInputStream();
+                 JsonParser parser = objectMapper.createParser(entree)) {
+                if (parser.nextToken() != JsonToken.START_OBJECT) {
+                    throw new IllegalArgumentException("Le catalogue doit être un objet JSON");
+                }
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String champ = parser.getCurrentName();
+                    parser.nextToken();
+                    switch (champ) {
+                        case "categories" -> synchroniserCategories(parser);
+                        case "aliments" -> synchroniserAliments(parser);
+                        default -> parser.skipChildren();
+                    }
+                }
+            }
+            envoyerLots();
+
+            // Restent les aliments absents du fichier, puis les catégories absentes
+            List<Long> absents = new ArrayList<>(alimentsEnDouble);
+            alimentsExistants.values().forEach(existant -> absents.add(existant.id()));
+            alimentsSupprimes = alimentJdbcRepository.supprimerDuCatalogue(source, absents);
+            alimentsConserves = absents.size() - alimentsSupprimes;
+            for (Categorie categorie : categoriesExistantes.values()) {
+                if (categoriesParNom.containsKey(categorie.getNom())) {
+                    continue;
+                }
+                if (categorieJdbcRepository.supprimerDuCatalogueSiVide(source, categorie.getId())) {
+                    categoriesSupprimees++;
+                } else {
+                    categoriesConservees++;
+                }
+            }
+        }
+
+        private void synchroniserCategories(JsonParser parser) throws IOException {
+            verifierTableau(parser, "categories");
+            List<Categorie> nouvelles = new ArrayList<>();
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                LigneCategorie ligne = parser.readValueAs(LigneCategorie.class);
+                if (categoriesParNom.containsKey(ligne.nom())) {
+                    continue;
+                }
+                Categorie existante = categoriesExistantes.get(ligne.nom());
+                if (existante == null) {
+                    Categorie categorie = new Categorie(ligne.nom(), ligne.description());
+                    categoriesParNom.put(categorie.getNom(), categorie);
+                    nouvelles.add(categorie);
+                    continue;
+                }
+                categoriesParNom.put(existante.getNom(), existante);
+                categorieJdbcRepository.revendiquer(source, existante.getId());
+                if (!Objects.equals(existante.getDescription(), ligne.description())) {
+                    existante.setDescription(ligne.description());
+                    categorieJdbcRepository.save(existante);
+                    categoriesModifiees++;
+                }
+            }
+            alimentJdbcRepository.insertCategories(nouvelles, source);
+            categoriesCreees += nouvelles.size();
+        }
+
+        private void synchroniserAliments(JsonParser parser) throws IOException {
+            verifierTableau(parser, "aliments");
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                LigneAliment ligne = parser.readValueAs(LigneAliment.class);
+                Categorie categorie = categoriesParNom.get(ligne.categorieNom());
+                if (categorie == null) {
+                    log.warn("Catégorie non trouvée pour l'aliment : {}", ligne.nom());
+                    alimentsIgnores++;
+                    continue;
+                }
+                String cle = cle(ligne.nom(), categorie.getNom());
+                if (!clesLues.add(cle)) {
+                    log.warn("Aliment en double dans le catalogue : {} ({})", ligne.nom(), categorie.getNom());
+                    alimentsIgnores++;
+                    continue;
+                }
+
+                Aliment aliment = new Aliment(ligne.nom(), ligne.description(), ligne.calories(),
+                        ligne.allergies(), ligne.imageUrl());
+                aliment.setCategorie(categorie);
+                Existant existant = alimentsExistants.remove(cle);
+                if (existant == null) {
+                    aCreer.add(aliment);
+                } else {
+                    aRevendiquer.add(existant.id());
+                    if (existant.empreinte() != empreinte(aliment)) {
+                        aliment.setId(existant.id());
+                        aModifier.add(aliment);
+                    }
+                }
+                if (aCreer.size() == TAILLE_LOT || aRevendiquer.size() == TAILLE_LOT) {
+                    envoyerLots();
+                }
+            }
+        }
+
+        private void envoyerLots() {
+            if (!aCreer.isEmpty()) {
+                alimentJdbcRepository.insertAll(aCreer, source);
+                alimentsCrees += aCreer.size();
+                aCreer.clear();
+            }
+            if (!aModifier.isEmpty()) {
+                alimentJdbcRepository.updateAll(aModifier);
+                alimentsModifies += aModifier.size();
+                aModifier.clear();
+            }
+            if (!aRevendiquer.isEmpty()) {
+                alimentJdbcRepository.revendiquer(source, aRevendiquer);
+                aRevendiquer.clear();
+            }
+        }
+
+        Bilan bilan(Duration duree) {
+            if (importInitial != null) {
+                return new Bilan(false, importInitial.categories(), 0, 0, 0,
+                        importInitial.aliments(), 0, 0, 0, importInitial.alimentsIgnores(), duree);
+            }
+            return new Bilan(false, categoriesCreees, categoriesModifiees, categoriesSupprimees, categoriesConservees,
+                    alimentsCrees, alimentsModifies, alimentsSupprimes, alimentsConserves, alimentsIgnores, duree);
+        }
+    }
+
+    private record Existant(long id, long empreinte) {}
+
+    private static String cle(String nom, String categorieNom) {
+        return nom + SEPARATEUR + categorieNom;
+    }
+
+    /**
+     * Empreinte (FNV-1a 64 bits) des colonnes synchronisées hors clé naturelle.
+     * Les calories sont comparées à la précision de la colonne (2 décimales).
+     */
+    static long empreinte(Aliment aliment) {
+        BigDecimal calories = aliment.getCaloriesPer100g();
+        String contenu = aliment.getDescription() + SEPARATEUR
+                + (calories != null ? calories.setScale(2, RoundingMode.HALF_UP).toPlainString() : null) + SEPARATEUR
+                + aliment.getAllergies() + SEPARATEUR
+                + aliment.getImageUrl();
+        long empreinte = 0xcbf29ce484222325L;
+        for (byte octet : contenu.getBytes(StandardCharsets.UTF_8)) {
+            empreinte ^= octet & 0xff;
+            empreinte *= 0x100000001b3L;
+        }
+        return empreinte;
+    }
+
+    /**
+     * SHA-256 du fichier, lu en flux
+     */
+    private static String empreinteFichier(Resource catalogue) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        try (InputStream entree = new DigestInputStream(catalogue.getInputStream(), digest)) {
+            entree.transferTo(OutputStream.nullOutputStream());
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static void verifierTableau(JsonParser parser, String champ) {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            throw new IllegalArgumentException("Le champ \"" + champ + "\" doit être un tableau");
+        }
+    }
+}
@@ -3,6 +3,7 @@ CREATE TABLE IF NOT EXISTS categories (
     id SERIAL PRIMARY KEY,
     nom VARCHAR(100) NOT NULL UNIQUE,
     description TEXT,
+    source_catalogue VARCHAR(500), -- catalogue synchronisé d'origine ; NULL : créée par l'API
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
 );
 
@@ -13,12 +14,20 @@ CREATE TABLE IF NOT EXISTS aliments (
     description TEXT,
     calories_per_100g DECIMAL(8,2),
     allergies TEXT,
+    allergenes_masque BIGINT NOT NULL DEFAULT 0, -- bits de com.buffet.model.Allergene
     image_url VARCHAR(500),
     categorie_id INTEGER NOT NULL,
+    source_catalogue VARCHAR(500), -- catalogue synchronisé d'origine ; NULL : créé par l'API
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     FOREIGN KEY (categorie_id) REFERENCES categories(id) ON DELETE CASCADE
 );
 
+-- Bases existantes : ajout du masque d'allergènes, recalculé au démarrage (MasquesAllergenesConfig)
+ALTER TABLE aliments ADD COLUMN IF NOT EXISTS allergenes_masque BIGINT NOT NULL DEFAULT 0;
+-- Bases existantes : origine des lignes, revendiquée par la prochaine synchronisation
+ALTER TABLE categories ADD COLUMN IF NOT EXISTS source_catalogue VARCHAR(500);
+ALTER TABLE aliments ADD COLUMN IF NOT EXISTS source_catalogue VARCHAR(500);
+
 -- Création de la table repas
 CREATE TABLE IF NOT EXISTS repas (
     id SERIAL PRIMARY KEY,
@@ -40,8 +49,18 @@ CREATE TABLE IF NOT EXISTS repas_aliments (
     FOREIGN KEY (aliment_id) REFERENCES aliments(id) ON DELETE CASCADE
 );
 
+-- Dernière synchronisation de chaque catalogue source (empreinte SHA-256 du fichier)
+CREATE TABLE IF NOT EXISTS catalogue_sync (
+    source VARCHAR(500) PRIMARY KEY,
+    empreinte VARCHAR(64) NOT NULL,
+    synchronise_le TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
 -- Index pour améliorer les performances
 CREATE INDEX IF NOT EXISTS idx_aliments_categorie ON aliments(categorie_id);
+-- Pagination par clé des listes d'aliments : (nom, id) et (calories, id)
+CREATE INDEX IF NOT EXISTS idx_aliments_nom_id ON aliments(nom, id);
+CREATE INDEX IF NOT EXISTS idx_aliments_calories_id ON aliments(calories_per_100g, id);
 CREATE INDEX IF NOT EXISTS idx_repas_date ON repas(date_repas);
 CREATE INDEX IF NOT EXISTS idx_repas_aliments_repas ON repas_aliments(repas_id);
 CREATE INDEX IF NOT EXISTS idx_repas_aliments_aliment ON repas_aliments(aliment_id); 
\ No newline at end of file
@@ -0,0 +1,148 @@
+package com.buffet.catalogue;
+
+import com.buffet.model.Aliment;
+import com.buffet.model.Categorie;
+import com.buffet.service.AlimentService;
+import com.buffet.service.CategorieService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Classement de la recherche sur un petit catalogue fixe, et mises à jour de l'index
+ * après validation de la transaction d'écriture
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class IndexRechercheTest {
+
+    @Autowired
+    private AlimentService alimentService;
+
+    @Autowired
+    private CategorieService categorieService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * Index construit : les écritures suivantes le modifient au lieu d'être relues du snapshot
+     */
+    @BeforeEach
+    void construireIndex() {
+        alimentService.rechercher("pomme", 1);
+    }
+
+    @Test
+    void ecritureAnnuleeAbsenteDeLIndex() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(statut -> {
+            alimentService.save(nouvelAliment("Quetsche annulée"));
+            statut.setRollbackOnly();
+        });
+
+        assertThat(alimentService.rechercher("Quetsche annulée", 5)).isEmpty();
+    }
+
+    @Test
+    void ecritureValideeIndexeePuisRetiree() {
+        Aliment aliment = alimentService.save(nouvelAliment("Quetsche validée"));
+        assertThat(alimentService.rechercher("Quetsche validée", 5))
+                .extracting(Aliment::getId)
+                .containsExactly(aliment.getId());
+
+        alimentService.deleteById(aliment.getId());
+        assertThat(alimentService.rechercher("Quetsche validée", 5)).isEmpty();
+    }
+
+    @Test
+    void saisieCourteTrouveeAuMilieuDUnMot() {
+        Aliment aliment = alimentService.save(nouvelAliment("Quetsche courte"));
+        try {
+            assertThat(alimentService.rechercher("ts", 1000))
+                    .extracting(Aliment::getId)
+                    .contains(aliment.getId());
+            assertThat(alimentService.rechercher("Qu", 1000))
+                    .extracting(Aliment::getId)
+                    .contains(aliment.getId());
+        } finally {
+            alimentService.deleteById(aliment.getId());
+        }
+    }
+
+    @Test
+    void accentsEtCasseIgnores() {
+        IndexRecherche index = index("Épinards", "Légumes variés", "Crème brûlée", "Pâtes");
+
+        assertThat(noms(index.rechercher("legumes", 10))).containsExactly("Légumes variés");
+        assertThat(noms(index.rechercher("LÉGUMES VARIÉS", 10))).containsExactly("Légumes variés");
+        assertThat(noms(index.rechercher("creme brulee", 10))).containsExactly("Crème brûlée");
+        assertThat(noms(index.rechercher("epinards", 10))).containsExactly("Épinards");
+    }
+
+    /**
+     * Nom égal, puis commençant par la saisie, mot commençant par la saisie, nom
+     * contenant la saisie, et enfin nom proche ; les noms trop éloignés sont écartés
+     */
+    @Test
+    void classementParRang() {
+        IndexRecherche index = index("Potiron", "Pome", "Tartepomme", "Compote de pomme", "Pommeau", "Pomme");
+
+        assertThat(noms(index.rechercher("pomme", 10)))
+                .containsExactly("Pomme", "Pommeau", "Compote de pomme", "Tartepomme", "Pome");
+        assertThat(noms(index.rechercher("pomme", 2))).containsExactly("Pomme", "Pommeau");
+    }
+
+    /**
+     * Faute de frappe retenue au-delà de {@link IndexRecherche#SEUIL_SIMILARITE} de
+     * trigrammes communs, écartée en deçà
+     */
+    @Test
+    void seuilDeSimilariteDesFautesDeFrappe() {
+        IndexRecherche index = index("Brocoli", "Carotte", "Courgette");
+
+        // "brocolli" : 7 trigrammes communs sur 10 distincts (0.7)
+        assertThat(noms(index.rechercher("brocolli", 10))).containsExactly("Brocoli");
+        // "carote" : 6 sur 9 (0.67)
+        assertThat(noms(index.rechercher("carote", 10))).containsExactly("Carotte");
+        // "cabri" : 2 trigrammes communs avec "Carotte" sur 12 (0.17), aucun nom retenu
+        assertThat(index.rechercher("cabri", 10)).isEmpty();
+    }
+
+    /**
+     * Index sur un catalogue réduit aux noms donnés, sans base de données
+     */
+    private static IndexRecherche index(String... noms) {
+        Categorie categorie = new Categorie("Divers", "");
+        categorie.setId(1L);
+        List<Aliment> aliments = new ArrayList<>();
+        for (String nom : noms) {
+            Aliment aliment = new Aliment(nom, "", new BigDecimal("50"), "", null);
+            aliment.setId((long) aliments.size() + 1);
+            aliment.setCategorie(categorie);
+            aliments.add(aliment);
+        }
+        CatalogueCache catalogueCache = new CatalogueCache(null, null);
+        catalogueCache.publierSiAbsent(version -> CatalogueSnapshot.construire(version, List.of(categorie), aliments));
+        return new IndexRecherche(catalogueCache);
+    }
+
+    private static List<String> noms(List<Aliment> aliments) {
+        return aliments.stream().map(Aliment::getNom).toList();
+    }
+
+    private Aliment nouvelAliment(String nom) {
+        Aliment aliment = new Aliment(nom, "Prune d'Alsace", new BigDecimal("46"), "", null);
+        aliment.setCategorie(categorieService.findByNom("Fruits"));
+        return aliment;
+    }
+}
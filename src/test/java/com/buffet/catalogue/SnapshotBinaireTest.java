@@ -0,0 +1,128 @@
+package com.buffet.catalogue;
+
+import com.buffet.model.Aliment;
+import com.buffet.model.Categorie;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Écriture puis relecture du snapshot binaire, et rejet des fichiers abîmés
+ */
+class SnapshotBinaireTest {
+
+    @TempDir
+    Path dossier;
+
+    @Test
+    void snapshotRelu() throws IOException {
+        CatalogueSnapshot source = catalogue();
+        Path fichier = dossier.resolve("catalogue.snapshot");
+        SnapshotBinaire.ecrire(source, fichier);
+
+        CatalogueSnapshot relu = SnapshotBinaire.lire(fichier, 7);
+
+        assertThat(relu.getVersion()).isEqualTo(7);
+        assertThat(relu.getCategories()).hasSameSizeAs(source.getCategories());
+        for (int i = 0; i < source.getCategories().size(); i++) {
+            Categorie attendue = source.getCategories().get(i);
+            Categorie lue = relu.getCategories().get(i);
+            assertThat(lue.getId()).isEqualTo(attendue.getId());
+            assertThat(lue.getNom()).isEqualTo(attendue.getNom());
+            assertThat(lue.getDescription()).isEqualTo(attendue.getDescription());
+            assertThat(lue.getCreatedAt()).isEqualTo(attendue.getCreatedAt());
+            assertThat(lue.getAliments()).extracting(Aliment::getId)
+                    .containsExactlyElementsOf(attendue.getAliments().stream().map(Aliment::getId).toList());
+        }
+
+        assertThat(relu.getAliments()).hasSameSizeAs(source.getAliments());
+        for (int i = 0; i < source.getAliments().size(); i++) {
+            Aliment attendu = source.getAliments().get(i);
+            Aliment lu = relu.getAliments().get(i);
+            assertThat(lu.getId()).isEqualTo(attendu.getId());
+            assertThat(lu.getNom()).isEqualTo(attendu.getNom());
+            assertThat(lu.getDescription()).isEqualTo(attendu.getDescription());
+            if (attendu.getCaloriesPer100g() == null) {
+                assertThat(lu.getCaloriesPer100g()).isNull();
+            } else {
+                assertThat(lu.getCaloriesPer100g()).isEqualByComparingTo(attendu.getCaloriesPer100g());
+            }
+            assertThat(lu.getAllergies()).isEqualTo(attendu.getAllergies());
+            assertThat(lu.getAllergenesMasque()).isEqualTo(attendu.getAllergenesMasque());
+            assertThat(relu.getAllergenes().getMasque(i)).isEqualTo(source.getAllergenes().getMasque(i));
+            assertThat(lu.getImageUrl()).isEqualTo(attendu.getImageUrl());
+            assertThat(lu.getCreatedAt()).isEqualTo(attendu.getCreatedAt());
+            if (attendu.getCategorie() == null) {
+                assertThat(lu.getCategorie()).isNull();
+            } else {
+                assertThat(lu.getCategorie().getId()).isEqualTo(attendu.getCategorie().getId());
+            }
+        }
+        assertThat(relu.getAllergenes().getMasque(1)).isNotZero();
+    }
+
+    @Test
+    void fichierTronqueRefuse() throws IOException {
+        Path fichier = dossier.resolve("catalogue.snapshot");
+        SnapshotBinaire.ecrire(catalogue(), fichier);
+        byte[] octets = Files.readAllBytes(fichier);
+        Files.write(fichier, Arrays.copyOf(octets, octets.length - 1));
+
+        assertThatThrownBy(() -> SnapshotBinaire.lire(fichier, 1)).isInstanceOf(IOException.class);
+    }
+
+    @Test
+    void octetModifieRefuse() throws IOException {
+        Path fichier = dossier.resolve("catalogue.snapshot");
+        SnapshotBinaire.ecrire(catalogue(), fichier);
+        byte[] octets = Files.readAllBytes(fichier);
+        octets[octets.length - 3] ^= 0x01;
+        Files.write(fichier, octets);
+
+        assertThatThrownBy(() -> SnapshotBinaire.lire(fichier, 1)).isInstanceOf(IOException.class);
+    }
+
+    /**
+     * Deux catégories, un aliment sans catégorie (ordinal -1), chaînes et dates absentes,
+     * noms UTF-8 sur plusieurs octets
+     */
+    private static CatalogueSnapshot catalogue() {
+        Categorie fruits = categorie(1L, "Fruits d'été", "Récoltés en juillet", LocalDateTime.of(2024, 7, 1, 8, 30, 15, 123_456_000));
+        Categorie epices = categorie(2L, "Épices 香辛料", null, null);
+
+        List<Aliment> aliments = List.of(
+                aliment(10L, "Pêche blanche", "Très juteuse", new BigDecimal("39.25"), "Aucune allergie connue",
+                        "https://exemple.fr/peche.jpg", fruits, LocalDateTime.of(2024, 7, 2, 0, 0, 0, 1_000)),
+                aliment(11L, "Crème brûlée 🍮", null, null, "Lait, œufs", null, epices, null),
+                aliment(12L, "Noix de cajou", "Grillées", new BigDecimal("553"), "Fruits à coque", null, null,
+                        LocalDateTime.of(1969, 12, 31, 23, 59, 59, 999_999_000)));
+        return CatalogueSnapshot.construire(3, List.of(fruits, epices), aliments);
+    }
+
+    private static Categorie categorie(Long id, String nom, String description, LocalDateTime creation) {
+        Categorie categorie = new Categorie(nom, description);
+        categorie.setId(id);
+        categorie.setCreatedAt(creation);
+        return categorie;
+    }
+
+    private static Aliment aliment(Long id, String nom, String description, BigDecimal calories, String allergies,
+                                   String imageUrl, Categorie categorie, LocalDateTime creation) {
+        Aliment aliment = new Aliment(nom, description, calories, null, imageUrl);
+        aliment.setId(id);
+        aliment.setAllergies(allergies);
+        aliment.setCategorie(categorie);
+        aliment.setCreatedAt(creation);
+        return aliment;
+    }
+}
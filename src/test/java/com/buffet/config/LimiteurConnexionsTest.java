@@ -0,0 +1,146 @@
+package com.buffet.config;
+
+import com.buffet.exception.ConnexionsSatureesException;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Limiteur à un seul permis devant une source de données factice, dont les
+ * connexions ne font que compter leurs fermetures
+ */
+class LimiteurConnexionsTest {
+
+    private static final Duration ATTENTE_LONGUE = Duration.ofSeconds(10);
+
+    private final AtomicInteger fermetures = new AtomicInteger();
+
+    @Test
+    void demandesEnAttenteServiesDansLOrdreDArrivee() throws Exception {
+        LimiteurConnexions limiteur = new LimiteurConnexions(sourceFactice(), 1, 3, ATTENTE_LONGUE);
+        Connection occupee = limiteur.getConnection();
+
+        Queue<String> servies = new ConcurrentLinkedQueue<>();
+        Queue<Throwable> erreurs = new ConcurrentLinkedQueue<>();
+        List<Thread> demandes = new ArrayList<>();
+        for (String nom : List.of("A", "B", "C")) {
+            Thread demande = new Thread(() -> {
+                try (Connection connexion = limiteur.getConnection()) {
+                    servies.add(nom);
+                } catch (Throwable e) {
+                    erreurs.add(e);
+                }
+            });
+            demande.start();
+            attendreEnFile(demande);
+            demandes.add(demande);
+        }
+        assertThat(limiteur.getEnAttente()).isEqualTo(3);
+
+        occupee.close();
+        for (Thread demande : demandes) {
+            demande.join(ATTENTE_LONGUE.toMillis());
+        }
+
+        assertThat(erreurs).isEmpty();
+        assertThat(servies).containsExactly("A", "B", "C");
+        assertThat(limiteur.getEnAttente()).isZero();
+    }
+
+    @Test
+    void demandeAuDelaDeLaFileRefuseeSansAttendre() throws Exception {
+        LimiteurConnexions limiteur = new LimiteurConnexions(sourceFactice(), 1, 1, ATTENTE_LONGUE);
+        Connection occupee = limiteur.getConnection();
+        Thread enFile = new Thread(() -> {
+            try (Connection connexion = limiteur.getConnection()) {
+                // servie à la fermeture de la connexion occupée
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        enFile.start();
+        attendreEnFile(enFile);
+
+        long debut = System.nanoTime();
+        assertThatThrownBy(limiteur::getConnection).isInstanceOf(ConnexionsSatureesException.class);
+        assertThat(Duration.ofNanos(System.nanoTime() - debut)).isLessThan(Duration.ofSeconds(1));
+
+        occupee.close();
+        enFile.join(ATTENTE_LONGUE.toMillis());
+        assertThat(enFile.isAlive()).isFalse();
+    }
+
+    @Test
+    void demandeRefuseeApresLAttente() throws Exception {
+        Duration attente = Duration.ofMillis(200);
+        LimiteurConnexions limiteur = new LimiteurConnexions(sourceFactice(), 1, 1, attente);
+        Connection occupee = limiteur.getConnection();
+
+        long debut = System.nanoTime();
+        assertThatThrownBy(limiteur::getConnection).isInstanceOf(ConnexionsSatureesException.class);
+        assertThat(Duration.ofNanos(System.nanoTime() - debut)).isGreaterThanOrEqualTo(attente);
+        assertThat(limiteur.getEnAttente()).isZero();
+
+        occupee.close();
+    }
+
+    @Test
+    void doubleFermetureNeRendQuUnPermis() throws Exception {
+        LimiteurConnexions limiteur = new LimiteurConnexions(sourceFactice(), 1, 0, Duration.ofMillis(50));
+        Connection connexion = limiteur.getConnection();
+        connexion.close();
+        connexion.close();
+        assertThat(fermetures).hasValue(1);
+
+        Connection suivante = limiteur.getConnection();
+        assertThatThrownBy(limiteur::getConnection).isInstanceOf(ConnexionsSatureesException.class);
+        suivante.close();
+    }
+
+    /**
+     * Attend que la demande soit bloquée sur le sémaphore, et non seulement comptée en attente
+     */
+    private static void attendreEnFile(Thread demande) throws InterruptedException {
+        long limite = System.nanoTime() + ATTENTE_LONGUE.toNanos();
+        while (demande.getState() != Thread.State.TIMED_WAITING) {
+            if (System.nanoTime() > limite || !demande.isAlive()) {
+                throw new IllegalStateException("Demande " + demande.getName() + " jamais mise en attente");
+            }
+            Thread.sleep(1);
+        }
+    }
+
+    private DataSource sourceFactice() {
+        return (DataSource) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{DataSource.class},
+                (proxy, methode, arguments) -> switch (methode.getName()) {
+                    case "getConnection" -> connexionFactice();
+                    case "isWrapperFor" -> false;
+                    case "toString" -> "Source factice";
+                    default -> throw new UnsupportedOperationException(methode.getName());
+                });
+    }
+
+    private Connection connexionFactice() {
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, methode, arguments) -> switch (methode.getName()) {
+                    case "close" -> {
+                        fermetures.incrementAndGet();
+                        yield null;
+                    }
+                    case "isClosed" -> false;
+                    case "toString" -> "Connexion factice";
+                    default -> throw new UnsupportedOperationException(methode.getName());
+                });
+    }
+}
@@ -0,0 +1,21 @@
+package com.buffet.config;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Nombre maximal de requêtes SQL de chaque appel fait avec le MockMvc reçu en
+ * paramètre par le test ; un appel qui le dépasse échoue avec les requêtes les
+ * plus répétées. Le test doit charger le contexte Spring (@SpringBootTest).
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@ExtendWith(MaxRequetesSqlExtension.class)
+public @interface MaxRequetesSql {
+
+    int value();
+}
@@ -0,0 +1,56 @@
+package com.buffet.config;
+
+import jakarta.servlet.Filter;
+import jakarta.servlet.http.HttpServletRequest;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.ParameterContext;
+import org.junit.jupiter.api.extension.ParameterResolver;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.Map;
+
+/**
+ * Fournit au test annoté {@link MaxRequetesSql} un MockMvc dont chaque appel est
+ * encadré par {@link CompteurSql} : le relevé est démarré avant le filtre de
+ * Spring MVC et arrêté après l'écriture de la réponse, chargements paresseux de la
+ * sérialisation compris.
+ */
+class MaxRequetesSqlExtension implements ParameterResolver {
+
+    @Override
+    public boolean supportsParameter(ParameterContext parametre, ExtensionContext contexte) {
+        return parametre.getParameter().getType() == MockMvc.class
+                && parametre.getDeclaringExecutable().isAnnotationPresent(MaxRequetesSql.class);
+    }
+
+    @Override
+    public Object resolveParameter(ParameterContext parametre, ExtensionContext contexte) {
+        int max = contexte.getRequiredTestMethod().getAnnotation(MaxRequetesSql.class).value();
+        WebApplicationContext application = (WebApplicationContext) SpringExtension.getApplicationContext(contexte);
+        return MockMvcBuilders.webAppContextSetup(application)
+                .addFilters(budget(max))
+                .build();
+    }
+
+    private static Filter budget(int max) {
+        return (requete, reponse, chaine) -> {
+            CompteurSql.demarrer();
+            CompteurSql.Releve releve;
+            try {
+                chaine.doFilter(requete, reponse);
+            } finally {
+                releve = CompteurSql.arreter();
+            }
+            if (releve.getTotal() > max) {
+                HttpServletRequest http = (HttpServletRequest) requete;
+                Map.Entry<String, Integer> repetee = releve.getPlusRepetee();
+                throw new AssertionError(String.format("%s %s : %d requêtes SQL pour %d au plus (%d fois %s)",
+                        http.getMethod(), http.getRequestURI(), releve.getTotal(), max,
+                        repetee.getValue(), repetee.getKey()));
+            }
+        };
+    }
+}
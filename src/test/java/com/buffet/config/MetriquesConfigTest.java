@@ -0,0 +1,35 @@
+package com.buffet.config;
+
+import com.buffet.service.BuffetService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Méthodes des services chronométrées sous buffet.service
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class MetriquesConfigTest {
+
+    @Autowired
+    private BuffetService buffetService;
+
+    @Autowired
+    private MeterRegistry registre;
+
+    @Test
+    void appelDeServiceChronometre() {
+        buffetService.calculerBuffetEconomique(12);
+
+        assertThat(registre.get("buffet.service")
+                .tag("class", BuffetService.class.getName())
+                .tag("method", "calculerBuffetEconomique")
+                .timer()
+                .count()).isPositive();
+    }
+}
@@ -0,0 +1,121 @@
+package com.buffet.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Routage des lectures seules sur deux bases H2 en mémoire, l'une servant de primaire,
+ * l'autre de réplica. La table base de chacune donne son nom ; la table replication
+ * du réplica fournit le retard lu par la vérification.
+ */
+class RoutageLectureDataSourceTest {
+
+    private static final Duration DELAI_MAX = Duration.ofSeconds(5);
+
+    private JdbcTemplate primaire;
+    private JdbcTemplate replica;
+    private RoutageLectureDataSource routage;
+    private JdbcTemplate jdbc;
+    private TransactionTemplate lecture;
+    private TransactionTemplate ecriture;
+
+    @BeforeEach
+    void demarrer() {
+        DataSource basePrimaire = base("routage-primaire");
+        DataSource baseReplica = base("routage-replica");
+        primaire = new JdbcTemplate(basePrimaire);
+        replica = new JdbcTemplate(baseReplica);
+        primaire.execute("CREATE TABLE base (nom VARCHAR(20))");
+        primaire.update("INSERT INTO base VALUES ('primaire')");
+        replica.execute("CREATE TABLE base (nom VARCHAR(20))");
+        replica.update("INSERT INTO base VALUES ('replica')");
+        replica.execute("CREATE TABLE replication (retard DOUBLE)");
+        replica.update("INSERT INTO replication VALUES (0)");
+
+        // Vérification toutes les 50 ms au lieu de 2 s, pour des tests rapides
+        routage = new RoutageLectureDataSource(basePrimaire, Map.of("replica-0", baseReplica),
+                RoutageLectureDataSource.Selection.TOUR_DE_ROLE, Duration.ofSeconds(5),
+                "SELECT retard FROM replication", Duration.ofMillis(50));
+        LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(routage);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(proxy);
+        jdbc = new JdbcTemplate(proxy);
+        lecture = new TransactionTemplate(transactionManager);
+        lecture.setReadOnly(true);
+        ecriture = new TransactionTemplate(transactionManager);
+    }
+
+    @AfterEach
+    void arreter() {
+        routage.close();
+        primaire.execute("DROP ALL OBJECTS");
+        replica.execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    void lecturesSeulesSurLeReplicaEcrituresSurLaPrimaire() throws InterruptedException {
+        attendre("replica");
+
+        assertThat(lireSeul()).isEqualTo("replica");
+        assertThat(RoutageLectureDataSource.surPrimaire(this::lireSeul)).isEqualTo("primaire");
+        String baseEcriture = ecriture.execute(status -> {
+            jdbc.update("INSERT INTO base VALUES ('ecrit')");
+            return nomBase();
+        });
+        assertThat(baseEcriture).isEqualTo("primaire");
+        assertThat(primaire.queryForObject("SELECT COUNT(*) FROM base WHERE nom = 'ecrit'", Integer.class))
+                .isEqualTo(1);
+        assertThat(replica.queryForObject("SELECT COUNT(*) FROM base WHERE nom = 'ecrit'", Integer.class))
+                .isZero();
+    }
+
+    @Test
+    void repliSurLaPrimaireQuandLeReplicaEstEcarte() throws InterruptedException {
+        attendre("replica");
+
+        // Retard au-delà du seuil
+        replica.update("UPDATE replication SET retard = 60");
+        attendre("primaire");
+
+        replica.update("UPDATE replication SET retard = 0");
+        attendre("replica");
+
+        // Vérification en échec
+        replica.execute("DROP TABLE replication");
+        attendre("primaire");
+    }
+
+    private String lireSeul() {
+        return lecture.execute(status -> nomBase());
+    }
+
+    private String nomBase() {
+        return jdbc.queryForObject("SELECT nom FROM base WHERE nom <> 'ecrit'", String.class);
+    }
+
+    /**
+     * Attend que les lectures seules soient servies par la base attendue
+     */
+    private void attendre(String attendue) throws InterruptedException {
+        long limite = System.nanoTime() + DELAI_MAX.toNanos();
+        while (!attendue.equals(lireSeul()) && System.nanoTime() < limite) {
+            Thread.sleep(20);
+        }
+        assertThat(lireSeul()).isEqualTo(attendue);
+    }
+
+    private static DataSource base(String nom) {
+        return new DriverManagerDataSource("jdbc:h2:mem:" + nom + ";DB_CLOSE_DELAY=-1", "sa", "");
+    }
+}
@@ -0,0 +1,219 @@
+package com.buffet.controller;
+
+import com.buffet.catalogue.CatalogueCache;
+import com.buffet.config.MaxRequetesSql;
+import com.buffet.model.Aliment;
+import com.buffet.service.AlimentService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Lectures d'aliments servies par le snapshot du catalogue, sur le catalogue de data.json,
+ * et export NDJSON lu en base
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class AlimentControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CatalogueCache catalogueCache;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private AlimentService alimentService;
+
+    @Test
+    @MaxRequetesSql(0)
+    void alimentsDepuisLeSnapshot(MockMvc mesure) throws Exception {
+        int taille = catalogueCache.getSnapshot().size();
+
+        mesure.perform(get("/api/aliments"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(taille)))
+                .andExpect(jsonPath("$[0].nom").exists());
+    }
+
+    @Test
+    void projectionAvecCategorie() throws Exception {
+        mockMvc.perform(get("/api/aliments/calories").param("minCalories", "0").param("maxCalories", "1000")
+                        .param("taille", "2").param("fields", "nom,categorie"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].categorie.id").isNumber())
+                .andExpect(jsonPath("$[0].categorie.nom").isString())
+                .andExpect(jsonPath("$[0].caloriesPer100g").doesNotExist());
+    }
+
+    /**
+     * Sans fields, une page a les champs de la liste non paginée : pas de catégorie
+     */
+    @Test
+    void pageSansFieldsCommeLaListe() throws Exception {
+        mockMvc.perform(get("/api/aliments/calories").param("minCalories", "0").param("maxCalories", "1000"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].categorie").doesNotExist());
+        mockMvc.perform(get("/api/aliments/calories").param("minCalories", "0").param("maxCalories", "1000")
+                        .param("taille", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].nom").isString())
+                .andExpect(jsonPath("$[0].caloriesPer100g").isNumber())
+                .andExpect(jsonPath("$[0].categorie").doesNotExist());
+    }
+
+    /**
+     * Corps et ETag tirés du même aliment du snapshot, sans lecture en base (ni sur un réplica)
+     */
+    @Test
+    @MaxRequetesSql(0)
+    void alimentParIdDepuisLeSnapshot(MockMvc mesure) throws Exception {
+        Aliment aliment = catalogueCache.getSnapshot().getAliments().get(1);
+
+        mesure.perform(get("/api/aliments/{id}", aliment.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, catalogueCache.getValidateurs(aliment).etag()))
+                .andExpect(jsonPath("$.id").value(aliment.getId()))
+                .andExpect(jsonPath("$.nom").value(aliment.getNom()))
+                .andExpect(jsonPath("$.allergies").value(aliment.getAllergies()));
+        mesure.perform(get("/api/aliments/{id}", Long.MAX_VALUE))
+                .andExpect(status().isNotFound());
+    }
+
+    /**
+     * ETag propre à l'aliment : un rechargement du catalogue change l'ETag de la liste, pas le sien
+     */
+    @Test
+    void etagParAliment() throws Exception {
+        long id = catalogueCache.getSnapshot().getAliments().get(0).getId();
+        String etagAliment = mockMvc.perform(get("/api/aliments/{id}", id))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        String etagListe = mockMvc.perform(get("/api/aliments"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        catalogueCache.rafraichir();
+
+        mockMvc.perform(get("/api/aliments/{id}", id).header(HttpHeaders.IF_NONE_MATCH, etagAliment))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/api/aliments").header(HttpHeaders.IF_NONE_MATCH, etagListe))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not(etagListe)));
+    }
+
+    /**
+     * Pagination de la recherche sur le classement de l'index : accents ignorés
+     */
+    @Test
+    void recherchePagineeSansAccents() throws Exception {
+        mockMvc.perform(get("/api/aliments/recherche").param("nom", "epinards").param("taille", "20"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].nom").value("Épinards"))
+                .andExpect(jsonPath("$[0].caloriesPer100g").isNumber());
+    }
+
+    /**
+     * Pages successives : les résultats de la recherche non paginée, dans le même ordre
+     */
+    @Test
+    void rechercheParPagesDansLOrdreDuClassement() throws Exception {
+        List<Long> attendus = alimentService.rechercher("e", 1000).stream().map(Aliment::getId).toList();
+        assertThat(attendus).hasSizeGreaterThan(10);
+
+        List<Long> obtenus = new ArrayList<>();
+        String apres = null;
+        do {
+            MockHttpServletRequestBuilder requete = get("/api/aliments/recherche").param("nom", "e")
+                    .param("taille", "4").param("fields", "id");
+            if (apres != null) {
+                requete.param("apres", apres);
+            }
+            MvcResult page = mockMvc.perform(requete)
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$[0].nom").doesNotExist())
+                    .andReturn();
+            JsonNode ids = objectMapper.readTree(page.getResponse().getContentAsString(StandardCharsets.UTF_8));
+            ids.forEach(id -> obtenus.add(id.get("id").asLong()));
+            apres = page.getResponse().getHeader(AlimentController.EN_TETE_PAGE_SUIVANTE);
+        } while (apres != null);
+
+        assertThat(obtenus).containsExactlyElementsOf(attendus);
+        mockMvc.perform(get("/api/aliments/recherche").param("nom", "e").param("apres", "pas un rang"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void exportNdjsonParIdCroissant() throws Exception {
+        List<Long> attendus = jdbcTemplate.queryForList("SELECT id FROM aliments ORDER BY id", Long.class);
+
+        List<JsonNode> lignes = exporter(mockMvc, objectMapper, "/api/aliments/export", 0);
+
+        assertThat(lignes).extracting(ligne -> ligne.get("id").asLong()).containsExactlyElementsOf(attendus);
+        assertThat(lignes.get(0).get("nom").asText()).isNotEmpty();
+    }
+
+    @Test
+    void exportRepriseApresId() throws Exception {
+        List<Long> ids = jdbcTemplate.queryForList("SELECT id FROM aliments ORDER BY id", Long.class);
+        long reprise = ids.get(9);
+
+        List<JsonNode> lignes = exporter(mockMvc, objectMapper, "/api/aliments/export", reprise);
+
+        assertThat(lignes).extracting(ligne -> ligne.get("id").asLong())
+                .containsExactlyElementsOf(ids.subList(10, ids.size()));
+    }
+
+    /**
+     * Appelle un export NDJSON (réponse asynchrone) et lit un objet JSON par ligne
+     */
+    static List<JsonNode> exporter(MockMvc mockMvc, ObjectMapper objectMapper, String url, long apresId)
+            throws Exception {
+        MvcResult flux = mockMvc.perform(get(url).param("apresId", String.valueOf(apresId)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String corps = mockMvc.perform(asyncDispatch(flux))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(NdjsonWriter.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+        assertThat(corps).endsWith("\n");
+        List<JsonNode> lignes = new ArrayList<>();
+        for (String ligne : corps.split("\n")) {
+            lignes.add(objectMapper.readTree(ligne));
+        }
+        return lignes;
+    }
+}
@@ -0,0 +1,79 @@
+package com.buffet.controller;
+
+import com.buffet.dto.BuffetLotRequest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.containsStringIgnoringCase;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Calculs de buffet par l'API, sur le catalogue de data.json
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class BuffetControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void buffetSansAllergieExclutLAllergene() throws Exception {
+        mockMvc.perform(get("/api/buffet/sans-allergie/20").param("allergie", "gluten"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.aliments[*].allergies", everyItem(not(containsStringIgnoringCase("gluten")))));
+    }
+
+    @Test
+    void allergieInconnueRefuseeEn400() throws Exception {
+        mockMvc.perform(get("/api/buffet/sans-allergie/20").param("allergie", "kryptonite"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Allergie inconnue : kryptonite"));
+    }
+
+    @Test
+    void lotParMenuCalculeChaqueNombreDInvites() throws Exception {
+        mockMvc.perform(post("/api/buffet/calculer/lot").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"aliments\": [1, 2, 3], \"invites\": [10, 20]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[1].nombreInvites").value(20));
+    }
+
+    @Test
+    void lotVideRefuseEn400() throws Exception {
+        mockMvc.perform(post("/api/buffet/calculer/lot").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"demandes\": []}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errors.demandes").exists());
+        mockMvc.perform(post("/api/buffet/calculer/lot").contentType(MediaType.APPLICATION_JSON)
+                        .content("{}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void lotTropGrandRefuseEn400() throws Exception {
+        String invites = IntStream.rangeClosed(1, BuffetLotRequest.SCENARIOS_MAX + 1)
+                .mapToObj(Integer::toString)
+                .collect(Collectors.joining(","));
+        mockMvc.perform(post("/api/buffet/calculer/lot").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"aliments\": [1], \"invites\": [" + invites + "]}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errors.invites").exists());
+    }
+}
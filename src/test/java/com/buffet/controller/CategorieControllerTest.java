@@ -0,0 +1,204 @@
+package com.buffet.controller;
+
+import com.buffet.catalogue.CatalogueCache;
+import com.buffet.config.MaxRequetesSql;
+import com.buffet.service.SynchronisationCatalogueService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.matchesPattern;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Budget de requêtes SQL des lectures de catégories, sur le catalogue de data.json,
+ * fraîcheur du cache de second niveau après une synchronisation JDBC, et export NDJSON
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class CategorieControllerTest {
+
+    private static final String CATEGORIE_SYNCHRONISEE = "Cache de test";
+    private static final String CATEGORIE_VIDE = "Export sans aliment";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CatalogueCache catalogueCache;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private SynchronisationCatalogueService synchronisationCatalogueService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @AfterEach
+    void nettoyer() {
+        if (jdbcTemplate.update("DELETE FROM categories WHERE nom IN (?, ?)", CATEGORIE_SYNCHRONISEE, CATEGORIE_VIDE) > 0) {
+            catalogueCache.invalider();
+        }
+    }
+
+    /**
+     * Catégories et aliments dans une seule jointure, sérialisation comprise
+     */
+    @Test
+    @MaxRequetesSql(1)
+    void categoriesAvecAlimentsEnUneRequete(MockMvc mesure) throws Exception {
+        mesure.perform(get("/api/categories/avec-aliments"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", not(hasSize(0))))
+                .andExpect(jsonPath("$[0].aliments", not(hasSize(0))));
+    }
+
+    /**
+     * Liste des catégories à froid (snapshot périmé, cache de second niveau vide) :
+     * une seule jointure reconstruit le snapshot qui sert la réponse
+     */
+    @Test
+    @MaxRequetesSql(1)
+    void categoriesAFroidEnUneRequete(MockMvc mesure) throws Exception {
+        catalogueCache.invalider();
+        entityManagerFactory.getCache().evictAll();
+
+        mesure.perform(get("/api/categories"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", not(hasSize(0))))
+                .andExpect(jsonPath("$[0].aliments", not(hasSize(0))));
+    }
+
+    /**
+     * Cache de requêtes et de second niveau : un nom déjà lu ne coûte plus aucune requête
+     */
+    @Test
+    @MaxRequetesSql(0)
+    void categorieParNomSansRequeteCacheChaud(MockMvc mesure) throws Exception {
+        mockMvc.perform(get("/api/categories/nom/Fruits")).andExpect(status().isOk());
+
+        mesure.perform(get("/api/categories/nom/Fruits"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.nom").value("Fruits"));
+    }
+
+    /**
+     * Même chose pour les aliments d'une catégorie (findByCategorieNom)
+     */
+    @Test
+    @MaxRequetesSql(0)
+    void alimentsParCategorieSansRequeteCacheChaud(MockMvc mesure) throws Exception {
+        mockMvc.perform(get("/api/aliments/categorie/Fruits")).andExpect(status().isOk());
+
+        mesure.perform(get("/api/aliments/categorie/Fruits"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", not(hasSize(0))));
+    }
+
+    /**
+     * La synchronisation écrit en JDBC, à l'insu d'Hibernate : les régions du cache
+     * sont vidées après sa validation, la lecture suivante voit le nouveau catalogue
+     */
+    @Test
+    void lecturesCacheesAJourApresSynchronisation() throws Exception {
+        synchroniser("v1", "Aliment en cache 1");
+        mockMvc.perform(get("/api/categories/nom/{nom}", CATEGORIE_SYNCHRONISEE))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.description").value("v1"));
+        mockMvc.perform(get("/api/aliments/categorie/{nom}", CATEGORIE_SYNCHRONISEE))
+                .andExpect(jsonPath("$", hasSize(1)));
+
+        synchroniser("v2", "Aliment en cache 1", "Aliment en cache 2");
+
+        mockMvc.perform(get("/api/categories/nom/{nom}", CATEGORIE_SYNCHRONISEE))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.description").value("v2"));
+        mockMvc.perform(get("/api/aliments/categorie/{nom}", CATEGORIE_SYNCHRONISEE))
+                .andExpect(jsonPath("$", hasSize(2)));
+    }
+
+    /**
+     * Corps JSON vidé par le convertisseur : l'en-tête est posé avant l'envoi de la réponse
+     */
+    @Test
+    void nombreDeRequetesSqlDansLEnTete() throws Exception {
+        catalogueCache.invalider();
+
+        mockMvc.perform(get("/api/categories"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Requetes-Sql", matchesPattern("[1-9][0-9]*")));
+    }
+
+    private void synchroniser(String description, String... aliments) throws Exception {
+        StringBuilder json = new StringBuilder("{\"categories\": [{\"nom\": \"")
+                .append(CATEGORIE_SYNCHRONISEE).append("\", \"description\": \"").append(description)
+                .append("\"}], \"aliments\": [");
+        for (int i = 0; i < aliments.length; i++) {
+            json.append(i > 0 ? ", " : "")
+                    .append("{\"nom\": \"").append(aliments[i]).append("\", \"calories_per_100g\": 10, ")
+                    .append("\"allergies\": \"\", \"categorie_nom\": \"").append(CATEGORIE_SYNCHRONISEE)
+                    .append("\"}");
+        }
+        json.append("]}");
+        synchronisationCatalogueService.synchroniser(
+                new ByteArrayResource(json.toString().getBytes(StandardCharsets.UTF_8), "catalogue de test"));
+    }
+
+    /**
+     * Export NDJSON par ID croissant, catégories sans aliment comprises (LEFT JOIN)
+     */
+    @Test
+    void exportDesCategoriesAvecLesCategoriesVides() throws Exception {
+        jdbcTemplate.update("INSERT INTO categories (nom, description) VALUES (?, ?)", CATEGORIE_VIDE, "");
+        List<Long> attendus = jdbcTemplate.queryForList("SELECT id FROM categories ORDER BY id", Long.class);
+        long idVide = jdbcTemplate.queryForObject("SELECT id FROM categories WHERE nom = ?", Long.class, CATEGORIE_VIDE);
+
+        List<JsonNode> lignes = AlimentControllerTest.exporter(mockMvc, objectMapper, "/api/categories/export", 0);
+
+        assertThat(lignes).extracting(ligne -> ligne.get("id").asLong()).containsExactlyElementsOf(attendus);
+        assertThat(lignes).filteredOn(ligne -> ligne.get("id").asLong() == idVide).singleElement()
+                .satisfies(vide -> {
+                    assertThat(vide.get("nom").asText()).isEqualTo(CATEGORIE_VIDE);
+                    assertThat(vide.get("aliments")).isEmpty();
+                });
+        assertThat(lignes.get(0).get("aliments")).isNotEmpty();
+        // Aliments de chaque catégorie par ID croissant
+        lignes.forEach(ligne -> assertThat(ligne.get("aliments").findValuesAsText("id"))
+                .isSortedAccordingTo((a, b) -> Long.compare(Long.parseLong(a), Long.parseLong(b))));
+    }
+
+    @Test
+    void exportDesCategoriesRepriseApresId() throws Exception {
+        List<Long> ids = jdbcTemplate.queryForList("SELECT id FROM categories ORDER BY id", Long.class);
+        long reprise = ids.get(2);
+
+        List<JsonNode> lignes = AlimentControllerTest.exporter(mockMvc, objectMapper, "/api/categories/export", reprise);
+
+        assertThat(lignes).extracting(ligne -> ligne.get("id").asLong())
+                .containsExactlyElementsOf(ids.subList(3, ids.size()));
+    }
+}
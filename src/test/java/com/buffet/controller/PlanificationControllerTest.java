@@ -0,0 +1,123 @@
+package com.buffet.controller;
+
+import com.buffet.catalogue.CatalogueCache;
+import com.buffet.config.MaxRequetesSql;
+import com.buffet.dto.PlanificationRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.isA;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Bornes de la planification générée et de la planification enregistrée
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class PlanificationControllerTest {
+
+    // Semaine du lundi 3 mars 2031, loin des repas des autres tests
+    private static final LocalDate SEMAINE = LocalDate.of(2031, 3, 3);
+    private static final int SEMAINES = 4;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CatalogueCache catalogueCache;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void nettoyer() {
+        jdbcTemplate.update("DELETE FROM repas WHERE date_repas BETWEEN ? AND ?",
+                SEMAINE, SEMAINE.plusWeeks(SEMAINES));
+    }
+
+    @Test
+    void horizonAuDelaDuMoteurRefuseEn400() throws Exception {
+        mockMvc.perform(post("/api/planification/hebdomadaire")
+                        .param("date", "2025-01-06")
+                        .param("semaines", "105"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Le nombre de semaines ne peut pas dépasser 104"));
+    }
+
+    @Test
+    void nombreDeSemainesNulRefuseEn400() throws Exception {
+        mockMvc.perform(post("/api/planification/hebdomadaire")
+                        .param("date", "2025-01-06")
+                        .param("semaines", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void exclusionsNullesTraiteesCommeVides() throws Exception {
+        mockMvc.perform(post("/api/planification/generer")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"dateDebut": "2025-01-06", "dateFin": "2025-01-06", "sites": [
+                                  {"nom": "Cantine", "nombrePersonnes": 10,
+                                   "allergiesExclues": null, "categoriesExclues": null}]}
+                                """))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void tropDeSitesRefuseEn400() throws Exception {
+        String site = "{\"nom\": \"Cantine\", \"nombrePersonnes\": 10}";
+        String sites = String.join(",", Collections.nCopies(PlanificationRequest.SITES_MAX + 1, site));
+        mockMvc.perform(post("/api/planification/generer")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"dateDebut\": \"2025-01-06\", \"dateFin\": \"2025-01-06\", \"sites\": [" + sites + "]}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errors.sites").value("Une demande compte au plus 50 sites"));
+    }
+
+    /**
+     * Quatre semaines enregistrées en une poignée de requêtes : un lot pour les 84
+     * repas, un lot pour leurs lignes de repas_aliments (snapshot déjà construit)
+     */
+    @Test
+    @MaxRequetesSql(3)
+    void planificationEnregistreeParLots(MockMvc mesure) throws Exception {
+        catalogueCache.getSnapshot();
+
+        mesure.perform(post("/api/planification/hebdomadaire")
+                        .param("date", SEMAINE.toString())
+                        .param("semaines", String.valueOf(SEMAINES)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(SEMAINES * 7 * 3)))
+                .andExpect(jsonPath("$[*].id", everyItem(isA(Number.class))));
+
+        List<Map<String, Object>> repas = jdbcTemplate.queryForList(
+                "SELECT r.id, r.nombre_personnes, MIN(ra.quantite_grammes) AS quantite "
+                        + "FROM repas r JOIN repas_aliments ra ON ra.repas_id = r.id "
+                        + "WHERE r.date_repas BETWEEN ? AND ? GROUP BY r.id, r.nombre_personnes",
+                SEMAINE, SEMAINE.plusWeeks(SEMAINES).minusDays(1));
+        // Chaque repas a ses lignes ; aucun aliment n'y est répété, d'où 100 g par personne
+        assertThat(repas).hasSize(SEMAINES * 7 * 3).allSatisfy(ligne -> assertThat((BigDecimal) ligne.get("quantite"))
+                .isEqualByComparingTo(BigDecimal.valueOf(100L * ((Number) ligne.get("nombre_personnes")).intValue())));
+    }
+}
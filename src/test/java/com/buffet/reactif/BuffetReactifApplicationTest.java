@@ -0,0 +1,108 @@
+package com.buffet.reactif;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Routes de l'application réactive sur une base H2 en mémoire lue par R2DBC
+ */
+@SpringBootTest(classes = BuffetReactifApplication.class, properties = {
+        "spring.config.name=reactif",
+        "spring.main.web-application-type=reactive",
+        "spring.r2dbc.url=r2dbc:h2:mem:///buffet-reactif;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.r2dbc.username=sa",
+        "spring.r2dbc.password=",
+        "spring.sql.init.mode=always",
+        "spring.sql.init.encoding=UTF-8"
+})
+@AutoConfigureWebTestClient
+class BuffetReactifApplicationTest {
+
+    @Autowired
+    private WebTestClient client;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @BeforeEach
+    void remplir() {
+        executer("DELETE FROM categories");
+        executer("INSERT INTO categories (id, nom, description) VALUES (1, 'Fruits', 'Fruits frais')");
+        executer("INSERT INTO aliments (id, nom, calories_per_100g, allergies, categorie_id) VALUES "
+                + "(1, 'Pomme', 52, '', 1), (2, 'Banane', 89, '', 1)");
+    }
+
+    @Test
+    void catalogueDepuisLaBase() {
+        client.get().uri("/api/categories").exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$[0].nom").isEqualTo("Fruits");
+        client.get().uri("/api/aliments").exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.length()").isEqualTo(2);
+    }
+
+    @Test
+    void calculsDeBuffet() {
+        client.post().uri("/api/buffet/calculer")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"aliments\": [1, 2], \"invites\": 10}")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.nombreInvites").isEqualTo(10)
+                .jsonPath("$.aliments.length()").isEqualTo(2);
+        // Petit buffet : un seul fruit
+        client.get().uri("/api/buffet/recommandations/10").exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(1)
+                .jsonPath("$[0].nom").isEqualTo("Pomme");
+    }
+
+    @Test
+    void erreurDeCalculRenvoyee400() {
+        client.post().uri("/api/buffet/calculer")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"aliments\": [999], \"invites\": 10}")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.status").isEqualTo(400)
+                .jsonPath("$.message").isEqualTo("Aucun aliment trouvé avec les IDs fournis");
+    }
+
+    /**
+     * Une écriture faite par l'application servlet n'apparaît qu'à l'expiration du snapshot
+     */
+    @Test
+    void snapshotRechargeApresSaDureeDeVie() throws InterruptedException {
+        CatalogueReactif catalogue = new CatalogueReactif(databaseClient, Duration.ofMillis(300));
+        assertThat(catalogue.getSnapshot().block().size()).isEqualTo(2);
+        client.get().uri("/api/aliments").exchange().expectStatus().isOk();
+
+        executer("INSERT INTO aliments (id, nom, calories_per_100g, allergies, categorie_id) VALUES "
+                + "(3, 'Cerise', 63, '', 1)");
+        assertThat(catalogue.getSnapshot().block().size()).isEqualTo(2);
+        // Snapshot de l'application : 30 s (reactif.yml)
+        client.get().uri("/api/aliments").exchange()
+                .expectBody().jsonPath("$.length()").isEqualTo(2);
+
+        Thread.sleep(400);
+        assertThat(catalogue.getSnapshot().block().size()).isEqualTo(3);
+    }
+
+    private void executer(String sql) {
+        databaseClient.sql(sql).then().block();
+    }
+}
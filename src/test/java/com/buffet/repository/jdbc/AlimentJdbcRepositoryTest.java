@@ -0,0 +1,129 @@
+package com.buffet.repository.jdbc;
+
+import com.buffet.model.Aliment;
+import com.buffet.model.Allergene;
+import com.buffet.model.Categorie;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Chaque lecture d'AlimentJdbcRepository est une seule requête SQL (jointure
+ * avec les catégories), quel que soit le nombre de catégories rencontrées
+ */
+class AlimentJdbcRepositoryTest {
+
+    private final AtomicInteger requetes = new AtomicInteger();
+
+    private SingleConnectionDataSource base;
+    private AlimentJdbcRepository alimentJdbcRepository;
+
+    @BeforeEach
+    void initialiser() {
+        base = new SingleConnectionDataSource(
+                "jdbc:h2:mem:aliments-jdbc;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE", "sa", "", true);
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(base);
+
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(ProxyDataSourceBuilder.create(base)
+                .afterQuery((execution, requetesExecutees) -> requetes.incrementAndGet())
+                .build());
+        CategorieJdbcRepository categorieJdbcRepository = new CategorieJdbcRepository(jdbcTemplate);
+        alimentJdbcRepository = new AlimentJdbcRepository(jdbcTemplate);
+
+        for (String nomCategorie : List.of("Fruits", "Légumes", "Viandes")) {
+            Categorie categorie = categorieJdbcRepository.save(new Categorie(nomCategorie, nomCategorie));
+            for (int i = 0; i < 4; i++) {
+                Aliment aliment = new Aliment(nomCategorie + " " + i, "", BigDecimal.valueOf(50 + 30 * i),
+                        i % 2 == 0 ? "Aucune allergie connue" : "Gluten", null);
+                aliment.setCategorie(categorie);
+                alimentJdbcRepository.save(aliment);
+            }
+        }
+        requetes.set(0);
+    }
+
+    @AfterEach
+    void fermer() {
+        base.destroy();
+    }
+
+    @Test
+    void findAllEnUneRequete() {
+        List<Aliment> aliments = compter(alimentJdbcRepository::findAll);
+
+        assertThat(aliments).hasSize(12);
+        assertThat(requetes).hasValue(1);
+        // Une seule instance par catégorie
+        assertThat(categories(aliments)).hasSize(3);
+    }
+
+    @Test
+    void findByCategorieNomEnUneRequete() {
+        List<Aliment> aliments = compter(() -> alimentJdbcRepository.findByCategorieNom("Légumes"));
+
+        assertThat(aliments).hasSize(4).allMatch(a -> a.getCategorie().getNom().equals("Légumes"));
+        assertThat(requetes).hasValue(1);
+        assertThat(categories(aliments)).hasSize(1);
+    }
+
+    @Test
+    void findSansAllergieEnUneRequete() {
+        List<Aliment> aliments = compter(alimentJdbcRepository::findSansAllergie);
+
+        assertThat(aliments).hasSize(6);
+        assertThat(requetes).hasValue(1);
+        assertThat(categories(aliments)).hasSize(3);
+    }
+
+    @Test
+    void findTopCaloriquesEnUneRequete() {
+        List<Aliment> aliments = compter(() -> alimentJdbcRepository.findTopCaloriques(5));
+
+        assertThat(aliments).hasSize(5);
+        assertThat(aliments.get(0).getCaloriesPer100g()).isEqualByComparingTo("140");
+        assertThat(requetes).hasValue(1);
+    }
+
+    @Test
+    void recalculerMasquesAllergenesApresAjoutDeLaColonne() {
+        // Base antérieure au masque : la colonne ajoutée vaut 0 partout
+        JdbcTemplate sql = new JdbcTemplate(base);
+        sql.update("UPDATE aliments SET allergenes_masque = 0");
+
+        assertThat(alimentJdbcRepository.recalculerMasquesAllergenes()).isEqualTo(6);
+
+        assertThat(sql.queryForList("SELECT allergenes_masque FROM aliments WHERE allergies = 'Gluten'", Long.class))
+                .hasSize(6)
+                .containsOnly(Allergene.GLUTEN.bit());
+        assertThat(alimentJdbcRepository.recalculerMasquesAllergenes()).isZero();
+    }
+
+    private List<Aliment> compter(Supplier<List<Aliment>> lecture) {
+        requetes.set(0);
+        List<Aliment> aliments = lecture.get();
+        // Catégories lues dans la jointure : y accéder ne déclenche aucune requête
+        aliments.forEach(aliment -> aliment.getCategorie().getNom());
+        return aliments;
+    }
+
+    private static Set<Categorie> categories(List<Aliment> aliments) {
+        Set<Categorie> instances = Collections.newSetFromMap(new IdentityHashMap<>());
+        aliments.forEach(aliment -> instances.add(aliment.getCategorie()));
+        return instances;
+    }
+}
@@ -0,0 +1,109 @@
+package com.buffet.repository.jdbc;
+
+import com.buffet.model.Aliment;
+import com.buffet.model.Categorie;
+import com.buffet.model.Repas;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Insertion des repas et de repas_aliments par lots : un lot JDBC par tranche de
+ * {@value RepasJdbcRepository#TAILLE_LOT} lignes, quel que soit le nombre de repas
+ */
+class RepasJdbcRepositoryTest {
+
+    private static final int NOMBRE_REPAS = 1200;
+
+    private final AtomicInteger requetes = new AtomicInteger();
+
+    private SingleConnectionDataSource base;
+    private RepasJdbcRepository repasJdbcRepository;
+    private Aliment pomme;
+    private Aliment riz;
+
+    @BeforeEach
+    void initialiser() {
+        base = new SingleConnectionDataSource(
+                "jdbc:h2:mem:repas-jdbc;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE", "sa", "", true);
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(base);
+
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(ProxyDataSourceBuilder.create(base)
+                .afterQuery((execution, requetesExecutees) -> requetes.incrementAndGet())
+                .build());
+        Categorie categorie = new CategorieJdbcRepository(jdbcTemplate).save(new Categorie("Divers", ""));
+        AlimentJdbcRepository alimentJdbcRepository = new AlimentJdbcRepository(jdbcTemplate);
+        pomme = aliment(alimentJdbcRepository, categorie, "Pomme");
+        riz = aliment(alimentJdbcRepository, categorie, "Riz");
+        repasJdbcRepository = new RepasJdbcRepository(jdbcTemplate);
+    }
+
+    @AfterEach
+    void fermer() {
+        base.destroy();
+    }
+
+    @Test
+    void repasEtQuantitesInseresParLots() {
+        List<Repas> repas = new ArrayList<>(NOMBRE_REPAS);
+        for (int i = 0; i < NOMBRE_REPAS; i++) {
+            Repas r = new Repas("Repas " + i, null, LocalDate.of(2025, 1, 6).plusDays(i / 3),
+                    Repas.TypeRepas.values()[i % 3]);
+            r.setNombrePersonnes(i % 5 + 1);
+            // La pomme deux fois : une seule ligne, quantités additionnées
+            r.setAliments(List.of(pomme, riz, pomme));
+            repas.add(r);
+        }
+
+        requetes.set(0);
+        repasJdbcRepository.insertAll(repas, r -> BigDecimal.valueOf(100L * r.getNombrePersonnes()));
+
+        // 1200 repas puis 2400 lignes de repas_aliments, par lots de 500
+        assertThat(requetes).hasValue(3 + 5);
+        assertThat(repas).allSatisfy(r -> assertThat(r.getId()).isNotNull());
+        assertThat(repas.stream().map(Repas::getId).distinct()).hasSize(NOMBRE_REPAS);
+
+        JdbcTemplate sql = new JdbcTemplate(base);
+        Map<Long, Repas> parId = new HashMap<>();
+        repas.forEach(r -> parId.put(r.getId(), r));
+        List<Map<String, Object>> lignes = sql.queryForList(
+                "SELECT repas_id, aliment_id, quantite_grammes FROM repas_aliments");
+        assertThat(lignes).hasSize(2 * NOMBRE_REPAS);
+        assertThat(lignes).allSatisfy(ligne -> {
+            Repas r = parId.get(((Number) ligne.get("repas_id")).longValue());
+            long alimentId = ((Number) ligne.get("aliment_id")).longValue();
+            long portions = alimentId == pomme.getId() ? 2 : 1;
+            assertThat((BigDecimal) ligne.get("quantite_grammes"))
+                    .isEqualByComparingTo(BigDecimal.valueOf(portions * 100L * r.getNombrePersonnes()));
+        });
+    }
+
+    @Test
+    void listeVideSansRequete() {
+        requetes.set(0);
+
+        assertThat(repasJdbcRepository.insertAll(List.of(), r -> BigDecimal.ONE)).isEmpty();
+        assertThat(requetes).hasValue(0);
+    }
+
+    private static Aliment aliment(AlimentJdbcRepository repository, Categorie categorie, String nom) {
+        Aliment aliment = new Aliment(nom, "", BigDecimal.valueOf(100), "Aucune allergie connue", null);
+        aliment.setCategorie(categorie);
+        return repository.save(aliment);
+    }
+}
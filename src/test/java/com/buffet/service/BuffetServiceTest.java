@@ -0,0 +1,34 @@
+package com.buffet.service;
+
+import com.buffet.catalogue.CatalogueCache;
+import com.buffet.dto.BuffetResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Préréglages de buffet en cache, par snapshot du catalogue
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class BuffetServiceTest {
+
+    @Autowired
+    private BuffetService buffetService;
+
+    @Autowired
+    private CatalogueCache catalogueCache;
+
+    @Test
+    void presetRecalculeApresReconstructionDuSnapshot() {
+        BuffetResponse avant = buffetService.calculerBuffetEconomique(12);
+        assertThat(buffetService.calculerBuffetEconomique(12)).isSameAs(avant);
+
+        catalogueCache.rafraichir();
+
+        assertThat(buffetService.calculerBuffetEconomique(12)).isNotSameAs(avant);
+    }
+}
@@ -0,0 +1,98 @@
+package com.buffet.service;
+
+import com.buffet.catalogue.CatalogueSnapshot;
+import com.buffet.dto.BuffetResponse;
+import com.buffet.model.Aliment;
+import com.buffet.model.Categorie;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Calcul des calories en virgule fixe (NutrimentStore) comparé au calcul BigDecimal
+ * d'origine, sur le catalogue de data.json
+ */
+class CalculsBuffetTest {
+
+    private static CatalogueSnapshot catalogue;
+    private static List<Long> tousLesIds;
+
+    @BeforeAll
+    static void chargerCatalogue() throws IOException {
+        JsonNode donnees;
+        try (InputStream entree = new ClassPathResource("data.json").getInputStream()) {
+            donnees = new ObjectMapper().readTree(entree);
+        }
+
+        Map<String, Categorie> categories = new HashMap<>();
+        long id = 0;
+        for (JsonNode noeud : donnees.get("categories")) {
+            Categorie categorie = new Categorie(noeud.get("nom").asText(), noeud.get("description").asText());
+            categorie.setId(++id);
+            categories.put(categorie.getNom(), categorie);
+        }
+        List<Aliment> aliments = new ArrayList<>();
+        for (JsonNode noeud : donnees.get("aliments")) {
+            Aliment aliment = new Aliment(noeud.get("nom").asText(), noeud.get("description").asText(),
+                    noeud.get("calories_per_100g").decimalValue(), noeud.get("allergies").asText(), null);
+            aliment.setId(++id);
+            aliment.setCategorie(categories.get(noeud.get("categorie_nom").asText()));
+            aliments.add(aliment);
+        }
+
+        catalogue = CatalogueSnapshot.construire(1, categories.values(), aliments);
+        tousLesIds = aliments.stream().map(Aliment::getId).toList();
+    }
+
+    @Test
+    void caloriesIdentiquesAuCalculBigDecimalA2Decimales() {
+        for (int invites = 1; invites <= 2000; invites++) {
+            BuffetResponse buffet = CalculsBuffet.calculerBuffet(catalogue, invites, tousLesIds);
+
+            double totalOrigine = 0;
+            for (BuffetResponse.AlimentBuffet element : buffet.getAliments()) {
+                Aliment aliment = catalogue.findAlimentById(element.getId()).orElseThrow();
+                double calories = caloriesOrigine(aliment, element.getQuantiteKg());
+                totalOrigine += calories;
+
+                assertThat(arrondi(element.getCalories()))
+                        .as("%s pour %d invités", aliment.getNom(), invites)
+                        .isEqualByComparingTo(arrondi(calories));
+            }
+            assertThat(buffet.getAliments()).hasSize(tousLesIds.size());
+            assertThat(arrondi(buffet.getCaloriesTotales()))
+                    .as("total pour %d invités", invites)
+                    .isEqualByComparingTo(arrondi(totalOrigine));
+        }
+    }
+
+    /**
+     * Calcul d'origine de BuffetService.calculerBuffet, en BigDecimal
+     */
+    private static double caloriesOrigine(Aliment aliment, double quantiteKg) {
+        if (aliment.getCaloriesPer100g() == null) {
+            return 0;
+        }
+        return aliment.getCaloriesPer100g()
+                .multiply(BigDecimal.valueOf(quantiteKg))
+                .multiply(BigDecimal.TEN)
+                .doubleValue();
+    }
+
+    private static BigDecimal arrondi(double valeur) {
+        return BigDecimal.valueOf(valeur).setScale(2, RoundingMode.HALF_UP);
+    }
+}
@@ -0,0 +1,143 @@
+package com.buffet.service;
+
+import com.buffet.catalogue.CatalogueCache;
+import com.buffet.catalogue.IndexRecherche;
+import com.buffet.repository.jdbc.AlimentJdbcRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Import en flux d'un catalogue : bilan des aliments importés et ignorés, ordre des
+ * sections du fichier, et échec d'un lot relevé à la fin de l'import
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class ImportCatalogueServiceTest {
+
+    private static final String CATEGORIE = "Import de test";
+    private static final String SOURCE = "import de test";
+
+    @Autowired
+    private AlimentJdbcRepository alimentJdbcRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private CatalogueCache catalogueCache;
+
+    @Autowired
+    private IndexRecherche indexRecherche;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void nettoyer() {
+        jdbcTemplate.update("DELETE FROM aliments WHERE source_catalogue = ?", SOURCE);
+        jdbcTemplate.update("DELETE FROM categories WHERE source_catalogue = ?", SOURCE);
+        catalogueCache.invalider();
+    }
+
+    /**
+     * Catégorie déjà en base réutilisée sans être comptée ; aliment d'une catégorie
+     * inconnue ignoré
+     */
+    @Test
+    void alimentsDUneCategorieInconnueIgnores() throws Exception {
+        String catalogue = "{\"categories\": [" + categorie(CATEGORIE) + ", " + categorie("Fruits") + "], "
+                + "\"aliments\": [" + aliment("A", CATEGORIE) + ", " + aliment("B", CATEGORIE) + ", "
+                + aliment("C", "Fruits") + ", " + aliment("D", "Catégorie inconnue") + "]}";
+
+        ImportCatalogueService.Bilan bilan = importer(service(2, 2), catalogue);
+
+        assertThat(bilan.categories()).isEqualTo(1);
+        assertThat(bilan.aliments()).isEqualTo(3);
+        assertThat(bilan.alimentsIgnores()).isEqualTo(1);
+        assertThat(alimentsImportes()).containsExactly("A", "B", "C");
+        assertThat(jdbcTemplate.queryForObject("SELECT c.nom FROM aliments a JOIN categories c "
+                + "ON c.id = a.categorie_id WHERE a.source_catalogue = ? AND a.nom = 'C'", String.class, SOURCE))
+                .isEqualTo("Fruits");
+    }
+
+    /**
+     * Aliments lus avant les catégories : seuls ceux d'une catégorie déjà en base
+     * sont importés, la catégorie déclarée ensuite est créée vide
+     */
+    @Test
+    void alimentsAvantLesCategories() throws Exception {
+        String catalogue = "{\"aliments\": [" + aliment("A", CATEGORIE) + ", " + aliment("C", "Fruits") + "], "
+                + "\"categories\": [" + categorie(CATEGORIE) + "]}";
+
+        ImportCatalogueService.Bilan bilan = importer(service(1000, 2), catalogue);
+
+        assertThat(bilan.categories()).isEqualTo(1);
+        assertThat(bilan.aliments()).isEqualTo(1);
+        assertThat(bilan.alimentsIgnores()).isEqualTo(1);
+        assertThat(alimentsImportes()).containsExactly("C");
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM aliments a JOIN categories c "
+                + "ON c.id = a.categorie_id WHERE c.nom = ?", Integer.class, CATEGORIE)).isZero();
+    }
+
+    /**
+     * Second lot refusé par la base (nom au-delà de 200 caractères) : l'import lève
+     * {@link IllegalStateException}, le premier lot reste validé
+     */
+    @Test
+    void echecDUnLotReleveALaFin() {
+        String catalogue = "{\"categories\": [" + categorie(CATEGORIE) + "], "
+                + "\"aliments\": [" + aliment("A", CATEGORIE) + ", " + aliment("B", CATEGORIE) + ", "
+                + aliment("x".repeat(201), CATEGORIE) + ", " + aliment("D", CATEGORIE) + "]}";
+        ImportCatalogueService service = service(2, 1);
+
+        assertThatThrownBy(() -> importer(service, catalogue))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("Échec d'un lot d'import")
+                .hasCauseInstanceOf(DataAccessException.class);
+        assertThat(alimentsImportes()).containsExactly("A", "B");
+    }
+
+    /**
+     * Service aux lots et écrivains donnés, sur les composants du contexte
+     */
+    private ImportCatalogueService service(int tailleLot, int ecrivains) {
+        return new ImportCatalogueService(alimentJdbcRepository, transactionManager, catalogueCache,
+                indexRecherche, objectMapper, tailleLot, ecrivains);
+    }
+
+    private static ImportCatalogueService.Bilan importer(ImportCatalogueService service, String catalogue)
+            throws Exception {
+        return service.importer(new ByteArrayInputStream(catalogue.getBytes(StandardCharsets.UTF_8)), SOURCE);
+    }
+
+    private List<String> alimentsImportes() {
+        return jdbcTemplate.queryForList(
+                "SELECT nom FROM aliments WHERE source_catalogue = ? ORDER BY nom", String.class, SOURCE);
+    }
+
+    private static String categorie(String nom) {
+        return "{\"nom\": \"" + nom + "\", \"description\": \"\"}";
+    }
+
+    private static String aliment(String nom, String categorie) {
+        return "{\"nom\": \"" + nom + "\", \"calories_per_100g\": 10, \"allergies\": \"\", "
+                + "\"categorie_nom\": \"" + categorie + "\"}";
+    }
+}
@@ -0,0 +1,119 @@
+package com.buffet.service;
+
+import com.buffet.catalogue.CatalogueCache;
+import com.buffet.dto.PlanificationJourResponse;
+import com.buffet.dto.PlanificationRequest;
+import com.buffet.model.Aliment;
+import com.buffet.model.Allergene;
+import com.buffet.model.Repas;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Planification reproductible quel que soit le parallélisme, et contraintes de chaque site
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class MoteurPlanificationTest {
+
+    private static final long EXCLUS = Allergene.POISSONS.bit() | Allergene.TOMATES.bit();
+
+    @Autowired
+    private CatalogueCache catalogueCache;
+
+    private MoteurPlanification sequentiel;
+    private MoteurPlanification parallele;
+
+    @BeforeEach
+    void creerMoteurs() {
+        sequentiel = new MoteurPlanification(catalogueCache, 1, 1);
+        parallele = new MoteurPlanification(catalogueCache, 8, 64);
+    }
+
+    @AfterEach
+    void arreterMoteurs() {
+        sequentiel.arreter();
+        parallele.arreter();
+    }
+
+    @Test
+    void memeGraineMemePlanificationQuelQueSoitLeParallelisme() {
+        List<PlanificationJourResponse> attendus = sequentiel.preparer(demande(42L)).genererListe();
+        List<PlanificationJourResponse> obtenus = parallele.preparer(demande(42L)).genererListe();
+
+        assertThat(attendus).hasSize(28 * 3);
+        assertThat(resume(obtenus)).containsExactlyElementsOf(resume(attendus));
+        assertThat(resume(parallele.preparer(demande(42L)).genererListe())).containsExactlyElementsOf(resume(attendus));
+    }
+
+    @Test
+    void autreGraineAutrePlanification() {
+        List<String> graine42 = resume(parallele.preparer(demande(42L)).genererListe());
+        List<String> graine43 = resume(parallele.preparer(demande(43L)).genererListe());
+
+        assertThat(graine43).hasSameSizeAs(graine42).isNotEqualTo(graine42);
+    }
+
+    @Test
+    void exclusionsDuSiteRespectees() {
+        List<PlanificationJourResponse> jours = parallele.preparer(demande(42L)).genererListe();
+
+        List<Aliment> restreint = aliments(jours, "Restreint");
+        assertThat(restreint).isNotEmpty().allSatisfy(aliment -> {
+            assertThat(aliment.getCategorie().getNom()).isNotEqualTo("Viandes");
+            assertThat(aliment.getAllergenesMasque() & EXCLUS).isZero();
+        });
+
+        // Témoin : sans exclusion, ces aliments sont bien tirés sur la période
+        List<Aliment> libre = aliments(jours, "Libre");
+        assertThat(libre).anyMatch(aliment -> aliment.getCategorie().getNom().equals("Viandes"));
+        assertThat(libre).anyMatch(aliment -> (aliment.getAllergenesMasque() & Allergene.POISSONS.bit()) != 0);
+        assertThat(libre).anyMatch(aliment -> (aliment.getAllergenesMasque() & Allergene.TOMATES.bit()) != 0);
+    }
+
+    /**
+     * Quatre semaines, trois sites dont un privé de viandes, de poissons et de tomates
+     */
+    private static PlanificationRequest demande(long graine) {
+        PlanificationRequest.Site restreint = new PlanificationRequest.Site("Restreint", 25);
+        restreint.setAllergiesExclues(List.of("poisson", "tomate"));
+        restreint.setCategoriesExclues(List.of("Viandes"));
+        List<PlanificationRequest.Site> sites = List.of(
+                new PlanificationRequest.Site("Libre", 40),
+                restreint,
+                new PlanificationRequest.Site("Annexe", 8));
+        return new PlanificationRequest(LocalDate.of(2025, 1, 6), LocalDate.of(2025, 2, 2), graine, sites);
+    }
+
+    /**
+     * Un jour par ligne : site, date, puis les identifiants des aliments de chaque repas dans l'ordre
+     */
+    private static List<String> resume(List<PlanificationJourResponse> jours) {
+        return jours.stream()
+                .map(jour -> jour.getSite() + " " + jour.getDate() + " " + jour.getRepas().stream()
+                        .map(repas -> repas.getTypeRepas() + "/" + repas.getNombrePersonnes() + "="
+                                + repas.getAliments().stream().map(aliment -> String.valueOf(aliment.getId()))
+                                .collect(Collectors.joining(",")))
+                        .collect(Collectors.joining(" ")))
+                .toList();
+    }
+
+    private static List<Aliment> aliments(List<PlanificationJourResponse> jours, String site) {
+        return jours.stream()
+                .filter(jour -> jour.getSite().equals(site))
+                .flatMap(jour -> jour.getRepas().stream())
+                .map(Repas::getAliments)
+                .flatMap(List::stream)
+                .toList();
+    }
+}
@@ -0,0 +1,260 @@
+package com.buffet.service;
+
+import com.buffet.catalogue.CatalogueSnapshot;
+import com.buffet.catalogue.NutrimentStore;
+import com.buffet.dto.OptimisationRequest;
+import com.buffet.dto.OptimisationResponse;
+import com.buffet.model.Aliment;
+import com.buffet.model.Allergene;
+import com.buffet.model.Categorie;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Séparation et évaluation comparée à l'énumération de tous les buffets possibles,
+ * sur de petits catalogues synthétiques
+ */
+class OptimiseurBuffetTest {
+
+    private static final String[] CATEGORIES = {"Entrées", "Plats", "Desserts", "Boissons"};
+    // Calories répétées : l'optimiseur n'essaie qu'un candidat par valeur
+    private static final int[] CALORIES = {50, 80, 80, 120, 200, 200, 310, 450};
+    private static final String[] ALLERGIES = {CatalogueSnapshot.AUCUNE_ALLERGIE, "Gluten", "Lait", "Noix"};
+    private static final String[] EXCLUSIONS = {"gluten", "lactose", "noix"};
+    private static final Duration BUDGET_LARGE = Duration.ofSeconds(10);
+
+    @Test
+    void memeOptimumQueLEnumeration() {
+        for (long graine = 1; graine <= 25; graine++) {
+            Random aleatoire = new Random(graine);
+            CatalogueSnapshot catalogue = catalogueSynthetique(aleatoire, 13);
+            OptimisationRequest demande = demandeAleatoire(aleatoire, catalogue);
+
+            OptimisationResponse reponse = OptimiseurBuffet.optimiser(catalogue, demande, BUDGET_LARGE);
+            Optimum attendu = enumerer(catalogue, demande);
+
+            String cas = "graine " + graine;
+            assertThat(reponse.getStatistiques().isComplete()).as(cas).isTrue();
+            if (attendu == null) {
+                assertThat(reponse.getBuffet()).as(cas).isNull();
+                continue;
+            }
+            assertThat(reponse.getBuffet()).as(cas).isNotNull();
+            int[] indices = reponse.getBuffet().getAliments().stream()
+                    .mapToInt(aliment -> catalogue.getNutriments().indexOf(aliment.getId()))
+                    .toArray();
+            Optimum obtenu = evaluer(catalogue, demande, indices);
+            assertThat(obtenu).as(cas + " : buffet hors contraintes").isNotNull();
+            assertThat(obtenu.categories()).as(cas).isEqualTo(attendu.categories());
+            assertThat(obtenu.ecart()).as(cas).isEqualTo(attendu.ecart());
+            assertThat(reponse.getNombreCategories()).as(cas).isEqualTo(attendu.categories());
+        }
+    }
+
+    @Test
+    void budgetEpuiseRenvoieLaMeilleureSolutionTrouvee() {
+        CatalogueSnapshot catalogue = catalogueSynthetique(new Random(42), 200);
+        OptimisationRequest demande = new OptimisationRequest(10, 100.0, 20_000.0);
+        demande.setNombreMin(1);
+        demande.setNombreMax(8);
+        demande.setMaxParCategorie(2);
+
+        OptimisationResponse reponse = OptimiseurBuffet.optimiser(catalogue, demande, Duration.ZERO);
+
+        assertThat(reponse.getStatistiques().isComplete()).isFalse();
+        assertThat(reponse.getStatistiques().getSolutions()).isPositive();
+        assertThat(reponse.getBuffet()).isNotNull();
+        assertThat(reponse.getBuffet().getAliments()).isNotEmpty();
+    }
+
+    @Test
+    void caloriesMinimalesAuDelaDesMaximalesRefusees() {
+        CatalogueSnapshot catalogue = catalogueSynthetique(new Random(1), 13);
+        OptimisationRequest demande = new OptimisationRequest(10, 800.0, 600.0);
+
+        assertThatThrownBy(() -> OptimiseurBuffet.optimiser(catalogue, demande, BUDGET_LARGE))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Les calories minimales dépassent les calories maximales");
+    }
+
+    @Test
+    void nombreMinimalAuDelaDuMaximalRefuse() {
+        CatalogueSnapshot catalogue = catalogueSynthetique(new Random(1), 13);
+        OptimisationRequest demande = new OptimisationRequest(10, 600.0, 800.0);
+        demande.setNombreMin(5);
+        demande.setNombreMax(3);
+
+        assertThatThrownBy(() -> OptimiseurBuffet.optimiser(catalogue, demande, BUDGET_LARGE))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Le nombre minimal d'aliments dépasse le nombre maximal");
+    }
+
+    @Test
+    void plusDeCategoriesRequisesQueDAlimentsRefuse() {
+        CatalogueSnapshot catalogue = catalogueSynthetique(new Random(1), 13);
+        OptimisationRequest demande = new OptimisationRequest(10, 600.0, 800.0);
+        demande.setNombreMin(1);
+        demande.setNombreMax(2);
+        demande.setCategoriesRequises(List.of(CATEGORIES[0], CATEGORIES[1], CATEGORIES[2]));
+
+        assertThatThrownBy(() -> OptimiseurBuffet.optimiser(catalogue, demande, BUDGET_LARGE))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Plus de catégories requises que d'aliments dans le buffet");
+    }
+
+    /**
+     * Catégories couvertes et écart au centre de la fenêtre (en centièmes pour 100 g)
+     */
+    private record Optimum(int categories, long ecart) {}
+
+    /**
+     * Meilleur buffet parmi tous les sous-ensembles des aliments éligibles, ou null
+     */
+    private static Optimum enumerer(CatalogueSnapshot catalogue, OptimisationRequest demande) {
+        NutrimentStore nutriments = catalogue.getNutriments();
+        long exclues = masqueExclu(demande);
+        List<Integer> eligibles = new ArrayList<>();
+        for (int i = 0; i < nutriments.size(); i++) {
+            if (nutriments.getCategorieOrdinal(i) >= 0
+                    && nutriments.getCaloriesCentiemes(i) != NutrimentStore.CALORIES_ABSENTES
+                    && (catalogue.getAliments().get(i).getAllergenesMasque() & exclues) == 0) {
+                eligibles.add(i);
+            }
+        }
+
+        Optimum meilleur = null;
+        for (int sousEnsemble = 1; sousEnsemble < 1 << eligibles.size(); sousEnsemble++) {
+            int[] indices = new int[Integer.bitCount(sousEnsemble)];
+            int n = 0;
+            for (int b = 0; b < eligibles.size(); b++) {
+                if ((sousEnsemble & (1 << b)) != 0) {
+                    indices[n++] = eligibles.get(b);
+                }
+            }
+            Optimum optimum = evaluer(catalogue, demande, indices);
+            if (optimum != null && (meilleur == null || optimum.categories() > meilleur.categories()
+                    || (optimum.categories() == meilleur.categories() && optimum.ecart() < meilleur.ecart()))) {
+                meilleur = optimum;
+            }
+        }
+        return meilleur;
+    }
+
+    /**
+     * Objectifs d'un buffet, ou null s'il ne respecte pas les contraintes de la demande
+     */
+    private static Optimum evaluer(CatalogueSnapshot catalogue, OptimisationRequest demande, int[] indices) {
+        NutrimentStore nutriments = catalogue.getNutriments();
+        if (indices.length < demande.getNombreMin() || indices.length > demande.getNombreMax()
+                || Arrays.stream(indices).distinct().count() != indices.length) {
+            return null;
+        }
+        long exclues = masqueExclu(demande);
+        int[] parCategorie = new int[nutriments.nombreCategories()];
+        long somme = 0;
+        for (int index : indices) {
+            int ordinal = nutriments.getCategorieOrdinal(index);
+            if (ordinal < 0 || nutriments.getCaloriesCentiemes(index) == NutrimentStore.CALORIES_ABSENTES
+                    || (catalogue.getAliments().get(index).getAllergenesMasque() & exclues) != 0
+                    || ++parCategorie[ordinal] > demande.getMaxParCategorie()) {
+                return null;
+            }
+            somme += nutriments.getCaloriesCentiemes(index);
+        }
+        for (String requise : demande.getCategoriesRequises()) {
+            if (parCategorie[nutriments.ordinalCategorie(requise)] == 0) {
+                return null;
+            }
+        }
+
+        double centiemesParKcal = 10.0 / CalculsBuffet.quantiteParInvite();
+        long bas = (long) Math.ceil(demande.getCaloriesMin() * centiemesParKcal);
+        long haut = (long) Math.floor(demande.getCaloriesMax() * centiemesParKcal);
+        if (somme < bas || somme > haut) {
+            return null;
+        }
+        int categories = (int) Arrays.stream(parCategorie).filter(nombre -> nombre > 0).count();
+        return new Optimum(categories, Math.abs(somme - (bas + haut) / 2));
+    }
+
+    private static long masqueExclu(OptimisationRequest demande) {
+        long masque = 0;
+        for (String allergie : demande.getAllergiesExclues()) {
+            masque |= Allergene.masque(allergie);
+        }
+        return masque;
+    }
+
+    /**
+     * Contraintes tirées au hasard, fenêtre centrée sur les calories d'un buffet du catalogue
+     */
+    private static OptimisationRequest demandeAleatoire(Random aleatoire, CatalogueSnapshot catalogue) {
+        NutrimentStore nutriments = catalogue.getNutriments();
+        long somme = 0;
+        int pris = 2 + aleatoire.nextInt(3);
+        for (int i = 0; i < pris; i++) {
+            // Hors des deux derniers aliments (sans calories, sans catégorie)
+            somme += nutriments.getCaloriesCentiemes(aleatoire.nextInt(nutriments.size() - 2));
+        }
+        long marge = aleatoire.nextInt((int) (somme / 5) + 1);
+        double centiemesParKcal = 10.0 / CalculsBuffet.quantiteParInvite();
+
+        OptimisationRequest demande = new OptimisationRequest(1 + aleatoire.nextInt(50),
+                (somme - marge) / centiemesParKcal, (somme + marge) / centiemesParKcal);
+        demande.setNombreMin(1 + aleatoire.nextInt(3));
+        demande.setNombreMax(demande.getNombreMin() + aleatoire.nextInt(3));
+        demande.setMaxParCategorie(1 + aleatoire.nextInt(2));
+        Set<String> requises = new HashSet<>();
+        int nombreRequises = aleatoire.nextInt(Math.min(2, demande.getNombreMax()) + 1);
+        while (requises.size() < nombreRequises) {
+            requises.add(CATEGORIES[aleatoire.nextInt(CATEGORIES.length)]);
+        }
+        demande.setCategoriesRequises(new ArrayList<>(requises));
+        if (aleatoire.nextBoolean()) {
+            demande.setAllergiesExclues(List.of(EXCLUSIONS[aleatoire.nextInt(EXCLUSIONS.length)]));
+        }
+        return demande;
+    }
+
+    /**
+     * Aliments répartis entre les catégories, plus un aliment sans calories et un sans catégorie
+     */
+    private static CatalogueSnapshot catalogueSynthetique(Random aleatoire, int nombreAliments) {
+        List<Categorie> categories = new ArrayList<>();
+        for (int i = 0; i < CATEGORIES.length; i++) {
+            Categorie categorie = new Categorie(CATEGORIES[i], null);
+            categorie.setId(i + 1L);
+            categories.add(categorie);
+        }
+        List<Aliment> aliments = new ArrayList<>();
+        for (int i = 0; i < nombreAliments; i++) {
+            BigDecimal calories = nombreAliments > CALORIES.length * CATEGORIES.length
+                    ? BigDecimal.valueOf(10 + 7 * i)
+                    : BigDecimal.valueOf(CALORIES[aleatoire.nextInt(CALORIES.length)]);
+            aliments.add(aliment(100L + i, calories, ALLERGIES[aleatoire.nextInt(ALLERGIES.length)],
+                    categories.get(i % CATEGORIES.length)));
+        }
+        aliments.add(aliment(100L + nombreAliments, null, CatalogueSnapshot.AUCUNE_ALLERGIE, categories.get(0)));
+        aliments.add(aliment(101L + nombreAliments, BigDecimal.valueOf(90), CatalogueSnapshot.AUCUNE_ALLERGIE, null));
+        return CatalogueSnapshot.construire(1, categories, aliments);
+    }
+
+    private static Aliment aliment(Long id, BigDecimal calories, String allergies, Categorie categorie) {
+        Aliment aliment = new Aliment("Aliment " + id, null, calories, null, null);
+        aliment.setId(id);
+        aliment.setAllergies(allergies);
+        aliment.setCategorie(categorie);
+        return aliment;
+    }
+}
@@ -0,0 +1,55 @@
+package com.buffet.service;
+
+import com.buffet.model.Repas;
+import com.buffet.repository.AlimentRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Enregistrement d'un repas seul sur le schéma de schema.sql (quantite_grammes obligatoire)
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class PlanificationServiceTest {
+
+    private static final String NOM = "Repas de test";
+
+    @Autowired
+    private PlanificationService planificationService;
+
+    @Autowired
+    private AlimentRepository alimentRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void nettoyer() {
+        jdbcTemplate.update("DELETE FROM repas WHERE nom = ?", NOM);
+    }
+
+    @Test
+    void repasSeulEnregistreAvecQuantiteParPersonne() {
+        Repas repas = new Repas(NOM, null, LocalDate.of(2025, 1, 6), Repas.TypeRepas.DEJEUNER);
+        repas.setNombrePersonnes(3);
+        repas.setAliments(alimentRepository.findAll(PageRequest.of(0, 2)).getContent());
+
+        Long id = planificationService.sauvegarderRepas(repas).getId();
+        assertThat(id).isNotNull();
+
+        List<BigDecimal> quantites = jdbcTemplate.queryForList(
+                "SELECT quantite_grammes FROM repas_aliments WHERE repas_id = ?", BigDecimal.class, id);
+        assertThat(quantites).hasSize(2).allSatisfy(quantite -> assertThat(quantite).isEqualByComparingTo("300"));
+    }
+}
@@ -0,0 +1,166 @@
+package com.buffet.service;
+
+import com.buffet.catalogue.CatalogueCache;
+import com.buffet.model.Aliment;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Synchronisation d'un second catalogue : fichier inchangé ignoré, aliments modifiés
+ * repérés par leur empreinte, et seules les lignes issues du fichier sont supprimées
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class SynchronisationCatalogueServiceTest {
+
+    private static final String CATEGORIE = "Synchronisation de test";
+    private static final String SOURCE = "catalogue de test";
+
+    @Autowired
+    private SynchronisationCatalogueService synchronisationCatalogueService;
+
+    @Autowired
+    private AlimentService alimentService;
+
+    @Autowired
+    private CategorieService categorieService;
+
+    @Autowired
+    private CatalogueCache catalogueCache;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void nettoyer() {
+        jdbcTemplate.update("DELETE FROM repas WHERE nom = ?", CATEGORIE);
+        jdbcTemplate.update("DELETE FROM categories WHERE nom = ?", CATEGORIE);
+        jdbcTemplate.update("DELETE FROM catalogue_sync WHERE source LIKE ?", "%[" + SOURCE + "%");
+    }
+
+    /**
+     * Même fichier une seconde fois : empreinte SHA-256 inchangée, aucune écriture
+     */
+    @Test
+    void fichierInchangeIgnore() throws Exception {
+        String catalogue = catalogue("{\"nom\": \"" + CATEGORIE + "\", \"description\": \"v1\"}", "A", "B");
+        String source = SOURCE + " inchangé";
+        SynchronisationCatalogueService.Bilan premiere = synchroniser(source, catalogue);
+        assertThat(premiere.inchange()).isFalse();
+        assertThat(premiere.alimentsCrees()).isEqualTo(2);
+        long version = catalogueCache.getVersion();
+        // Source enregistrée : description de la ressource, "Byte array resource [...]"
+        String description = new ByteArrayResource(new byte[0], source).getDescription();
+        Object synchroniseLe = jdbcTemplate.queryForObject(
+                "SELECT synchronise_le FROM catalogue_sync WHERE source = ?", Object.class, description);
+
+        SynchronisationCatalogueService.Bilan seconde = synchroniser(source, catalogue);
+
+        assertThat(seconde.inchange()).isTrue();
+        assertThat(seconde).isEqualTo(new SynchronisationCatalogueService.Bilan(
+                true, 0, 0, 0, 0, 0, 0, 0, 0, 0, seconde.duree()));
+        assertThat(catalogueCache.getVersion()).isEqualTo(version);
+        assertThat(jdbcTemplate.queryForObject("SELECT synchronise_le FROM catalogue_sync WHERE source = ?",
+                Object.class, description)).isEqualTo(synchroniseLe);
+        assertThat(nomsDesAliments()).containsExactlyInAnyOrder("A", "B");
+    }
+
+    /**
+     * Un seul aliment aux calories changées : une seule ligne modifiée, les autres
+     * ont la même empreinte et ne sont pas réécrites
+     */
+    @Test
+    void seulAlimentModifieMisAJour() throws Exception {
+        String categorie = "{\"nom\": \"" + CATEGORIE + "\", \"description\": \"v1\"}";
+        String source = SOURCE + " modifié";
+        String avant = catalogue(categorie, "A", "B", "C");
+        synchroniser(source, avant);
+
+        String apres = avant.replace("\"nom\": \"B\", \"calories_per_100g\": 10,",
+                "\"nom\": \"B\", \"calories_per_100g\": 12.5,");
+        assertThat(apres).isNotEqualTo(avant);
+        SynchronisationCatalogueService.Bilan bilan = synchroniser(source, apres);
+
+        assertThat(bilan.inchange()).isFalse();
+        assertThat(bilan.alimentsModifies()).isEqualTo(1);
+        assertThat(bilan.alimentsCrees()).isZero();
+        assertThat(bilan.alimentsSupprimes()).isZero();
+        assertThat(bilan.categoriesModifiees()).isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT calories_per_100g FROM aliments WHERE nom = 'B' "
+                + "AND categorie_id = (SELECT id FROM categories WHERE nom = ?)", BigDecimal.class, CATEGORIE))
+                .isEqualByComparingTo("12.5");
+    }
+
+    @Test
+    void lignesAbsentesDuFichierSupprimeesSeulementSiIssuesDuFichier() throws Exception {
+        SynchronisationCatalogueService.Bilan creation =
+                synchroniser("{\"nom\": \"" + CATEGORIE + "\", \"description\": \"v1\"}", "A", "B", "M");
+        assertThat(creation.categoriesCreees()).isEqualTo(1);
+        assertThat(creation.alimentsCrees()).isEqualTo(3);
+        assertThat(creation.alimentsSupprimes()).isZero();
+
+        // Aliment créé par l'API, aliment du fichier utilisé par un repas
+        Aliment viaApi = new Aliment("Créé par l'API", null, BigDecimal.ONE, "", null);
+        viaApi.setCategorie(categorieService.findByNom(CATEGORIE));
+        alimentService.save(viaApi);
+        jdbcTemplate.update("INSERT INTO repas (nom, date_repas, type_repas) VALUES (?, CURRENT_DATE, 'dejeuner')",
+                CATEGORIE);
+        jdbcTemplate.update("INSERT INTO repas_aliments (repas_id, aliment_id, quantite_grammes) " +
+                "SELECT r.id, a.id, 100 FROM repas r, aliments a WHERE r.nom = ? AND a.nom = 'M'", CATEGORIE);
+
+        SynchronisationCatalogueService.Bilan retrait =
+                synchroniser("{\"nom\": \"" + CATEGORIE + "\", \"description\": \"v2\"}", "A");
+        assertThat(retrait.categoriesModifiees()).isEqualTo(1);
+        assertThat(retrait.alimentsSupprimes()).isEqualTo(1);
+        assertThat(nomsDesAliments()).containsExactlyInAnyOrder("A", "M", "Créé par l'API");
+
+        // La catégorie, encore utilisée, est conservée avec les aliments qui ne viennent pas du fichier
+        SynchronisationCatalogueService.Bilan vide = synchroniser(null);
+        assertThat(vide.alimentsSupprimes()).isEqualTo(1);
+        assertThat(vide.categoriesSupprimees()).isZero();
+        assertThat(vide.categoriesConservees()).isPositive();
+        assertThat(nomsDesAliments()).containsExactlyInAnyOrder("M", "Créé par l'API");
+    }
+
+    private SynchronisationCatalogueService.Bilan synchroniser(String categorie, String... aliments)
+            throws Exception {
+        return synchroniser(SOURCE, catalogue(categorie, aliments));
+    }
+
+    private SynchronisationCatalogueService.Bilan synchroniser(String source, String catalogue) throws Exception {
+        return synchronisationCatalogueService.synchroniser(
+                new ByteArrayResource(catalogue.getBytes(StandardCharsets.UTF_8), source));
+    }
+
+    /**
+     * Fichier d'une catégorie (ou d'aucune) et d'aliments à 10 kcal de cette catégorie
+     */
+    private static String catalogue(String categorie, String... aliments) {
+        StringBuilder json = new StringBuilder("{\"categories\": [")
+                .append(categorie != null ? categorie : "")
+                .append("], \"aliments\": [");
+        for (int i = 0; i < aliments.length; i++) {
+            json.append(i > 0 ? ", " : "")
+                    .append("{\"nom\": \"").append(aliments[i]).append("\", \"calories_per_100g\": 10, ")
+                    .append("\"allergies\": \"\", \"categorie_nom\": \"").append(CATEGORIE).append("\"}");
+        }
+        json.append("]}");
+        return json.toString();
+    }
+
+    private List<String> nomsDesAliments() {
+        return jdbcTemplate.queryForList("SELECT a.nom FROM aliments a JOIN categories c ON a.categorie_id = c.id " +
+                "WHERE c.nom = ?", String.class, CATEGORIE);
+    }
+}